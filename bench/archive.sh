@@ -0,0 +1,113 @@
+#!/usr/bin/env bash
+# Measures list and single-row latency on a large todos table before and after archival.
+# Seeds ROWS todos spread over the last three years (most of the older ones completed)
+# into the database in DATABASE_* env vars, runs the boot jar with archiving off, then again
+# with archiving on until every todo completed more than 90 days ago is in todos_archive.
+# Caches and admission control are turned off so every request reaches the database.
+#
+# Usage: ./gradlew bootJar && bench/archive.sh [rows] [duration]
+set -euo pipefail
+
+ROWS=${1:-5000000}
+DURATION=${2:-30s}
+PORT=${PORT:-8080}
+# Requests carry no token; they all act as jwt.anonymous-owner
+export JWT_REQUIRED=false
+JAR=${JAR:-build/libs/spring-crud-api-1.0.0.jar}
+BASE_URL="http://localhost:$PORT"
+
+command -v wrk > /dev/null || { echo "wrk is required" >&2; exit 1; }
+command -v psql > /dev/null || { echo "psql is required" >&2; exit 1; }
+
+export PGHOST=${DATABASE_HOST:-localhost} PGPORT=${DATABASE_PORT:-5432} PGDATABASE=${DATABASE_NAME:-db}
+export PGUSER=${DATABASE_USER:-postgres} PGPASSWORD=${DATABASE_PASSWORD:-password}
+
+sql() {
+    psql -qtAX -v ON_ERROR_STOP=1 -c "$1"
+}
+
+echo "Seeding $ROWS todos"
+sql "DO \$\$
+DECLARE
+    month DATE := date_trunc('month', now() - INTERVAL '3 years');
+BEGIN
+    WHILE month <= date_trunc('month', now()) LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF todos FOR VALUES FROM (%L) TO (%L)',
+                       'todos_' || to_char(month, 'YYYY_MM'), month, month + INTERVAL '1 month');
+        month := month + INTERVAL '1 month';
+    END LOOP;
+END \$\$"
+sql "INSERT INTO todos (id, title, description, completed, completed_at, created_at, updated_at)
+    SELECT nextval('todos_id_seq'), 'Archive bench todo ' || i, repeat('Notes for todo ' || i || '. ', 20),
+           completed, CASE WHEN completed THEN created_at + INTERVAL '2 days' END, created_at, created_at
+    FROM (SELECT i, now() - (random() * INTERVAL '3 years') AS created_at, random() < 0.9 AS completed
+          FROM generate_series(1, $ROWS) i) seed"
+sql "VACUUM ANALYZE todos"
+
+hot_id=$(sql "SELECT max(id) FROM todos WHERE NOT completed")
+old_id=$(sql "SELECT min(id) FROM todos WHERE completed AND completed_at < now() - INTERVAL '90 days'")
+
+wait_for_app() {
+    for _ in $(seq 1 120); do
+        curl -sf -o /dev/null "$BASE_URL/" && return 0
+        sleep 0.5
+    done
+    echo "application did not start" >&2
+    exit 1
+}
+
+start_app() {
+    ARCHIVE_ENABLED=$1 ARCHIVE_INTERVAL=PT5S ADMISSION_ENABLED=false LIST_CACHE_ENABLED=false \
+        TODO_CACHE_MAX_SIZE=0 java $JAVA_OPTS -jar "$JAR" > "build/archive-$2.log" 2>&1 &
+    app_pid=$!
+    trap "kill $app_pid 2> /dev/null" EXIT
+    wait_for_app
+}
+
+stop_app() {
+    kill "$app_pid"
+    wait "$app_pid" 2> /dev/null || true
+    trap - EXIT
+}
+
+measure() {
+    local phase=$1 label path out rps p99
+    printf '%-8s %-14s %s\n' "$phase" "todos size" "$(sql "SELECT pg_size_pretty(sum(pg_total_relation_size(relid)))
+        FROM pg_partition_tree('todos')")"
+    for label in "list" "list-open" "by-id-hot" "by-id-old"; do
+        case $label in
+            list) path="/api/todos?limit=50" ;;
+            list-open) path="/api/todos?completed=false&limit=50" ;;
+            by-id-hot) path="/api/todos/$hot_id" ;;
+            by-id-old) path="/api/todos/$old_id" ;;
+        esac
+        # Warm up the JIT before measuring
+        wrk -t4 -c16 -d5s "$BASE_URL$path" > /dev/null
+        out=$(wrk -t4 -c32 -d"$DURATION" --latency "$BASE_URL$path")
+        rps=$(echo "$out" | awk '/Requests\/sec/ {print $2}')
+        p99=$(echo "$out" | awk '$1 == "99%" {print $2}')
+        printf '%-8s %-14s %12s %10s\n' "$phase" "$label" "$rps" "$p99"
+    done
+}
+
+JAVA_OPTS=${JAVA_OPTS:--Xmx512m -Xms256m}
+mkdir -p build
+printf '%-8s %-14s %12s %10s\n' phase endpoint req/sec p99
+
+start_app false before
+measure before
+stop_app
+
+start_app true after
+# Archiving runs every 5s in batches; wait until a run moves nothing more
+previous=-1
+archived=$(sql "SELECT count(*) FROM todos_archive")
+until [ "$archived" = "$previous" ]; do
+    sleep 10
+    previous=$archived
+    archived=$(sql "SELECT count(*) FROM todos_archive")
+done
+echo "$archived todos archived"
+sql "VACUUM ANALYZE todos"
+measure after
+stop_app
@@ -0,0 +1,57 @@
+#!/usr/bin/env bash
+# Compares insert throughput of one-row-per-request POST /api/todos against POST /api/todos/batch.
+# Both runs reuse a single keep-alive connection so the difference is the per-row server cost.
+#
+# Usage: bench/batch-vs-single.sh [base-url] [rows] [batch-size]
+# Against a server started with JWT_REQUIRED=false ADMISSION_ENABLED=false (or the "embedded"
+# profile with ADMISSION_ENABLED=false): all requests come from one address, and per-client
+# rate limits would reject most of them.
+set -euo pipefail
+
+BASE_URL=${1:-http://localhost:8080}
+ROWS=${2:-2000}
+BATCH_SIZE=${3:-500}
+
+now_ms() { date +%s%3N; }
+
+rate() { echo "$(( $1 * 1000 / ($2 > 0 ? $2 : 1) ))"; }
+
+# Reads one status code per line; fails the run if any request was not answered with 2xx
+check_statuses() {
+    local label=$1 failed
+    failed=$(grep -cv '^2' || true)
+    if [ "$failed" -gt 0 ]; then
+        echo "FAIL: $label: $failed non-2xx responses" >&2
+        exit 1
+    fi
+}
+
+# Single-item calls: one curl process, ROWS URLs, same body for each
+urls=()
+for ((i = 0; i < ROWS; i++)); do
+    urls+=("$BASE_URL/api/todos")
+done
+start=$(now_ms)
+statuses=$(curl -s -o /dev/null -w '%{http_code}\n' -H 'Content-Type: application/json' \
+    -d '{"title":"bench single","description":"batch-vs-single"}' "${urls[@]}")
+single_ms=$(( $(now_ms) - start ))
+check_statuses single <<< "$statuses"
+
+# Batched calls: ROWS / BATCH_SIZE requests of BATCH_SIZE create operations each
+op='{"op":"CREATE","title":"bench batch","description":"batch-vs-single"}'
+body=$(printf "$op,%.0s" $(seq 1 "$BATCH_SIZE"))
+body="{\"operations\":[${body%,}]}"
+batches=$(( (ROWS + BATCH_SIZE - 1) / BATCH_SIZE ))
+urls=()
+for ((i = 0; i < batches; i++)); do
+    urls+=("$BASE_URL/api/todos/batch")
+done
+start=$(now_ms)
+statuses=$(curl -s -o /dev/null -w '%{http_code}\n' -H 'Content-Type: application/json' -d "$body" "${urls[@]}")
+batch_ms=$(( $(now_ms) - start ))
+check_statuses batch <<< "$statuses"
+batch_rows=$(( batches * BATCH_SIZE ))
+
+printf '%-8s %10s %10s %12s\n' mode rows ms rows/sec
+printf '%-8s %10d %10d %12d\n' single "$ROWS" "$single_ms" "$(rate "$ROWS" "$single_ms")"
+printf '%-8s %10d %10d %12d\n' batch "$batch_rows" "$batch_ms" "$(rate "$batch_rows" "$batch_ms")"
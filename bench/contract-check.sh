@@ -0,0 +1,144 @@
+#!/usr/bin/env bash
+# Checks the JSON contract of the core /api/todos routes: status codes, envelope fields,
+# ETag / If-Match / If-None-Match handling and NDJSON export. The servlet and reactive stacks
+# must both pass. ./gradlew test runs the same checks, and more, as TodoApiContractTest.
+#
+# Usage: bench/contract-check.sh http://localhost:8080      (an already running stack)
+#        ./gradlew bootJar reactiveBootJar && bench/contract-check.sh
+#                                                           (starts and checks both jars in turn)
+set -euo pipefail
+
+PORT=${PORT:-8080}
+# Requests carry no token; they all act as jwt.anonymous-owner
+export JWT_REQUIRED=false
+SERVLET_JAR=${SERVLET_JAR:-build/libs/spring-crud-api-1.0.0.jar}
+REACTIVE_JAR=${REACTIVE_JAR:-build/libs/spring-crud-api-1.0.0-reactive.jar}
+
+command -v jq > /dev/null || { echo "jq is required" >&2; exit 1; }
+
+FAILURES=0
+BODY=$(mktemp)
+HEADERS=$(mktemp)
+trap 'rm -f "$BODY" "$HEADERS"' EXIT
+
+# request METHOD URL [curl args...]; sets STATUS, response body in $BODY, headers in $HEADERS
+request() {
+    local method=$1 url=$2
+    shift 2
+    STATUS=$(curl -s -o "$BODY" -D "$HEADERS" -w '%{http_code}' -X "$method" "$@" "$url")
+}
+
+expect() {
+    local name=$1 expected=$2 actual=$3
+    if [ "$expected" = "$actual" ]; then
+        printf '  ok    %s\n' "$name"
+    else
+        printf '  FAIL  %s: expected %s, got %s\n' "$name" "$expected" "$actual"
+        FAILURES=$((FAILURES + 1))
+    fi
+}
+
+json() {
+    jq -r "$1" "$BODY"
+}
+
+etag() {
+    tr -d '\r' < "$HEADERS" | awk 'tolower($1) == "etag:" {print $2}'
+}
+
+check_contract() {
+    local base=$1 api="$1/api/todos" id tag
+    echo "Contract check against $base"
+
+    request POST "$api" -H 'Content-Type: application/json' -d '{"title":"contract check","description":"d"}'
+    expect "create status" 201 "$STATUS"
+    expect "create success" true "$(json .success)"
+    expect "create title" "contract check" "$(json .data.title)"
+    expect "create completed" false "$(json .data.completed)"
+    expect "create version" 0 "$(json .data.version)"
+    expect "create etag" '"0"' "$(etag)"
+    expect "create createdAt set" true "$(json '.data.createdAt != null')"
+    id=$(json .data.id)
+
+    request POST "$api" -H 'Content-Type: application/json' -d '{"title":""}'
+    expect "create blank title" 400 "$STATUS"
+
+    request GET "$api/$id"
+    expect "get status" 200 "$STATUS"
+    expect "get id" "$id" "$(json .data.id)"
+    tag=$(etag)
+    expect "get etag" '"0"' "$tag"
+
+    request GET "$api/$id" -H "If-None-Match: $tag"
+    expect "get not modified" 304 "$STATUS"
+
+    request GET "$api?limit=1"
+    expect "list status" 200 "$STATUS"
+    expect "list data is array" array "$(json '.data | type')"
+    expect "list respects limit" true "$(json '(.data | length) <= 1')"
+    expect "list has nextCursor" true "$(json 'has("nextCursor")')"
+
+    request GET "$api?cursor=not-a-cursor"
+    expect "list bad cursor" 400 "$STATUS"
+    expect "list bad cursor success" false "$(json .success)"
+
+    request PUT "$api/$id" -H 'Content-Type: application/json' -H 'If-Match: "99"' -d '{"title":"stale"}'
+    expect "update stale if-match" 412 "$STATUS"
+
+    request PUT "$api/$id" -H 'Content-Type: application/json' -H "If-Match: $tag" -d '{"title":"updated"}'
+    expect "update status" 200 "$STATUS"
+    expect "update title" updated "$(json .data.title)"
+    expect "update description kept" d "$(json .data.description)"
+    expect "update version" 1 "$(json .data.version)"
+
+    request PATCH "$api/$id/toggle"
+    expect "toggle status" 200 "$STATUS"
+    expect "toggle completed" true "$(json .data.completed)"
+    expect "toggle completedAt set" true "$(json '.data.completedAt != null')"
+    expect "toggle etag" '"2"' "$(etag)"
+
+    request GET "$api/export?afterId=$((id - 1))"
+    expect "export status" 200 "$STATUS"
+    expect "export first line" "$id" "$(head -n 1 "$BODY" | jq -r .id)"
+
+    request DELETE "$api/$id" -H 'If-Match: "1"'
+    expect "delete stale if-match" 412 "$STATUS"
+
+    request DELETE "$api/$id"
+    expect "delete status" 200 "$STATUS"
+    expect "delete success" true "$(json .success)"
+
+    request GET "$api/$id"
+    expect "get deleted" 404 "$STATUS"
+    expect "get deleted success" false "$(json .success)"
+
+    request DELETE "$api/$id"
+    expect "delete missing" 404 "$STATUS"
+
+    request PATCH "$api/$id/toggle"
+    expect "toggle missing" 404 "$STATUS"
+}
+
+check_jar() {
+    local jar=$1
+    java -jar "$jar" > "build/contract-$(basename "$jar" .jar).log" 2>&1 &
+    local pid=$!
+    for _ in $(seq 1 120); do
+        curl -sf -o /dev/null "http://localhost:$PORT/" && break
+        sleep 0.5
+    done
+    check_contract "http://localhost:$PORT" || true
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+}
+
+if [ $# -gt 0 ]; then
+    check_contract "$1"
+else
+    mkdir -p build
+    check_jar "$SERVLET_JAR"
+    check_jar "$REACTIVE_JAR"
+fi
+
+[ "$FAILURES" -eq 0 ] || { echo "$FAILURES check(s) failed" >&2; exit 1; }
+echo "All checks passed"
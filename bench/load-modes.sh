@@ -0,0 +1,76 @@
+#!/usr/bin/env bash
+# Compares throughput and p99 latency of platform-thread and virtual-thread request execution.
+# Starts the boot jar once per mode against the database in DATABASE_* env vars and drives the
+# /api/todos endpoints with wrk.
+#
+# Usage: ./gradlew bootJar && bench/load-modes.sh [connections] [duration]
+set -euo pipefail
+
+CONNECTIONS=${1:-1000}
+DURATION=${2:-30s}
+PORT=${PORT:-8080}
+# Requests carry no token; they all act as jwt.anonymous-owner
+export JWT_REQUIRED=false
+# All traffic comes from one address, so per-client rate limits would answer most of it with 429;
+# the list cache would turn the list route into a cache benchmark
+export ADMISSION_ENABLED=false
+export LIST_CACHE_ENABLED=false
+JAR=${JAR:-build/libs/spring-crud-api-1.0.0.jar}
+BASE_URL="http://localhost:$PORT"
+
+command -v wrk > /dev/null || { echo "wrk is required" >&2; exit 1; }
+
+# Fails the run when wrk saw errors, so a rejected request is never counted as throughput
+check_wrk() {
+    local out=$1 label=$2 errors
+    errors=$(awk '/Non-2xx or 3xx responses/ {print $NF}' "$out")
+    if [ -n "$errors" ]; then
+        echo "FAIL: $label: $errors non-2xx responses" >&2
+        exit 1
+    fi
+}
+
+wait_for_app() {
+    for _ in $(seq 1 120); do
+        curl -sf -o /dev/null "$BASE_URL/" && return 0
+        sleep 0.5
+    done
+    echo "application did not start" >&2
+    exit 1
+}
+
+run_mode() {
+    local mode=$1 profiles=$2
+    SPRING_PROFILES_ACTIVE=$profiles java $JAVA_OPTS -jar "$JAR" > "build/load-$mode.log" 2>&1 &
+    local pid=$!
+    trap "kill $pid 2> /dev/null" EXIT
+    wait_for_app
+
+    local id
+    id=$(curl -sf -H 'Content-Type: application/json' -d '{"title":"load bench"}' "$BASE_URL/api/todos" \
+        | sed -E 's/.*"id":([0-9]+).*/\1/')
+
+    local label path out rps p99
+    for label in "list" "by-id"; do
+        [ "$label" = "list" ] && path="/api/todos?limit=50" || path="/api/todos/$id"
+        # Warm up the JIT before measuring
+        wrk -t4 -c64 -d5s "$BASE_URL$path" > /dev/null
+        out=$(mktemp)
+        wrk -t8 -c"$CONNECTIONS" -d"$DURATION" --latency "$BASE_URL$path" > "$out"
+        check_wrk "$out" "$mode $label"
+        rps=$(awk '/Requests\/sec/ {print $2}' "$out")
+        p99=$(awk '$1 == "99%" {print $2}' "$out")
+        rm -f "$out"
+        printf '%-10s %-8s %12s %10s\n' "$mode" "$label" "$rps" "$p99"
+    done
+
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    trap - EXIT
+}
+
+JAVA_OPTS=${JAVA_OPTS:--Xmx512m -Xms256m}
+mkdir -p build
+printf '%-10s %-8s %12s %10s\n' mode endpoint req/sec p99
+run_mode platform "${SPRING_PROFILES_ACTIVE:-default}"
+run_mode virtual "${SPRING_PROFILES_ACTIVE:+$SPRING_PROFILES_ACTIVE,}virtual-threads"
@@ -0,0 +1,106 @@
+#!/usr/bin/env bash
+# Compares the servlet + JPA stack with the WebFlux + R2DBC stack: throughput, p99 latency and
+# resident memory per open connection. Each jar is started in turn against the database in
+# DATABASE_* env vars. Memory per connection is the peak RSS growth over the idle baseline
+# while wrk holds the connections open, divided by the connection count.
+#
+# Usage: ./gradlew bootJar reactiveBootJar && bench/servlet-vs-reactive.sh [connections...] [-- duration]
+#        bench/servlet-vs-reactive.sh 100 1000 5000
+set -euo pipefail
+
+CONNECTION_COUNTS=()
+DURATION=30s
+while [ $# -gt 0 ]; do
+    case $1 in
+        --) DURATION=${2:-30s}; shift $# ;;
+        *) CONNECTION_COUNTS+=("$1"); shift ;;
+    esac
+done
+[ ${#CONNECTION_COUNTS[@]} -gt 0 ] || CONNECTION_COUNTS=(100 1000 5000)
+
+PORT=${PORT:-8080}
+# Requests carry no token; they all act as jwt.anonymous-owner
+export JWT_REQUIRED=false
+# All traffic comes from one address, so per-client rate limits would answer most of it with 429;
+# the reactive stack has neither admission control nor a list cache
+export ADMISSION_ENABLED=false
+export LIST_CACHE_ENABLED=false
+SERVLET_JAR=${SERVLET_JAR:-build/libs/spring-crud-api-1.0.0.jar}
+REACTIVE_JAR=${REACTIVE_JAR:-build/libs/spring-crud-api-1.0.0-reactive.jar}
+JAVA_OPTS=${JAVA_OPTS:--Xmx512m -Xms256m}
+BASE_URL="http://localhost:$PORT"
+
+command -v wrk > /dev/null || { echo "wrk is required" >&2; exit 1; }
+
+wait_for_app() {
+    for _ in $(seq 1 120); do
+        curl -sf -o /dev/null "$BASE_URL/" && return 0
+        sleep 0.5
+    done
+    echo "application did not start" >&2
+    exit 1
+}
+
+# Fails the run when wrk saw errors, so a rejected request is never counted as throughput
+check_wrk() {
+    local out=$1 label=$2 errors
+    errors=$(awk '/Non-2xx or 3xx responses/ {print $NF}' "$out")
+    if [ -n "$errors" ]; then
+        echo "FAIL: $label: $errors non-2xx responses" >&2
+        exit 1
+    fi
+}
+
+rss_kb() {
+    ps -o rss= -p "$1" | tr -d ' '
+}
+
+run_stack() {
+    local stack=$1 jar=$2
+    java $JAVA_OPTS -jar "$jar" > "build/bench-$stack.log" 2>&1 &
+    local pid=$!
+    trap "kill $pid 2> /dev/null" EXIT
+    wait_for_app
+
+    local id
+    id=$(curl -sf -H 'Content-Type: application/json' -d '{"title":"stack bench"}' "$BASE_URL/api/todos" \
+        | sed -E 's/.*"id":([0-9]+).*/\1/')
+
+    # Warm up the JIT, then let the heap settle before taking the baseline
+    wrk -t4 -c64 -d10s "$BASE_URL/api/todos/$id" > /dev/null
+    sleep 2
+    local baseline
+    baseline=$(rss_kb "$pid")
+
+    local label path connections out rps p99 peak sample wrk_pid
+    for connections in "${CONNECTION_COUNTS[@]}"; do
+        for label in "list" "by-id"; do
+            [ "$label" = "list" ] && path="/api/todos?limit=50" || path="/api/todos/$id"
+            out=$(mktemp)
+            wrk -t8 -c"$connections" -d"$DURATION" --latency "$BASE_URL$path" > "$out" &
+            wrk_pid=$!
+            peak=$baseline
+            while kill -0 "$wrk_pid" 2> /dev/null; do
+                sample=$(rss_kb "$pid")
+                [ "$sample" -gt "$peak" ] && peak=$sample
+                sleep 1
+            done
+            wait "$wrk_pid"
+            check_wrk "$out" "$stack $label $connections"
+            rps=$(awk '/Requests\/sec/ {print $2}' "$out")
+            p99=$(awk '$1 == "99%" {print $2}' "$out")
+            rm -f "$out"
+            printf '%-9s %-6s %7s %12s %10s %10s %10s\n' "$stack" "$label" "$connections" "$rps" "$p99" \
+                "$((peak / 1024))" "$(((peak - baseline) / connections))"
+        done
+    done
+
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    trap - EXIT
+}
+
+mkdir -p build
+printf '%-9s %-6s %7s %12s %10s %10s %10s\n' stack route conns req/sec p99 peakMB KB/conn
+run_stack servlet "$SERVLET_JAR"
+run_stack reactive "$REACTIVE_JAR"
@@ -0,0 +1,50 @@
+#!/usr/bin/env bash
+# Measures time to first successful request for the standard and the fast-startup (AOT +
+# AppCDS) images: from `docker run` until GET /health/ready returns 200, which needs the
+# Spring context, the connection pool and a database round trip. Each image is started
+# RUNS times against the database in DATABASE_* env vars; min and median are reported.
+#
+# Usage: bench/startup.sh [runs]
+set -euo pipefail
+
+RUNS=${1:-5}
+PORT=${PORT:-8080}
+DATABASE_HOST=${DATABASE_HOST:-host.docker.internal}
+
+docker build -q --target runtime -t todo-api:standard . > /dev/null
+docker build -q --target fast -t todo-api:fast . > /dev/null
+
+now_ms() {
+    date +%s%3N
+}
+
+measure() {
+    local image=$1 start container elapsed
+    start=$(now_ms)
+    container=$(docker run -d --rm -p "$PORT:8080" --add-host=host.docker.internal:host-gateway \
+        -e DATABASE_HOST="$DATABASE_HOST" -e DATABASE_PORT="${DATABASE_PORT:-5432}" \
+        -e DATABASE_NAME="${DATABASE_NAME:-db}" -e DATABASE_USER="${DATABASE_USER:-postgres}" \
+        -e DATABASE_PASSWORD="${DATABASE_PASSWORD:-password}" "$image")
+    until curl -sf -o /dev/null "http://localhost:$PORT/health/ready"; do
+        if [ $(($(now_ms) - start)) -gt 120000 ]; then
+            docker logs "$container" >&2
+            docker stop "$container" > /dev/null
+            echo "$image did not become ready" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+    elapsed=$(($(now_ms) - start))
+    docker stop "$container" > /dev/null
+    echo "$elapsed"
+}
+
+printf '%-20s %10s %10s\n' image min_ms median_ms
+for image in todo-api:standard todo-api:fast; do
+    times=()
+    for _ in $(seq 1 "$RUNS"); do
+        times+=("$(measure "$image")")
+    done
+    sorted=($(printf '%s\n' "${times[@]}" | sort -n))
+    printf '%-20s %10s %10s\n' "$image" "${sorted[0]}" "${sorted[$((RUNS / 2))]}"
+done
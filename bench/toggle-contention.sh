@@ -0,0 +1,41 @@
+#!/usr/bin/env bash
+# Hammers PATCH /api/todos/{id}/toggle on a single todo from many concurrent clients and
+# checks that no toggle was lost: after an even number of toggles completed must be unchanged.
+#
+# Usage: bench/toggle-contention.sh [base-url] [toggles] [concurrency]
+# Against a server started with JWT_REQUIRED=false ADMISSION_ENABLED=false (or the "embedded"
+# profile with ADMISSION_ENABLED=false): all requests come from one address, and per-client
+# rate limits would reject most of them.
+set -euo pipefail
+
+BASE_URL=${1:-http://localhost:8080}
+TOGGLES=${2:-1000}
+CONCURRENCY=${3:-32}
+
+# Round up to an even number of toggles so the expected final state is the initial one
+TOGGLES=$(( TOGGLES + TOGGLES % 2 ))
+
+id=$(curl -sf -H 'Content-Type: application/json' -d '{"title":"toggle contention"}' "$BASE_URL/api/todos" \
+    | sed -E 's/.*"id":([0-9]+).*/\1/')
+
+start=$(date +%s%3N)
+statuses=$(seq 1 "$TOGGLES" | xargs -P "$CONCURRENCY" -I{} \
+    curl -s -o /dev/null -w '%{http_code}\n' -X PATCH "$BASE_URL/api/todos/$id/toggle")
+elapsed=$(( $(date +%s%3N) - start ))
+
+# A rejected toggle (e.g. 429) would also leave the parity wrong, but is no lost update
+failed=$(grep -cv '^200$' <<< "$statuses" || true)
+if [ "$failed" -gt 0 ]; then
+    echo "FAIL: $failed of $TOGGLES toggles were not answered with 200" >&2
+    exit 1
+fi
+
+completed=$(curl -sf "$BASE_URL/api/todos/$id" | sed -E 's/.*"completed":(true|false).*/\1/')
+curl -sf -o /dev/null -X DELETE "$BASE_URL/api/todos/$id"
+
+echo "todo $id: $TOGGLES toggles with concurrency $CONCURRENCY in ${elapsed}ms, completed=$completed"
+if [ "$completed" != "false" ]; then
+    echo "FAIL: lost update detected" >&2
+    exit 1
+fi
+echo "OK: no lost updates"
@@ -3,11 +3,110 @@
 -- \dt - List all tables
 -- \c khobragade_db - Connect to a specific database
 -- Create todos table
+-- INCREMENT BY must match allocationSize on Todo.id (Hibernate pooled optimizer)
+CREATE SEQUENCE todos_id_seq AS BIGINT INCREMENT BY 50;
+
+-- Range-partitioned by month of created_at. The partition key has to be part of the primary
+-- key; ids stay unique because they all come from todos_id_seq.
 CREATE TABLE todos (
-    id SERIAL PRIMARY KEY,
+    id BIGINT NOT NULL DEFAULT nextval('todos_id_seq'),
+    -- Subject of the JWT that created the todo; every API query filters on it
+    owner_id VARCHAR(64) NOT NULL DEFAULT 'anonymous',
     title VARCHAR(255) NOT NULL,
     description TEXT,
     completed BOOLEAN DEFAULT FALSE,
-    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-);
\ No newline at end of file
+    completed_at TIMESTAMP,
+    due_at TIMESTAMP,
+    remind_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0,
+    search_vector TSVECTOR GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('english', coalesce(description, '')), 'B')
+    ) STORED,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE todos_id_seq OWNED BY todos.id;
+
+-- Monthly partitions (todos_YYYY_MM) are created ahead of time by the application;
+-- see TodoPartitionService. Rows outside them land here.
+CREATE TABLE todos_default PARTITION OF todos DEFAULT;
+
+-- Keyset pagination indexes (GET /api/todos), owner first so a user's page is a short range
+-- scan however many todos other users have
+CREATE INDEX idx_todos_owner_id_id ON todos (owner_id, id);
+CREATE INDEX idx_todos_owner_id_completed_id ON todos (owner_id, completed, id);
+CREATE INDEX idx_todos_owner_id_updated_at_id ON todos (owner_id, updated_at, id);
+
+-- Full-text search (GET /api/todos/search)
+CREATE INDEX idx_todos_search_vector ON todos USING GIN (search_vector);
+
+-- Stats reconciliation (GET /api/todos/stats)
+CREATE INDEX idx_todos_created_at ON todos (created_at);
+CREATE INDEX idx_todos_completed_at ON todos (completed_at) WHERE completed;
+
+-- Reminder scheduler window loads (open todos only)
+CREATE INDEX idx_todos_due_at_id ON todos (due_at, id) WHERE due_at IS NOT NULL AND NOT completed;
+CREATE INDEX idx_todos_remind_at_id ON todos (remind_at, id) WHERE remind_at IS NOT NULL AND NOT completed;
+
+-- Deleted todos, reported by the change feed (GET /api/todos/changes)
+CREATE TABLE todo_tombstones (
+    todo_id BIGINT PRIMARY KEY,
+    owner_id VARCHAR(64) NOT NULL DEFAULT 'anonymous',
+    deleted_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_todo_tombstones_deleted_at_todo_id ON todo_tombstones (deleted_at, todo_id);
+CREATE INDEX idx_todo_tombstones_owner_id_deleted_at_todo_id ON todo_tombstones (owner_id, deleted_at, todo_id);
+
+-- Bulk imports and their rejected records (PUT /api/todos/imports/{importId})
+CREATE TABLE todo_imports (
+    id VARCHAR(64) PRIMARY KEY,
+    owner_id VARCHAR(64) NOT NULL DEFAULT 'anonymous',
+    format VARCHAR(16) NOT NULL,
+    status VARCHAR(16) NOT NULL,
+    records_consumed BIGINT NOT NULL DEFAULT 0,
+    rows_imported BIGINT NOT NULL DEFAULT 0,
+    rows_rejected BIGINT NOT NULL DEFAULT 0,
+    error TEXT,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
+CREATE TABLE todo_import_rejects (
+    import_id VARCHAR(64) NOT NULL REFERENCES todo_imports (id) ON DELETE CASCADE,
+    line BIGINT NOT NULL,
+    reason TEXT NOT NULL,
+    content TEXT,
+    PRIMARY KEY (import_id, line)
+);
+
+-- Completed todos moved out of todos after app.archive.completed-age; see TodoArchiveService.
+-- Still served by GET /api/todos/{id}, and moved back to todos when written to.
+CREATE TABLE todos_archive (
+    id BIGINT PRIMARY KEY,
+    owner_id VARCHAR(64) NOT NULL DEFAULT 'anonymous',
+    title VARCHAR(255) NOT NULL,
+    description TEXT,
+    completed BOOLEAN NOT NULL,
+    completed_at TIMESTAMP,
+    due_at TIMESTAMP,
+    remind_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP,
+    version BIGINT NOT NULL,
+    archived_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_todos_archive_owner_id_id ON todos_archive (owner_id, id);
+
+-- TOAST-compress archived descriptions (about 2 kB and up) with lz4, which needs Postgres 14
+-- built with lz4 support; elsewhere the server default (pglz) is kept
+-- (single-quoted rather than dollar-quoted: the embedded profile splits this script on semicolons)
+DO 'BEGIN
+    EXECUTE ''ALTER TABLE todos_archive ALTER COLUMN description SET COMPRESSION lz4'';
+EXCEPTION WHEN OTHERS THEN
+    RAISE NOTICE ''todos_archive keeps the default compression: %'', SQLERRM;
+END';
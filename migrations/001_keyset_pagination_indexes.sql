@@ -0,0 +1,4 @@
+-- Apply to databases created before keyset pagination was added:
+-- cat migrations/001_keyset_pagination_indexes.sql | docker exec -i postgres psql -U khobragade_db_user -d khobragade_db
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_todos_completed_id ON todos (completed, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_todos_updated_at_id ON todos (updated_at, id);
@@ -0,0 +1,7 @@
+-- Switch todos.id from SERIAL to a BIGINT column backed by a pooled sequence so that
+-- Hibernate can batch inserts. INCREMENT BY must match allocationSize on Todo.id.
+-- Existing ids are kept; the next id handed out starts above the current sequence value.
+BEGIN;
+ALTER TABLE todos ALTER COLUMN id TYPE BIGINT;
+ALTER SEQUENCE todos_id_seq AS BIGINT INCREMENT BY 50;
+COMMIT;
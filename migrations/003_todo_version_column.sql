@@ -0,0 +1,2 @@
+-- Optimistic locking column for Todo (@Version), exposed to clients as the ETag.
+ALTER TABLE todos ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
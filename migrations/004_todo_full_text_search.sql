@@ -0,0 +1,8 @@
+-- Full-text search column and index for GET /api/todos/search.
+-- Adding a stored generated column rewrites the table; run during a quiet period.
+ALTER TABLE todos ADD COLUMN IF NOT EXISTS search_vector TSVECTOR GENERATED ALWAYS AS (
+    setweight(to_tsvector('english', coalesce(title, '')), 'A') ||
+    setweight(to_tsvector('english', coalesce(description, '')), 'B')
+) STORED;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_todos_search_vector ON todos USING GIN (search_vector);
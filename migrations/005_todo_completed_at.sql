@@ -0,0 +1,7 @@
+-- completed_at feeds the per-day completed figures of GET /api/todos/stats.
+-- Existing completed todos take their last update as the completion time.
+ALTER TABLE todos ADD COLUMN IF NOT EXISTS completed_at TIMESTAMP;
+UPDATE todos SET completed_at = updated_at WHERE completed AND completed_at IS NULL;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_todos_created_at ON todos (created_at);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_todos_completed_at ON todos (completed_at) WHERE completed;
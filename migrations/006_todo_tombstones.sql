@@ -0,0 +1,8 @@
+-- Deleted todos leave a tombstone so GET /api/todos/changes can report the delete.
+-- Rows older than app.changes.tombstone-retention are purged by the application.
+CREATE TABLE IF NOT EXISTS todo_tombstones (
+    todo_id BIGINT PRIMARY KEY,
+    deleted_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_todo_tombstones_deleted_at_todo_id ON todo_tombstones (deleted_at, todo_id);
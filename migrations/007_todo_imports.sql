@@ -0,0 +1,22 @@
+-- Progress and rejected records of bulk imports (PUT /api/todos/imports/{importId}).
+-- records_consumed advances in the same transaction as each COPY chunk, so a resumed
+-- upload skips exactly the records already committed.
+CREATE TABLE IF NOT EXISTS todo_imports (
+    id VARCHAR(64) PRIMARY KEY,
+    format VARCHAR(16) NOT NULL,
+    status VARCHAR(16) NOT NULL,
+    records_consumed BIGINT NOT NULL DEFAULT 0,
+    rows_imported BIGINT NOT NULL DEFAULT 0,
+    rows_rejected BIGINT NOT NULL DEFAULT 0,
+    error TEXT,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS todo_import_rejects (
+    import_id VARCHAR(64) NOT NULL REFERENCES todo_imports (id) ON DELETE CASCADE,
+    line BIGINT NOT NULL,
+    reason TEXT NOT NULL,
+    content TEXT,
+    PRIMARY KEY (import_id, line)
+);
@@ -0,0 +1,9 @@
+-- Due dates and reminder times. The partial indexes only cover open todos with a time set,
+-- which is all the reminder scheduler's window queries read.
+ALTER TABLE todos ADD COLUMN IF NOT EXISTS due_at TIMESTAMP;
+ALTER TABLE todos ADD COLUMN IF NOT EXISTS remind_at TIMESTAMP;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_todos_due_at_id ON todos (due_at, id)
+    WHERE due_at IS NOT NULL AND NOT completed;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_todos_remind_at_id ON todos (remind_at, id)
+    WHERE remind_at IS NOT NULL AND NOT completed;
@@ -0,0 +1,88 @@
+-- Monthly range partitions of todos by created_at, plus todos_archive for completed todos
+-- moved out by the application (app.archive.*). A partitioned table cannot be created from an
+-- existing one in place, so the rows are copied into a new table that then takes the name.
+-- Locks todos for the duration of the copy; run during a quiet period.
+BEGIN;
+
+LOCK TABLE todos IN ACCESS EXCLUSIVE MODE;
+
+CREATE TABLE todos_partitioned (
+    id BIGINT NOT NULL DEFAULT nextval('todos_id_seq'),
+    title VARCHAR(255) NOT NULL,
+    description TEXT,
+    completed BOOLEAN DEFAULT FALSE,
+    completed_at TIMESTAMP,
+    due_at TIMESTAMP,
+    remind_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0,
+    search_vector TSVECTOR GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('english', coalesce(description, '')), 'B')
+    ) STORED,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE todos_default PARTITION OF todos_partitioned DEFAULT;
+
+-- One partition per month from the oldest todo to three months ahead; the application
+-- creates later ones (TodoPartitionService)
+DO $$
+DECLARE
+    month DATE := date_trunc('month', coalesce((SELECT min(created_at) FROM todos), now()));
+BEGIN
+    WHILE month <= date_trunc('month', now()) + INTERVAL '3 months' LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF todos_partitioned FOR VALUES FROM (%L) TO (%L)',
+                       'todos_' || to_char(month, 'YYYY_MM'), month, month + INTERVAL '1 month');
+        month := month + INTERVAL '1 month';
+    END LOOP;
+END $$;
+
+INSERT INTO todos_partitioned (id, title, description, completed, completed_at, due_at, remind_at,
+                               created_at, updated_at, version)
+SELECT id, title, description, completed, completed_at, due_at, remind_at,
+       coalesce(created_at, updated_at, CURRENT_TIMESTAMP), updated_at, version
+FROM todos;
+
+-- Otherwise dropping the old table would drop the sequence with it
+ALTER SEQUENCE todos_id_seq OWNED BY todos_partitioned.id;
+DROP TABLE todos;
+ALTER TABLE todos_partitioned RENAME TO todos;
+ALTER TABLE todos RENAME CONSTRAINT todos_partitioned_pkey TO todos_pkey;
+
+-- Indexes on the parent are created on every partition, present and future
+CREATE INDEX idx_todos_completed_id ON todos (completed, id);
+CREATE INDEX idx_todos_updated_at_id ON todos (updated_at, id);
+CREATE INDEX idx_todos_search_vector ON todos USING GIN (search_vector);
+CREATE INDEX idx_todos_created_at ON todos (created_at);
+CREATE INDEX idx_todos_completed_at ON todos (completed_at) WHERE completed;
+CREATE INDEX idx_todos_due_at_id ON todos (due_at, id) WHERE due_at IS NOT NULL AND NOT completed;
+CREATE INDEX idx_todos_remind_at_id ON todos (remind_at, id) WHERE remind_at IS NOT NULL AND NOT completed;
+
+CREATE TABLE IF NOT EXISTS todos_archive (
+    id BIGINT PRIMARY KEY,
+    title VARCHAR(255) NOT NULL,
+    description TEXT,
+    completed BOOLEAN NOT NULL,
+    completed_at TIMESTAMP,
+    due_at TIMESTAMP,
+    remind_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP,
+    version BIGINT NOT NULL,
+    archived_at TIMESTAMP NOT NULL
+);
+
+-- TOAST-compress archived descriptions (about 2 kB and up) with lz4, which needs Postgres 14
+-- built with lz4 support; elsewhere the server default (pglz) is kept
+DO $$
+BEGIN
+    EXECUTE 'ALTER TABLE todos_archive ALTER COLUMN description SET COMPRESSION lz4';
+EXCEPTION WHEN OTHERS THEN
+    RAISE NOTICE 'todos_archive keeps the default compression: %', SQLERRM;
+END $$;
+
+COMMIT;
+
+ANALYZE todos;
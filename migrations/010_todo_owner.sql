@@ -0,0 +1,21 @@
+-- Per-user todos: owner_id is the subject of the JWT that created a row, and every query of
+-- the API filters on it. Existing rows go to 'anonymous' (jwt.anonymous-owner); reassign them
+-- with UPDATE ... SET owner_id before turning jwt.required on if they belong to someone.
+-- Adding a column with a constant default does not rewrite the tables.
+ALTER TABLE todos ADD COLUMN IF NOT EXISTS owner_id VARCHAR(64) NOT NULL DEFAULT 'anonymous';
+ALTER TABLE todos_archive ADD COLUMN IF NOT EXISTS owner_id VARCHAR(64) NOT NULL DEFAULT 'anonymous';
+ALTER TABLE todo_tombstones ADD COLUMN IF NOT EXISTS owner_id VARCHAR(64) NOT NULL DEFAULT 'anonymous';
+ALTER TABLE todo_imports ADD COLUMN IF NOT EXISTS owner_id VARCHAR(64) NOT NULL DEFAULT 'anonymous';
+
+-- Owner-first keyset indexes replace the global ones: a user's page is a short range scan
+-- however many other users' rows there are. CONCURRENTLY is not supported on a partitioned
+-- table, so these lock writes to todos while they build.
+CREATE INDEX IF NOT EXISTS idx_todos_owner_id_id ON todos (owner_id, id);
+CREATE INDEX IF NOT EXISTS idx_todos_owner_id_completed_id ON todos (owner_id, completed, id);
+CREATE INDEX IF NOT EXISTS idx_todos_owner_id_updated_at_id ON todos (owner_id, updated_at, id);
+DROP INDEX IF EXISTS idx_todos_completed_id;
+DROP INDEX IF EXISTS idx_todos_updated_at_id;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_todos_archive_owner_id_id ON todos_archive (owner_id, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_todo_tombstones_owner_id_deleted_at_todo_id
+    ON todo_tombstones (owner_id, deleted_at, todo_id);
@@ -0,0 +1,62 @@
+package com.example.todoapi.benchmark;
+
+import com.example.todoapi.dto.CreateTodoDto;
+import com.example.todoapi.dto.UpdateTodoDto;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Set;
+
+/**
+ * Bean validation cost of the request DTOs, as done by @Valid on every POST and PUT.
+ */
+@State(Scope.Benchmark)
+public class DtoValidationBenchmark {
+    
+    private ValidatorFactory validatorFactory;
+    
+    private Validator validator;
+    
+    private CreateTodoDto validCreate;
+    
+    private CreateTodoDto invalidCreate;
+    
+    private UpdateTodoDto validUpdate;
+    
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        validCreate = new CreateTodoDto("Buy milk", "Semi-skimmed, two litres");
+        invalidCreate = new CreateTodoDto("", null);
+        validUpdate = new UpdateTodoDto("Buy oat milk", null, true);
+    }
+    
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+    
+    @Benchmark
+    public Set<ConstraintViolation<CreateTodoDto>> validCreateTodoDto() {
+        return validator.validate(validCreate);
+    }
+    
+    // Violations build interpolated messages, which is the expensive path
+    @Benchmark
+    public Set<ConstraintViolation<CreateTodoDto>> invalidCreateTodoDto() {
+        return validator.validate(invalidCreate);
+    }
+    
+    @Benchmark
+    public Set<ConstraintViolation<UpdateTodoDto>> validUpdateTodoDto() {
+        return validator.validate(validUpdate);
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.todoapi.benchmark;
+
+import com.example.todoapi.dto.TodoCursor;
+import com.example.todoapi.dto.TodoView;
+import com.example.todoapi.entity.Todo;
+import com.example.todoapi.repository.TodoRepository;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Map-backed stand-in for {@link TodoRepository} so TodoService can be benchmarked without
+ * a database. Only the methods TodoService calls are implemented; anything else throws.
+ */
+final class InMemoryTodoRepository implements InvocationHandler {
+    
+    private final ConcurrentSkipListMap<Long, Todo> todos = new ConcurrentSkipListMap<>();
+    
+    private final AtomicLong sequence = new AtomicLong();
+    
+    private InMemoryTodoRepository() {}
+    
+    static TodoRepository create() {
+        return (TodoRepository) Proxy.newProxyInstance(TodoRepository.class.getClassLoader(),
+                new Class<?>[] {TodoRepository.class}, new InMemoryTodoRepository());
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "save":
+                return save((Todo) args[0]);
+            case "findByIdAndOwnerId":
+                return find((Long) args[0], (String) args[1]);
+            case "findViewById":
+                return find((Long) args[0], (String) args[1]).map(TodoView::of);
+            case "existsByIdAndOwnerId":
+                return find((Long) args[0], (String) args[1]).isPresent();
+            case "findAllByIdInAndOwnerId": {
+                List<Todo> found = new ArrayList<>();
+                for (Long id : (Iterable<Long>) args[0]) {
+                    find(id, (String) args[1]).ifPresent(found::add);
+                }
+                return found;
+            }
+            case "findPage":
+                return findPage((String) args[0], (TodoCursor) args[1], (Boolean) args[2], (LocalDateTime) args[3],
+                        (Integer) args[4]);
+            case "streamViewsAfterId":
+                return todos.tailMap((Long) args[1], false).values().stream()
+                        .filter(todo -> todo.getOwnerId().equals(args[0]))
+                        .map(TodoView::of);
+            case "toggleCompleted":
+                return toggle((Long) args[0], (String) args[1], null, (LocalDateTime) args[2]);
+            case "toggleCompletedIfVersion":
+                return toggle((Long) args[0], (String) args[1], (Long) args[2], (LocalDateTime) args[3]);
+            case "deleteTodoById":
+                return find((Long) args[0], (String) args[1])
+                        .filter(todo -> todos.remove(todo.getId(), todo));
+            case "deleteTodoByIdAndVersion":
+                return find((Long) args[0], (String) args[1])
+                        .filter(todo -> todo.getVersion().equals(args[2]) && todos.remove(todo.getId(), todo));
+            case "count":
+                return (long) todos.size();
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            case "toString":
+                return "InMemoryTodoRepository";
+            default:
+                throw new UnsupportedOperationException(method.getName());
+        }
+    }
+    
+    private Todo save(Todo todo) {
+        LocalDateTime now = LocalDateTime.now();
+        if (todo.getId() == null) {
+            todo.setId(sequence.incrementAndGet());
+            todo.setCreatedAt(now);
+            todo.setVersion(0L);
+        } else {
+            todo.setVersion(todo.getVersion() + 1);
+        }
+        todo.setUpdatedAt(now);
+        todos.put(todo.getId(), todo);
+        return todo;
+    }
+    
+    private Optional<Todo> find(Long id, String ownerId) {
+        return Optional.ofNullable(todos.get(id)).filter(todo -> todo.getOwnerId().equals(ownerId));
+    }
+    
+    private Optional<Todo> toggle(Long id, String ownerId, Long expectedVersion, LocalDateTime now) {
+        Todo todo = find(id, ownerId).orElse(null);
+        if (todo == null || (expectedVersion != null && !expectedVersion.equals(todo.getVersion()))) {
+            return Optional.empty();
+        }
+        todo.setCompleted(!todo.getCompleted());
+        todo.setUpdatedAt(now);
+        todo.setVersion(todo.getVersion() + 1);
+        return Optional.of(todo);
+    }
+    
+    private List<TodoView> findPage(String ownerId, TodoCursor after, Boolean completed, LocalDateTime updatedSince,
+                                    int limit) {
+        Stream<Todo> rows = todos.values().stream().filter(todo -> todo.getOwnerId().equals(ownerId));
+        if (completed != null) {
+            rows = rows.filter(todo -> todo.getCompleted().equals(completed));
+        }
+        if (updatedSince != null) {
+            Comparator<Todo> order = Comparator.comparing(Todo::getUpdatedAt).thenComparing(Todo::getId);
+            rows = rows.filter(todo -> !todo.getUpdatedAt().isBefore(updatedSince)).sorted(order);
+            if (after != null) {
+                Todo last = new Todo();
+                last.setUpdatedAt(after.getUpdatedAt());
+                last.setId(after.getId());
+                rows = rows.filter(todo -> order.compare(todo, last) > 0);
+            }
+        } else if (after != null) {
+            rows = rows.filter(todo -> todo.getId() > after.getId());
+        }
+        return rows.limit(limit).map(TodoView::of).toList();
+    }
+}
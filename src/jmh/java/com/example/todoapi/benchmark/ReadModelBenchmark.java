@@ -0,0 +1,150 @@
+package com.example.todoapi.benchmark;
+
+import com.example.todoapi.TodoApiApplication;
+import com.example.todoapi.datasource.ReadRouting;
+import com.example.todoapi.dto.CreateTodoDto;
+import com.example.todoapi.dto.TodoPage;
+import com.example.todoapi.dto.TodoView;
+import com.example.todoapi.entity.Todo;
+import com.example.todoapi.service.TodoService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One page of GET /api/todos, loaded and rendered the way it used to be and the way it is now,
+ * against the embedded Postgres of the "embedded" profile:
+ * <ul>
+ *   <li>entityPage: managed Todo entities from a read-write transaction that stays open while
+ *       the page is serialized, as open-session-in-view did</li>
+ *   <li>viewPage: TodoView projections from TodoService's read-only transaction, serialized
+ *       after the connection is back in the pool</li>
+ * </ul>
+ * Allocation per page comes from the gc profiler (gc.alloc.rate.norm); the mean time a
+ * connection was held per checkout (hikaricp.connections.usage) is printed after each iteration.
+ * Run with ./gradlew jmh -PjmhIncludes=ReadModelBenchmark from the project root, where init_db.sql is.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReadModelBenchmark {
+    
+    private static final int TODO_COUNT = 1000;
+    
+    // Every todo seeded below belongs to this owner
+    private static final String OWNER = "anonymous";
+    
+    private ConfigurableApplicationContext context;
+    
+    private TodoService todoService;
+    
+    private EntityManager entityManager;
+    
+    private TransactionTemplate transactionTemplate;
+    
+    private ObjectMapper objectMapper;
+    
+    private MeterRegistry meterRegistry;
+    
+    private long usageCount;
+    
+    private double usageNanos;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(TodoApiApplication.class)
+                .profiles("embedded")
+                .properties("server.port=0", "app.reminders.enabled=false", "logging.level.root=WARN")
+                .run();
+        todoService = context.getBean(TodoService.class);
+        entityManager = context.getBean(EntityManager.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        objectMapper = context.getBean(ObjectMapper.class);
+        meterRegistry = context.getBean(MeterRegistry.class);
+        
+        for (int i = 0; i < TODO_COUNT; i++) {
+            todoService.createTodo(OWNER, new CreateTodoDto("Todo " + i, "Description of todo " + i));
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Setup(Level.Iteration)
+    public void startIteration() {
+        usageCount = usageCount();
+        usageNanos = usageNanos();
+    }
+    
+    @TearDown(Level.Iteration)
+    public void endIteration() {
+        long checkouts = usageCount() - usageCount;
+        if (checkouts > 0) {
+            System.out.printf("%nconnection held: %.1f us mean over %d checkouts%n",
+                    (usageNanos() - usageNanos) / checkouts / 1000, checkouts);
+        }
+    }
+    
+    @Benchmark
+    public byte[] entityPage() {
+        return transactionTemplate.execute(status -> {
+            List<Todo> todos = entityManager
+                    .createQuery("SELECT t FROM Todo t WHERE t.ownerId = :ownerId ORDER BY t.id", Todo.class)
+                    .setParameter("ownerId", OWNER)
+                    .setMaxResults(TodoService.DEFAULT_PAGE_SIZE)
+                    .getResultList();
+            return render(todos);
+        });
+    }
+    
+    @Benchmark
+    public byte[] viewPage() {
+        // With app.embedded.replica on, the replica is a separate database without the rows seeded above
+        TodoPage<TodoView> page = ReadRouting.onPrimary(
+                () -> todoService.getTodos(OWNER, null, TodoService.DEFAULT_PAGE_SIZE, null, null));
+        return render(page.getItems());
+    }
+    
+    private byte[] render(List<?> items) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", items);
+        try {
+            return objectMapper.writeValueAsBytes(response);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private long usageCount() {
+        return meterRegistry.find("hikaricp.connections.usage").timers().stream().mapToLong(Timer::count).sum();
+    }
+    
+    private double usageNanos() {
+        return meterRegistry.find("hikaricp.connections.usage").timers().stream()
+                .mapToDouble(timer -> timer.totalTime(TimeUnit.NANOSECONDS)).sum();
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.todoapi.benchmark;
+
+import com.example.todoapi.entity.Todo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cost of building and serializing the HashMap response envelope TodoController returns,
+ * against a typed record envelope carrying the same fields.
+ */
+@State(Scope.Benchmark)
+public class ResponseEnvelopeBenchmark {
+    
+    public record TodoListResponse(boolean success, List<Todo> data, String nextCursor) {}
+    
+    public record TodoResponse(boolean success, Todo data) {}
+    
+    @Param({"1", "50"})
+    public int todoCount;
+    
+    private ObjectMapper objectMapper;
+    
+    private List<Todo> todos;
+    
+    @Setup
+    public void setUp() {
+        // Same date handling as Spring Boot's auto-configured mapper
+        objectMapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        
+        todos = new ArrayList<>(todoCount);
+        LocalDateTime now = LocalDateTime.now();
+        for (long id = 1; id <= todoCount; id++) {
+            Todo todo = new Todo("Todo " + id, "Description of todo " + id);
+            todo.setId(id);
+            todo.setCompleted(id % 3 == 0);
+            todo.setCreatedAt(now);
+            todo.setUpdatedAt(now);
+            todo.setVersion(0L);
+            todos.add(todo);
+        }
+    }
+    
+    @Benchmark
+    public byte[] hashMapListEnvelope() throws Exception {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", todos);
+        response.put("nextCursor", "aXwxMjM0");
+        return objectMapper.writeValueAsBytes(response);
+    }
+    
+    @Benchmark
+    public byte[] recordListEnvelope() throws Exception {
+        return objectMapper.writeValueAsBytes(new TodoListResponse(true, todos, "aXwxMjM0"));
+    }
+    
+    @Benchmark
+    public byte[] hashMapSingleEnvelope() throws Exception {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", todos.get(0));
+        return objectMapper.writeValueAsBytes(response);
+    }
+    
+    @Benchmark
+    public byte[] recordSingleEnvelope() throws Exception {
+        return objectMapper.writeValueAsBytes(new TodoResponse(true, todos.get(0)));
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.todoapi.benchmark;
+
+import com.example.todoapi.reminder.HashedTimingWheel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedules 1M timers spread over the reminder window, then advances time until all have
+ * fired, with the wheel settings ReminderScheduler uses by default (1s ticks, 512 buckets).
+ * A binary heap (what a DelayQueue or ScheduledThreadPoolExecutor keeps) is the baseline.
+ * Scores are per timer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TimingWheelBenchmark {
+    
+    private static final int TIMERS = 1_000_000;
+    private static final long TICK_MILLIS = 1000;
+    private static final int WHEEL_SIZE = 512;
+    private static final long WINDOW_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    
+    private long[] deadlines;
+    
+    private long fired;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        deadlines = new long[TIMERS];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < TIMERS; i++) {
+            deadlines[i] = random.nextLong(WINDOW_MILLIS);
+        }
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(TIMERS)
+    public long wheelScheduleAndFire() {
+        HashedTimingWheel<Integer> wheel = new HashedTimingWheel<>(TICK_MILLIS, WHEEL_SIZE, 0);
+        for (int i = 0; i < TIMERS; i++) {
+            wheel.schedule(i, deadlines[i]);
+        }
+        fired = 0;
+        for (long now = 0; now <= WINDOW_MILLIS; now += TICK_MILLIS) {
+            wheel.advanceTo(now, id -> fired++);
+        }
+        return fired;
+    }
+    
+    // Reschedules touch half the timers, as updates moving reminder times would
+    @Benchmark
+    @OperationsPerInvocation(TIMERS)
+    public long wheelScheduleRescheduleHalfAndFire() {
+        HashedTimingWheel<Integer> wheel = new HashedTimingWheel<>(TICK_MILLIS, WHEEL_SIZE, 0);
+        @SuppressWarnings("unchecked")
+        HashedTimingWheel.Timeout<Integer>[] timeouts = new HashedTimingWheel.Timeout[TIMERS];
+        for (int i = 0; i < TIMERS; i++) {
+            timeouts[i] = wheel.schedule(i, deadlines[i]);
+        }
+        for (int i = 0; i < TIMERS; i += 2) {
+            wheel.cancel(timeouts[i]);
+            wheel.schedule(i, deadlines[TIMERS - 1 - i]);
+        }
+        fired = 0;
+        for (long now = 0; now <= WINDOW_MILLIS; now += TICK_MILLIS) {
+            wheel.advanceTo(now, id -> fired++);
+        }
+        return fired;
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(TIMERS)
+    public long heapScheduleAndFire() {
+        PriorityQueue<long[]> heap = new PriorityQueue<>(TIMERS, (a, b) -> Long.compare(a[0], b[0]));
+        for (int i = 0; i < TIMERS; i++) {
+            heap.add(new long[] {deadlines[i], i});
+        }
+        long count = 0;
+        for (long now = 0; now <= WINDOW_MILLIS; now += TICK_MILLIS) {
+            while (!heap.isEmpty() && heap.peek()[0] <= now) {
+                heap.poll();
+                count++;
+            }
+        }
+        return count;
+    }
+}
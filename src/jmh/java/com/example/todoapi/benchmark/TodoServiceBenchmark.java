@@ -0,0 +1,110 @@
+package com.example.todoapi.benchmark;
+
+import com.example.todoapi.dto.CreateTodoDto;
+import com.example.todoapi.dto.TodoPage;
+import com.example.todoapi.dto.TodoView;
+import com.example.todoapi.dto.UpdateTodoDto;
+import com.example.todoapi.entity.Todo;
+import com.example.todoapi.repository.TodoArchiveRepository;
+import com.example.todoapi.repository.TodoRepository;
+import com.example.todoapi.service.TodoService;
+import com.example.todoapi.service.TodoWriteBuffer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * TodoService methods over {@link InMemoryTodoRepository}, i.e. the service's own cost
+ * without the database or the Spring proxies (cache, transactions) around it.
+ */
+@State(Scope.Benchmark)
+public class TodoServiceBenchmark {
+    
+    private static final int TODO_COUNT = 10_000;
+    
+    private static final String OWNER = "benchmark";
+    
+    private TodoService todoService;
+    
+    private CreateTodoDto createTodoDto;
+    
+    private UpdateTodoDto updateTodoDto;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Only applyBatch touches the EntityManager, and it is not benchmarked here
+        EntityManager entityManager = unsupported(EntityManager.class);
+        // Only reached for IDs that are not in the repository, which the benchmarks never use
+        TodoArchiveRepository archiveRepository = unsupported(TodoArchiveRepository.class);
+        // The write-behind buffer is disabled, as by default, and then never opens a transaction
+        DataSource dataSource = unsupported(DataSource.class);
+        PlatformTransactionManager transactionManager = unsupported(PlatformTransactionManager.class);
+        TodoRepository todoRepository = InMemoryTodoRepository.create();
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager("todos");
+        TodoWriteBuffer writeBuffer = new TodoWriteBuffer(todoRepository, archiveRepository, dataSource,
+                transactionManager, cacheManager, event -> {}, new ObjectMapper(), new SimpleMeterRegistry(),
+                false, 16, Duration.ofMillis(50), 10_000, 500, Path.of("write-behind-spill.ndjson"));
+        todoService = new TodoService(todoRepository, archiveRepository, entityManager,
+                cacheManager, (ownerId, query, offset, limit) -> List.of(), event -> {}, writeBuffer);
+        
+        for (int i = 0; i < TODO_COUNT; i++) {
+            todoService.createTodo(OWNER, new CreateTodoDto("Todo " + i, "Description of todo " + i));
+        }
+        createTodoDto = new CreateTodoDto("Benchmark todo", "Created by TodoServiceBenchmark");
+        updateTodoDto = new UpdateTodoDto("Updated title", null, null);
+    }
+    
+    // A stub whose every method throws, for collaborators the benchmarked paths never call
+    @SuppressWarnings("unchecked")
+    private static <T> T unsupported(Class<T> type) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+    
+    private static long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, TODO_COUNT + 1);
+    }
+    
+    @Benchmark
+    public TodoView getTodoById() {
+        return todoService.getTodoById(OWNER, randomId());
+    }
+    
+    @Benchmark
+    public TodoPage<TodoView> getTodosFirstPage() {
+        return todoService.getTodos(OWNER, null, TodoService.DEFAULT_PAGE_SIZE, null, null);
+    }
+    
+    // Paired with a delete so the store does not grow without bound during the run
+    @Benchmark
+    public Todo createAndDeleteTodo() {
+        Todo todo = todoService.createTodo(OWNER, createTodoDto);
+        todoService.deleteTodo(OWNER, todo.getId(), null);
+        return todo;
+    }
+    
+    @Benchmark
+    public Todo updateTodo() {
+        return todoService.updateTodo(OWNER, randomId(), updateTodoDto, null);
+    }
+    
+    @Benchmark
+    public Todo toggleTodo() {
+        return todoService.toggleTodo(OWNER, randomId(), null);
+    }
+}
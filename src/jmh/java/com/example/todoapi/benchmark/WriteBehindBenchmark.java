@@ -0,0 +1,139 @@
+package com.example.todoapi.benchmark;
+
+import com.example.todoapi.TodoApiApplication;
+import com.example.todoapi.controller.TodoController;
+import com.example.todoapi.dto.CreateTodoDto;
+import com.example.todoapi.dto.UpdateTodoDto;
+import com.example.todoapi.entity.Todo;
+import com.example.todoapi.service.TodoService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unconditional toggles and PUTs through TodoController, written directly and through the
+ * write-behind buffer, against the embedded Postgres of the "embedded" profile. Keys are skewed
+ * like real traffic: the todo of rank r is picked with probability proportional to 1/r^1.1, so
+ * a few hot todos take most writes and merge in the buffer.
+ * <p>
+ * Besides requests per second, the SQL statements and JDBC round trips per second
+ * (todo.db.statements, todo.db.executions) are printed after each iteration, including the
+ * flusher's batches. Run with ./gradlew jmh -PjmhIncludes=WriteBehindBenchmark from the project
+ * root, where init_db.sql is.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+public class WriteBehindBenchmark {
+    
+    private static final int TODO_COUNT = 1000;
+    
+    private static final double SKEW = 1.1;
+    
+    private static final String OWNER = "anonymous";
+    
+    @Param({"false", "true"})
+    public boolean writeBehind;
+    
+    private ConfigurableApplicationContext context;
+    
+    private TodoController todoController;
+    
+    private MeterRegistry meterRegistry;
+    
+    private long[] ids;
+    
+    // Cumulative pick probability by rank
+    private double[] cumulative;
+    
+    private double statements;
+    
+    private double executions;
+    
+    private long iterationStart;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(TodoApiApplication.class)
+                .profiles("embedded")
+                .properties("server.port=0", "app.reminders.enabled=false", "app.list-cache.enabled=false",
+                        "app.write-behind.enabled=" + writeBehind, "logging.level.root=WARN")
+                .run();
+        TodoService todoService = context.getBean(TodoService.class);
+        todoController = context.getBean(TodoController.class);
+        meterRegistry = context.getBean(MeterRegistry.class);
+        
+        ids = new long[TODO_COUNT];
+        cumulative = new double[TODO_COUNT];
+        double total = 0;
+        for (int i = 0; i < TODO_COUNT; i++) {
+            Todo todo = todoService.createTodo(OWNER, new CreateTodoDto("Todo " + i, "Description of todo " + i));
+            ids[i] = todo.getId();
+            total += 1 / Math.pow(i + 1, SKEW);
+            cumulative[i] = total;
+        }
+        for (int i = 0; i < TODO_COUNT; i++) {
+            cumulative[i] /= total;
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Setup(Level.Iteration)
+    public void startIteration() {
+        statements = count("todo.db.statements");
+        executions = count("todo.db.executions");
+        iterationStart = System.nanoTime();
+    }
+    
+    @TearDown(Level.Iteration)
+    public void endIteration() {
+        double seconds = (System.nanoTime() - iterationStart) / 1e9;
+        System.out.printf("%nSQL statements: %.0f/s, JDBC executions: %.0f/s%n",
+                (count("todo.db.statements") - statements) / seconds,
+                (count("todo.db.executions") - executions) / seconds);
+    }
+    
+    @Benchmark
+    public ResponseEntity<Map<String, Object>> toggle() {
+        return todoController.toggleTodo(OWNER, skewedId(), null);
+    }
+    
+    @Benchmark
+    public ResponseEntity<Map<String, Object>> update() {
+        UpdateTodoDto update = new UpdateTodoDto("Title " + ThreadLocalRandom.current().nextInt(100), null, null);
+        return todoController.updateTodo(OWNER, skewedId(), null, update);
+    }
+    
+    private long skewedId() {
+        int rank = Arrays.binarySearch(cumulative, ThreadLocalRandom.current().nextDouble());
+        return ids[Math.min(rank >= 0 ? rank : -rank - 1, TODO_COUNT - 1)];
+    }
+    
+    private double count(String name) {
+        FunctionCounter counter = meterRegistry.find(name).functionCounter();
+        return counter != null ? counter.count() : 0;
+    }
+}
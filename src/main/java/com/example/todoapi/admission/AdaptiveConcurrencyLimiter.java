@@ -0,0 +1,118 @@
+package com.example.todoapi.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caps concurrent requests of one route group. Acquire and release are lock-free; the limit
+ * itself is recomputed periodically by {@link #adjust} from the latencies recorded since the
+ * last call (a gradient against the long-term latency, as in Netflix's concurrency-limits):
+ * when requests get slower than usual the limit shrinks, when they are not the limit grows
+ * by about sqrt(limit). Under connection pool pressure it backs off multiplicatively.
+ */
+final class AdaptiveConcurrencyLimiter {
+    
+    // Latency may rise this far above the long-term average before the limit shrinks
+    private static final double LATENCY_TOLERANCE = 1.5;
+    private static final double LONG_LATENCY_WEIGHT = 0.05;
+    private static final double SMOOTHING = 0.2;
+    
+    private final int minLimit;
+    
+    private final int maxLimit;
+    
+    private final boolean adaptive;
+    
+    private final double pressureBackoff;
+    
+    private final AtomicInteger inFlight = new AtomicInteger();
+    
+    private final LongAccumulator peakInFlight = new LongAccumulator(Math::max, 0);
+    
+    private final LongAdder latencyNanos = new LongAdder();
+    
+    private final LongAdder samples = new LongAdder();
+    
+    private volatile int limit;
+    
+    // Only touched by adjust(), which runs on one scheduler thread
+    private double estimatedLimit;
+    
+    private double longLatencyNanos;
+    
+    AdaptiveConcurrencyLimiter(int minLimit, int maxLimit, boolean adaptive, double pressureBackoff) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.adaptive = adaptive;
+        this.pressureBackoff = pressureBackoff;
+        this.estimatedLimit = maxLimit;
+        this.limit = maxLimit;
+    }
+    
+    boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                peakInFlight.accumulate(current + 1);
+                return true;
+            }
+        }
+    }
+    
+    void release(long elapsedNanos) {
+        inFlight.decrementAndGet();
+        if (adaptive) {
+            latencyNanos.add(elapsedNanos);
+            samples.increment();
+        }
+    }
+    
+    /**
+     * Recompute the limit from the latencies seen since the previous call
+     * @param poolPressure whether the connection pool is queueing or slow to hand out connections
+     */
+    void adjust(boolean poolPressure) {
+        if (!adaptive) {
+            return;
+        }
+        long count = samples.sumThenReset();
+        long total = latencyNanos.sumThenReset();
+        long peak = peakInFlight.getThenReset();
+        
+        double next = estimatedLimit;
+        if (poolPressure) {
+            next = estimatedLimit * pressureBackoff;
+        } else if (count > 0) {
+            double shortLatency = (double) total / count;
+            longLatencyNanos = longLatencyNanos == 0
+                    ? shortLatency
+                    : longLatencyNanos * (1 - LONG_LATENCY_WEIGHT) + shortLatency * LONG_LATENCY_WEIGHT;
+            double gradient = Math.max(0.5, Math.min(1.0, LATENCY_TOLERANCE * longLatencyNanos / shortLatency));
+            next = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+            // Only grow a limit that is actually being reached
+            if (peak < estimatedLimit / 2) {
+                next = Math.min(next, estimatedLimit);
+            }
+        }
+        
+        next = estimatedLimit * (1 - SMOOTHING) + next * SMOOTHING;
+        // Backing off under pressure is not smoothed away
+        if (poolPressure) {
+            next = Math.min(next, estimatedLimit * pressureBackoff);
+        }
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, next));
+        limit = (int) Math.round(estimatedLimit);
+    }
+    
+    int getLimit() {
+        return limit;
+    }
+    
+    int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.todoapi.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.http.server.PathContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Decides whether a request may proceed: first the client's token bucket for the route group
+ * (429 when empty), then the group's concurrency limit (503 when full). Each group has its own
+ * buckets and limit, so a flood of expensive list or export calls cannot take the capacity
+ * reserved for cheap lookups.
+ * <p>
+ * Connection pool pressure is read from the HikariCP meters: threads waiting for a connection,
+ * average wait to acquire one, and how long connections are held (database time) compared with
+ * its long-term average. While under pressure every adaptive group backs off.
+ */
+@Component
+public class AdmissionControl {
+    
+    private static final long MAX_TRACKED_CLIENTS = 100_000;
+    private static final double DB_LATENCY_TOLERANCE = 2.0;
+    private static final double LONG_DB_LATENCY_WEIGHT = 0.05;
+    
+    public enum Outcome {
+        ADMITTED, RATE_LIMITED, OVERLOADED
+    }
+    
+    /**
+     * Result of {@link #admit}; an admitted request must be passed to {@link #release}
+     */
+    public record Decision(Outcome outcome, RouteGroup group, long retryAfterNanos) {}
+    
+    public final class RouteGroup {
+        
+        private final RouteLimits limits;
+        
+        private final Set<String> methods;
+        
+        private final List<PathPattern> patterns;
+        
+        private final Cache<String, TokenBucket> buckets;
+        
+        private final AdaptiveConcurrencyLimiter limiter;
+        
+        private final Counter rateLimited;
+        
+        private final Counter overloaded;
+        
+        private RouteGroup(RouteLimits limits) {
+            this.limits = limits;
+            this.methods = limits.methods().stream().map(String::toUpperCase).collect(Collectors.toSet());
+            this.patterns = limits.paths().stream().map(PathPatternParser.defaultInstance::parse).toList();
+            this.limiter = new AdaptiveConcurrencyLimiter(limits.minConcurrency(), limits.maxConcurrency(),
+                    limits.adaptive(), limits.pressureBackoff());
+            // An idle bucket that has refilled is the same as a new one, so it can be dropped
+            long refillNanos = new TokenBucket(limits.rate(), limits.burst()).refillNanos();
+            this.buckets = Caffeine.newBuilder()
+                    .expireAfterAccess(Duration.ofNanos(Math.max(refillNanos, TimeUnit.SECONDS.toNanos(1))))
+                    .maximumSize(MAX_TRACKED_CLIENTS)
+                    .build();
+            
+            this.rateLimited = rejections(limits.name(), "rate_limited");
+            this.overloaded = rejections(limits.name(), "overloaded");
+            Gauge.builder("todo.admission.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                    .description("Current concurrency limit of the route group")
+                    .tag("group", limits.name())
+                    .register(meterRegistry);
+            Gauge.builder("todo.admission.in.flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                    .description("Requests of the route group currently being served")
+                    .tag("group", limits.name())
+                    .register(meterRegistry);
+        }
+        
+        private boolean matches(String method, PathContainer path) {
+            if (!methods.isEmpty() && !methods.contains(method)) {
+                return false;
+            }
+            for (PathPattern pattern : patterns) {
+                if (pattern.matches(path)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        public String getName() {
+            return limits.name();
+        }
+    }
+    
+    private final MeterRegistry meterRegistry;
+    
+    private final List<RouteGroup> groups;
+    
+    private final int maxPendingConnections;
+    
+    private final long maxAcquireWaitNanos;
+    
+    // Pool meter readings from the previous adjust(); only touched by the scheduler thread
+    private double acquireTotalNanos;
+    private long acquireCount;
+    private double usageTotalNanos;
+    private long usageCount;
+    private double longUsageNanos;
+    
+    @Autowired
+    public AdmissionControl(MeterRegistry meterRegistry, Environment environment,
+                            @Value("${app.admission.max-pending-connections:5}") int maxPendingConnections,
+                            @Value("${app.admission.max-acquire-wait:50ms}") Duration maxAcquireWait) {
+        this.meterRegistry = meterRegistry;
+        this.maxPendingConnections = maxPendingConnections;
+        this.maxAcquireWaitNanos = maxAcquireWait.toNanos();
+        this.groups = Binder.get(environment)
+                .bind("app.admission.routes", Bindable.listOf(RouteLimits.class))
+                .orElse(List.of())
+                .stream()
+                .map(RouteGroup::new)
+                .toList();
+    }
+    
+    /**
+     * Admit or reject a request. Requests outside every route group are always admitted.
+     * @param client key of the calling client
+     * @param method HTTP method
+     * @param path request path without the context path
+     */
+    public Decision admit(String client, String method, String path) {
+        RouteGroup group = findGroup(method, PathContainer.parsePath(path));
+        if (group == null) {
+            return new Decision(Outcome.ADMITTED, null, 0);
+        }
+        
+        long wait = group.buckets.get(client, key -> new TokenBucket(group.limits.rate(), group.limits.burst()))
+                .tryAcquire(System.nanoTime());
+        if (wait > 0) {
+            group.rateLimited.increment();
+            return new Decision(Outcome.RATE_LIMITED, group, wait);
+        }
+        if (!group.limiter.tryAcquire()) {
+            group.overloaded.increment();
+            return new Decision(Outcome.OVERLOADED, group, 0);
+        }
+        return new Decision(Outcome.ADMITTED, group, 0);
+    }
+    
+    /**
+     * Return the concurrency slot of an admitted request
+     * @param elapsedNanos how long the request took, fed to the adaptive limit
+     */
+    public void release(Decision decision, long elapsedNanos) {
+        if (decision.group() != null && decision.outcome() == Outcome.ADMITTED) {
+            decision.group().limiter.release(elapsedNanos);
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${app.admission.adjust-interval:PT0.25S}")
+    public void adjustLimits() {
+        boolean poolPressure = isPoolUnderPressure();
+        for (RouteGroup group : groups) {
+            group.limiter.adjust(poolPressure);
+        }
+    }
+    
+    private RouteGroup findGroup(String method, PathContainer path) {
+        for (RouteGroup group : groups) {
+            if (group.matches(method, path)) {
+                return group;
+            }
+        }
+        return null;
+    }
+    
+    private boolean isPoolUnderPressure() {
+        double pending = meterRegistry.find("hikaricp.connections.pending").gauges().stream()
+                .mapToDouble(Gauge::value)
+                .sum();
+        
+        double acquireTotal = 0;
+        long acquires = 0;
+        for (Timer timer : meterRegistry.find("hikaricp.connections.acquire").timers()) {
+            acquireTotal += timer.totalTime(TimeUnit.NANOSECONDS);
+            acquires += timer.count();
+        }
+        double usageTotal = 0;
+        long usages = 0;
+        for (Timer timer : meterRegistry.find("hikaricp.connections.usage").timers()) {
+            usageTotal += timer.totalTime(TimeUnit.NANOSECONDS);
+            usages += timer.count();
+        }
+        
+        double acquireWait = average(acquireTotal - acquireTotalNanos, acquires - acquireCount);
+        double usage = average(usageTotal - usageTotalNanos, usages - usageCount);
+        acquireTotalNanos = acquireTotal;
+        acquireCount = acquires;
+        usageTotalNanos = usageTotal;
+        usageCount = usages;
+        
+        boolean slowDatabase = false;
+        if (usage > 0) {
+            slowDatabase = longUsageNanos > 0 && usage > DB_LATENCY_TOLERANCE * longUsageNanos;
+            longUsageNanos = longUsageNanos == 0
+                    ? usage
+                    : longUsageNanos * (1 - LONG_DB_LATENCY_WEIGHT) + usage * LONG_DB_LATENCY_WEIGHT;
+        }
+        return pending > maxPendingConnections || acquireWait > maxAcquireWaitNanos || slowDatabase;
+    }
+    
+    private Counter rejections(String group, String reason) {
+        return Counter.builder("todo.admission.rejected")
+                .description("Requests turned away by admission control")
+                .tag("group", group)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+    
+    private static double average(double total, long count) {
+        return count > 0 ? total / count : 0;
+    }
+}
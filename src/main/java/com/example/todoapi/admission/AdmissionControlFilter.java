@@ -0,0 +1,128 @@
+package com.example.todoapi.admission;
+
+import com.example.todoapi.security.JwtAuthenticationFilter;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Applies {@link AdmissionControl} before a request reaches the controllers. Rejected requests
+ * are answered at once with 429 (client over its rate) or 503 (route group at its concurrency
+ * limit) and a Retry-After, rather than waiting for a thread or a connection.
+ * <p>
+ * Async requests (export streams, long-polls, SSE) keep their slot until the async work
+ * completes, not just until the servlet thread returns.
+ * <p>
+ * Clients are told apart by their verified token's subject, so this runs after
+ * {@link JwtAuthenticationFilter}, and otherwise by remote address. Nothing the caller merely
+ * sends (such as an X-Client-Id header) is used: a fresh value per request would get a fresh
+ * bucket, evading the limit and filling the bucket cache.
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+    
+    private static final String RATE_LIMITED_BODY =
+            "{\"success\":false,\"message\":\"Too many requests; retry later\"}";
+    private static final String OVERLOADED_BODY =
+            "{\"success\":false,\"message\":\"Server is busy; retry later\"}";
+    
+    private final AdmissionControl admissionControl;
+    
+    private final long overloadRetryAfterSeconds;
+    
+    public AdmissionControlFilter(AdmissionControl admissionControl, Duration overloadRetryAfter) {
+        this.admissionControl = admissionControl;
+        this.overloadRetryAfterSeconds = Math.max(1, overloadRetryAfter.toSeconds());
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        AdmissionControl.Decision decision = admissionControl.admit(
+                clientKey(request), request.getMethod(), request.getRequestURI().substring(request.getContextPath().length()));
+        switch (decision.outcome()) {
+            case RATE_LIMITED -> {
+                // Whole seconds, rounded up so a client that honours it finds a token waiting
+                long retryAfter = Math.max(1, (decision.retryAfterNanos() + TimeUnit.SECONDS.toNanos(1) - 1)
+                        / TimeUnit.SECONDS.toNanos(1));
+                reject(response, HttpStatus.TOO_MANY_REQUESTS, retryAfter, RATE_LIMITED_BODY);
+                return;
+            }
+            case OVERLOADED -> {
+                reject(response, HttpStatus.SERVICE_UNAVAILABLE, overloadRetryAfterSeconds, OVERLOADED_BODY);
+                return;
+            }
+            default -> {
+            }
+        }
+        if (decision.group() == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        
+        long start = System.nanoTime();
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                admissionControl.release(decision, System.nanoTime() - start);
+            }
+        };
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnComplete(release));
+            } else {
+                release.run();
+            }
+        }
+    }
+    
+    private void reject(HttpServletResponse response, HttpStatus status, long retryAfterSeconds, String body)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(body);
+    }
+    
+    // Prefixed so a subject can never share a bucket with an address
+    private static String clientKey(HttpServletRequest request) {
+        Object subject = request.getAttribute(JwtAuthenticationFilter.SUBJECT_ATTRIBUTE);
+        return subject != null ? "sub:" + subject : "addr:" + request.getRemoteAddr();
+    }
+    
+    // onComplete also follows a timeout or error, so it is the only place to release
+    private record ReleaseOnComplete(Runnable release) implements AsyncListener {
+        
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release.run();
+        }
+        
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+        
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+        
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.todoapi.admission;
+
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+/**
+ * Admission limits for one group of routes, bound from app.admission.routes
+ * @param name group name, used in metrics
+ * @param methods HTTP methods covered; empty for all
+ * @param paths path patterns, e.g. /api/todos/{id}
+ * @param rate requests per second allowed per client
+ * @param burst requests a client may make at once before the rate applies
+ * @param minConcurrency floor of the adaptive concurrency limit
+ * @param maxConcurrency ceiling of the adaptive concurrency limit (the fixed limit when not adaptive)
+ * @param adaptive whether the concurrency limit follows latency; off for long-lived streams
+ * @param pressureBackoff factor applied to the limit while the connection pool is under pressure
+ */
+public record RouteLimits(String name,
+                          @DefaultValue List<String> methods,
+                          List<String> paths,
+                          double rate,
+                          int burst,
+                          @DefaultValue("1") int minConcurrency,
+                          int maxConcurrency,
+                          @DefaultValue("true") boolean adaptive,
+                          @DefaultValue("0.5") double pressureBackoff) {
+}
@@ -0,0 +1,48 @@
+package com.example.todoapi.admission;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket in its GCRA form: the whole state is one "theoretical arrival time",
+ * advanced by one emission interval per admitted request with a single CAS. Equivalent to a
+ * bucket of {@code burst} tokens refilled at {@code rate} per second.
+ */
+final class TokenBucket {
+    
+    private final long emissionIntervalNanos;
+    
+    private final long burstToleranceNanos;
+    
+    private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+    
+    TokenBucket(double ratePerSecond, int burst) {
+        this.emissionIntervalNanos = (long) (1_000_000_000L / ratePerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * burst;
+    }
+    
+    /**
+     * Take a token if one is available
+     * @param nowNanos current System.nanoTime()
+     * @return 0 if admitted, otherwise nanoseconds until a token will be available
+     */
+    long tryAcquire(long nowNanos) {
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long next = Math.max(arrival, nowNanos) + emissionIntervalNanos;
+            long wait = next - nowNanos - burstToleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+    
+    /**
+     * Time for an empty bucket to refill completely; an idle bucket older than this is full
+     */
+    long refillNanos() {
+        return burstToleranceNanos;
+    }
+}
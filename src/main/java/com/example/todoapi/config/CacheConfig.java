@@ -0,0 +1,17 @@
+package com.example.todoapi.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Caffeine-backed caches; size and TTL come from spring.cache.caffeine.spec.
+ * The caching advice is ordered outside the transaction advice so that
+ * evictions on write paths run after the transaction has committed.
+ */
+@Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+public class CacheConfig {
+    
+    public static final String TODOS_CACHE = "todos";
+}
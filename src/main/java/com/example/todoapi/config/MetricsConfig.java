@@ -0,0 +1,38 @@
+package com.example.todoapi.config;
+
+import com.example.todoapi.metrics.DataSourceMetricsPostProcessor;
+import com.example.todoapi.metrics.QueryCountFilter;
+import com.example.todoapi.metrics.SqlMetricsListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * SQL statement metrics and slow-query logging. Route latency histograms, Hibernate
+ * statistics and HikariCP gauges come from actuator auto-configuration (see application.yml).
+ */
+@Configuration
+public class MetricsConfig {
+    
+    // A bean so its statement counters are bound to the registry; static like the post-processor
+    @Bean
+    public static SqlMetricsListener sqlMetricsListener(
+            @Value("${app.sql.slow-query-threshold:200ms}") Duration slowQueryThreshold,
+            @Value("${app.sql.slow-query-sample-rate:1.0}") double slowQuerySampleRate) {
+        return new SqlMetricsListener(slowQueryThreshold, slowQuerySampleRate);
+    }
+    
+    // Static so the post-processor is registered before the DataSource is created
+    @Bean
+    public static DataSourceMetricsPostProcessor dataSourceMetricsPostProcessor(SqlMetricsListener sqlMetricsListener) {
+        return new DataSourceMetricsPostProcessor(sqlMetricsListener);
+    }
+    
+    @Bean
+    public QueryCountFilter queryCountFilter(MeterRegistry meterRegistry) {
+        return new QueryCountFilter(meterRegistry);
+    }
+}
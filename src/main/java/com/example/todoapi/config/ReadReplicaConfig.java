@@ -0,0 +1,102 @@
+package com.example.todoapi.config;
+
+import com.example.todoapi.datasource.ReadYourWritesFilter;
+import com.example.todoapi.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replica routing, enabled by setting app.datasource.replica.urls. Replaces the
+ * auto-configured DataSource with the primary pool plus one pool per replica behind a
+ * {@link ReplicaRoutingDataSource}; @Transactional(readOnly = true) work goes to replicas.
+ * All pools take their settings from spring.datasource.hikari.
+ */
+@Configuration
+@ConditionalOnExpression("!'${app.datasource.replica.urls:}'.isBlank()")
+public class ReadReplicaConfig implements DisposableBean {
+    
+    private ReplicaRoutingDataSource routingDataSource;
+    
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties properties, Environment environment,
+                                 ObjectProvider<MeterRegistry> meterRegistry,
+                                 @Value("${app.datasource.replica.urls}") String replicaUrls,
+                                 @Value("${app.datasource.replica.username:${spring.datasource.username}}") String replicaUsername,
+                                 @Value("${app.datasource.replica.password:${spring.datasource.password}}") String replicaPassword,
+                                 @Value("${app.datasource.replica.max-lag:5s}") Duration maxLag) {
+        HikariDataSource primary = pool(environment, meterRegistry, "primary",
+                properties.determineUrl(), properties.determineUsername(), properties.determinePassword());
+        
+        List<HikariDataSource> replicas = new ArrayList<>();
+        String[] urls = StringUtils.commaDelimitedListToStringArray(replicaUrls);
+        for (int i = 0; i < urls.length; i++) {
+            HikariDataSource replica = pool(environment, meterRegistry, "replica-" + i,
+                    urls[i].trim(), replicaUsername, replicaPassword);
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        
+        routingDataSource = new ReplicaRoutingDataSource(primary, replicas, maxLag);
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        // Hikari's defaults; saves opening a connection just to discover them
+        dataSource.setDefaultAutoCommit(true);
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        return dataSource;
+    }
+    
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(
+            @Value("${app.datasource.read-your-writes.window:2s}") Duration window,
+            @Value("${app.datasource.read-your-writes.client-header:X-Client-Id}") String clientHeader) {
+        return new ReadYourWritesFilter(window, clientHeader);
+    }
+    
+    @Scheduled(fixedDelayString = "${app.datasource.replica.check-interval:PT5S}")
+    public void checkReplicas() {
+        if (routingDataSource != null) {
+            routingDataSource.checkReplicas();
+        }
+    }
+    
+    @Override
+    public void destroy() {
+        if (routingDataSource != null) {
+            routingDataSource.close();
+        }
+    }
+    
+    private static HikariDataSource pool(Environment environment, ObjectProvider<MeterRegistry> meterRegistry,
+                                         String name, String url, String username, String password) {
+        HikariDataSource pool = new HikariDataSource();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        pool.setJdbcUrl(url);
+        pool.setUsername(username);
+        pool.setPassword(password);
+        // Not DataSource beans, so actuator would not register their hikaricp gauges
+        meterRegistry.ifAvailable(registry -> pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+        return pool;
+    }
+}
@@ -1,15 +1,24 @@
 package com.example.todoapi.config;
 
+import com.example.todoapi.admission.AdmissionControl;
+import com.example.todoapi.admission.AdmissionControlFilter;
+import com.example.todoapi.security.JwtAuthenticationFilter;
+import com.example.todoapi.security.JwtTokenVerifier;
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import java.time.Duration;
 import java.util.Arrays;
 
 @Configuration
@@ -34,6 +43,8 @@ public class SecurityConfig {
         
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        // Let browser clients read the version for If-Match / If-None-Match
+        configuration.setExposedHeaders(Arrays.asList("ETag"));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
         
@@ -43,13 +54,35 @@ public class SecurityConfig {
     }
     
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http,
+                                           AdmissionControl admissionControl,
+                                           JwtTokenVerifier jwtTokenVerifier,
+                                           @Value("${jwt.required:true}") boolean jwtRequired,
+                                           @Value("${jwt.anonymous-owner:anonymous}") String anonymousOwner,
+                                           @Value("${app.admission.enabled:true}") boolean admissionEnabled,
+                                           @Value("${app.admission.overload-retry-after:1s}") Duration overloadRetryAfter)
+            throws Exception {
         http
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .csrf(AbstractHttpConfigurer::disable)
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(authz -> authz
+                // Async dispatches (export, long-poll, SSE) were authorized on the way in
+                .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
+                .requestMatchers("/api/todos", "/api/todos/**").authenticated()
                 .anyRequest().permitAll()
-            );
+            )
+            .exceptionHandling(exceptions -> exceptions.authenticationEntryPoint((request, response, e) ->
+                    JwtAuthenticationFilter.unauthorized(response, "Bearer token required")))
+            // Every todo request runs as a token's subject, or as the anonymous owner when tokens are optional
+            .addFilterBefore(new JwtAuthenticationFilter(jwtTokenVerifier, jwtRequired ? null : anonymousOwner),
+                    UsernamePasswordAuthenticationFilter.class);
+        
+        // Shed load as soon as the caller is known: a verified token's subject, else its address
+        if (admissionEnabled) {
+            http.addFilterAfter(new AdmissionControlFilter(admissionControl, overloadRetryAfter),
+                    JwtAuthenticationFilter.class);
+        }
         
         return http.build();
     }
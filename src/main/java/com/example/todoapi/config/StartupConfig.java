@@ -0,0 +1,45 @@
+package com.example.todoapi.config;
+
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Startup tuning. With app.startup.defer-docs=true the springdoc/Swagger beans are made
+ * lazy, so their classes load and their beans are built on the first /api-docs or /api
+ * request instead of during startup. Under Spring AOT the flag is applied at build time.
+ */
+@Configuration
+public class StartupConfig {
+    
+    private static final String SPRINGDOC_PACKAGE = "org.springdoc.";
+    
+    // Static so it is registered as a post-processor rather than created with the other beans
+    @Bean
+    public static BeanFactoryPostProcessor deferredApiDocsPostProcessor(Environment environment) {
+        boolean deferDocs = environment.getProperty("app.startup.defer-docs", Boolean.class, false);
+        return beanFactory -> {
+            if (!deferDocs) {
+                return;
+            }
+            for (String name : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definition = beanFactory.getBeanDefinition(name);
+                if (isSpringDoc(definition)) {
+                    definition.setLazyInit(true);
+                }
+            }
+        };
+    }
+    
+    private static boolean isSpringDoc(BeanDefinition definition) {
+        String className = definition.getBeanClassName();
+        // @Bean methods: the declaring auto-configuration tells where the bean comes from
+        if (definition instanceof AnnotatedBeanDefinition annotated && annotated.getFactoryMethodMetadata() != null) {
+            className = annotated.getFactoryMethodMetadata().getDeclaringClassName();
+        }
+        return className != null && className.startsWith(SPRINGDOC_PACKAGE);
+    }
+}
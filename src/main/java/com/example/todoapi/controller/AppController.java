@@ -1,10 +1,15 @@
 package com.example.todoapi.controller;
 
-import com.example.todoapi.repository.TodoRepository;
+import com.example.todoapi.config.CacheConfig;
+import com.example.todoapi.service.ReadinessService;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -21,11 +26,14 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class AppController {
     
-    private final TodoRepository todoRepository;
+    private final ReadinessService readinessService;
+    
+    private final CacheManager cacheManager;
     
     @Autowired
-    public AppController(TodoRepository todoRepository) {
-        this.todoRepository = todoRepository;
+    public AppController(ReadinessService readinessService, CacheManager cacheManager) {
+        this.readinessService = readinessService;
+        this.cacheManager = cacheManager;
     }
     
     @GetMapping("/")
@@ -35,27 +43,78 @@ public class AppController {
         return "Todo API is running!";
     }
     
-    @GetMapping("/health")
-    @Operation(summary = "Health check", description = "Returns the application health status including database connectivity")
-    @ApiResponse(responseCode = "200", description = "Health status")
+    @GetMapping("/health/live")
+    @Operation(summary = "Liveness check", description = "Returns ok while the process is serving requests. Never touches the database.")
+    @ApiResponse(responseCode = "200", description = "Application is alive")
+    public ResponseEntity<Map<String, Object>> getLiveness() {
+        Map<String, Object> health = new HashMap<>();
+        health.put("service", "Todo API");
+        health.put("version", "1.0.0");
+        health.put("timestamp", LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        health.put("status", "ok");
+        return ResponseEntity.ok(health);
+    }
+    
+    @GetMapping({"/health", "/health/ready"})
+    @Operation(summary = "Readiness check", description = "Returns whether this node should receive traffic: database "
+            + "connectivity and connection pool saturation. The result is cached for a few seconds.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Ready"),
+        @ApiResponse(responseCode = "503", description = "Database unreachable or connection pool saturated")
+    })
     public ResponseEntity<Map<String, Object>> getHealth() {
+        ReadinessService.Readiness readiness = readinessService.getReadiness();
+        
         Map<String, Object> health = new HashMap<>();
         health.put("service", "Todo API");
         health.put("version", "1.0.0");
         health.put("timestamp", LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        health.put("checkedAt", readiness.checkedAt().toString());
+        health.put("database", readiness.databaseUp() ? "connected" : "disconnected");
         
-        // Test database connection
-        try {
-            todoRepository.count(); // Simple query to test DB connection
+        ReadinessService.PoolStats pool = readiness.pool();
+        if (pool != null) {
+            Map<String, Object> poolHealth = new HashMap<>();
+            poolHealth.put("active", pool.active());
+            poolHealth.put("idle", pool.idle());
+            poolHealth.put("pending", pool.pending());
+            poolHealth.put("max", pool.max());
+            poolHealth.put("utilization", pool.utilization());
+            health.put("pool", poolHealth);
+        }
+        
+        if (readiness.ready()) {
             health.put("status", "ok");
-            health.put("database", "connected");
             return ResponseEntity.ok(health);
-        } catch (Exception e) {
-            health.put("status", "error");
-            health.put("database", "disconnected");
-            health.put("error", e.getMessage());
-            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(health);
         }
+        health.put("status", readiness.saturated() ? "saturated" : "error");
+        if (readiness.error() != null) {
+            health.put("error", readiness.error());
+        }
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(health);
+    }
+    
+    @GetMapping("/cache/stats")
+    @Operation(summary = "Cache statistics", description = "Returns hit, miss and eviction counters of the todo cache")
+    @ApiResponse(responseCode = "200", description = "Cache statistics")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        CaffeineCache cache = (CaffeineCache) cacheManager.getCache(CacheConfig.TODOS_CACHE);
+        CacheStats stats = cache.getNativeCache().stats();
+        
+        Map<String, Object> data = new HashMap<>();
+        data.put("size", cache.getNativeCache().estimatedSize());
+        data.put("hits", stats.hitCount());
+        data.put("misses", stats.missCount());
+        data.put("hitRate", stats.hitRate());
+        data.put("evictions", stats.evictionCount());
+        data.put("loads", stats.loadCount());
+        data.put("loadFailures", stats.loadFailureCount());
+        data.put("averageLoadPenaltyNanos", stats.averageLoadPenalty());
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", data);
+        
+        return ResponseEntity.ok(response);
     }
 }
-
@@ -1,20 +1,44 @@
 package com.example.todoapi.controller;
 
+import com.example.todoapi.dto.BatchOperationResult;
+import com.example.todoapi.dto.BatchRequestDto;
 import com.example.todoapi.dto.CreateTodoDto;
+import com.example.todoapi.dto.TodoChanges;
+import com.example.todoapi.dto.TodoPage;
+import com.example.todoapi.dto.TodoView;
 import com.example.todoapi.dto.UpdateTodoDto;
 import com.example.todoapi.entity.Todo;
+import com.example.todoapi.exception.CursorExpiredException;
+import com.example.todoapi.exception.PreconditionFailedException;
+import com.example.todoapi.service.TodoChangeFeedService;
+import com.example.todoapi.service.TodoListResponseCache;
 import com.example.todoapi.service.TodoService;
+import com.example.todoapi.service.TodoStatsService;
+import com.example.todoapi.service.TodoWriteBuffer;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -25,44 +49,279 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class TodoController {
     
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final int EXPORT_FLUSH_INTERVAL = 1000;
+    private static final int MAX_CHANGES_WAIT_SECONDS = 30;
+    
     private final TodoService todoService;
     
+    private final TodoStatsService todoStatsService;
+    
+    private final TodoChangeFeedService todoChangeFeedService;
+    
+    private final TodoListResponseCache todoListResponseCache;
+    
+    private final TodoWriteBuffer todoWriteBuffer;
+    
+    private final ObjectMapper objectMapper;
+    
     @Autowired
-    public TodoController(TodoService todoService) {
+    public TodoController(TodoService todoService, TodoStatsService todoStatsService,
+                          TodoChangeFeedService todoChangeFeedService, TodoListResponseCache todoListResponseCache,
+                          TodoWriteBuffer todoWriteBuffer, ObjectMapper objectMapper) {
         this.todoService = todoService;
+        this.todoStatsService = todoStatsService;
+        this.todoChangeFeedService = todoChangeFeedService;
+        this.todoListResponseCache = todoListResponseCache;
+        this.todoWriteBuffer = todoWriteBuffer;
+        this.objectMapper = objectMapper;
     }
     
     @GetMapping
-    @Operation(summary = "Get all todos", description = "Retrieves a list of all todos")
+    @Operation(summary = "Get todos", description = "Retrieves a page of todos using keyset pagination. "
+            + "Pass the returned nextCursor to fetch the following page. Responses carry a strong ETag; "
+            + "send it as If-None-Match to get 304 while nothing has changed.")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Todos retrieved successfully")
+        @ApiResponse(responseCode = "200", description = "Todos retrieved successfully"),
+        @ApiResponse(responseCode = "304", description = "Page not modified"),
+        @ApiResponse(responseCode = "400", description = "Bad request - invalid cursor")
     })
-    public ResponseEntity<Map<String, Object>> getAllTodos() {
-        List<Todo> todos = todoService.getAllTodos();
-        
+    public ResponseEntity<?> getAllTodos(
+            @Parameter(hidden = true) @AuthenticationPrincipal String ownerId,
+            @Parameter(description = "Cursor returned by the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max " + TodoService.MAX_PAGE_SIZE + ")")
+            @RequestParam(defaultValue = "" + TodoService.DEFAULT_PAGE_SIZE) int limit,
+            @Parameter(description = "Only todos with this completed status") @RequestParam(required = false) Boolean completed,
+            @Parameter(description = "Only todos updated at or after this ISO date-time; orders by updatedAt")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedSince,
+            WebRequest webRequest) {
+        try {
+            TodoListResponseCache.CachedResponse cached = todoListResponseCache.getTodos(ownerId, cursor, limit, completed,
+                    updatedSince);
+            boolean gzip = cached.hasGzip() && acceptsGzip(webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING));
+            String etag = gzip ? cached.gzipEtag() : cached.etag();
+            // Sets the 304 status itself when If-None-Match matches
+            if (webRequest.checkNotModified(etag)) {
+                return null;
+            }
+            
+            ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .eTag(etag)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING);
+            if (gzip) {
+                // Already encoded, so server compression leaves it alone
+                builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+                return builder.body(cached.gzipped());
+            }
+            return builder.body(cached.body());
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+    }
+    
+    @GetMapping("/stats")
+    @Operation(summary = "Get todo statistics", description = "Returns total, completed and open counts plus created and "
+            + "completed figures per day for the caller's todos. Served from in-memory counters, recounted from the table "
+            + "at most once per reconcile interval.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Statistics retrieved successfully")
+    })
+    public ResponseEntity<Map<String, Object>> getStats(
+            @Parameter(hidden = true) @AuthenticationPrincipal String ownerId) {
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
-        response.put("data", todos);
+        response.put("data", todoStatsService.getStats(ownerId));
         
         return ResponseEntity.ok(response);
     }
     
+    @GetMapping("/search")
+    @Operation(summary = "Search todos", description = "Full-text search over title and description, best matches first. "
+            + "With prefix=true the last word also matches longer words, for type-ahead.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Search results"),
+        @ApiResponse(responseCode = "400", description = "Bad request - empty query or invalid cursor")
+    })
+    public ResponseEntity<Map<String, Object>> searchTodos(
+            @Parameter(hidden = true) @AuthenticationPrincipal String ownerId,
+            @Parameter(description = "Search text", required = true) @RequestParam("q") String query,
+            @Parameter(description = "Treat the last word as a prefix") @RequestParam(defaultValue = "true") boolean prefix,
+            @Parameter(description = "Cursor returned by the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max " + TodoService.MAX_PAGE_SIZE + ")")
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            TodoPage<TodoView> page = todoService.searchTodos(ownerId, query, prefix, cursor, limit);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", page.getItems());
+            response.put("nextCursor", page.getNextCursor());
+            
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+    }
+    
+    @GetMapping("/changes")
+    @Operation(summary = "Get changes since a cursor", description = "Delta sync: todos created or updated and IDs of "
+            + "todos deleted since the cursor, oldest first. Without a cursor or updatedSince every todo is returned. "
+            + "With waitSeconds the request is held until changes arrive or the wait expires (long-poll). "
+            + "Always resume from the returned nextCursor.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Changes retrieved, possibly none"),
+        @ApiResponse(responseCode = "400", description = "Bad request - invalid cursor"),
+        @ApiResponse(responseCode = "410", description = "Cursor too old - resynchronize from the full list")
+    })
+    public DeferredResult<ResponseEntity<Map<String, Object>>> getChanges(
+            @Parameter(hidden = true) @AuthenticationPrincipal String ownerId,
+            @Parameter(description = "Cursor returned by the previous call") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Without a cursor: only changes at or after this ISO date-time")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedSince,
+            @Parameter(description = "Maximum changes returned (max " + TodoChangeFeedService.MAX_LIMIT + ")")
+            @RequestParam(defaultValue = "" + TodoChangeFeedService.DEFAULT_LIMIT) int limit,
+            @Parameter(description = "Seconds to wait for changes when there are none (max " + MAX_CHANGES_WAIT_SECONDS + ")")
+            @RequestParam(defaultValue = "0") int waitSeconds) {
+        TodoChanges changes;
+        try {
+            changes = todoChangeFeedService.getChanges(ownerId, cursor, updatedSince, limit);
+        } catch (CursorExpiredException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", e.getMessage());
+            return completed(ResponseEntity.status(HttpStatus.GONE).body(errorResponse));
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", e.getMessage());
+            return completed(ResponseEntity.badRequest().body(errorResponse));
+        }
+        
+        int wait = Math.max(0, Math.min(waitSeconds, MAX_CHANGES_WAIT_SECONDS));
+        if (!changes.isEmpty() || wait == 0) {
+            return completed(ResponseEntity.ok(changesResponse(changes)));
+        }
+        
+        // Release the request thread until a write settles, answering "no changes" on timeout
+        DeferredResult<ResponseEntity<Map<String, Object>>> result =
+                new DeferredResult<>(wait * 1000L, ResponseEntity.ok(changesResponse(changes)));
+        String resumeCursor = changes.getNextCursor();
+        TodoChangeFeedService.Subscription subscription = todoChangeFeedService.subscribe(() -> {
+            try {
+                TodoChanges next = todoChangeFeedService.getChanges(ownerId, resumeCursor, null, limit);
+                if (!next.isEmpty()) {
+                    result.setResult(ResponseEntity.ok(changesResponse(next)));
+                }
+            } catch (RuntimeException e) {
+                result.setErrorResult(e);
+            }
+        });
+        result.onCompletion(subscription::cancel);
+        return result;
+    }
+    
+    @GetMapping(path = "/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream changes", description = "Server-sent events carrying the same payload as /changes, "
+            + "pushed as writes settle. Each event id is a cursor, so a reconnecting EventSource resumes via "
+            + "Last-Event-ID. A \"reset\" event means the cursor is invalid or too old: resynchronize, then reconnect.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Event stream started")
+    })
+    public SseEmitter streamChanges(
+            @Parameter(hidden = true) @AuthenticationPrincipal String ownerId,
+            @Parameter(description = "Cursor to start from; omit for a full initial sync") @RequestParam(required = false) String cursor,
+            @Parameter(hidden = true) @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        SseEmitter emitter = new SseEmitter();
+        String[] position = {lastEventId != null && !lastEventId.isBlank() ? lastEventId : cursor};
+        TodoChangeFeedService.Subscription subscription = todoChangeFeedService.subscribe(() -> {
+            try {
+                TodoChanges changes;
+                do {
+                    changes = todoChangeFeedService.getChanges(ownerId, position[0], null, TodoChangeFeedService.MAX_LIMIT);
+                    if (!changes.isEmpty()) {
+                        emitter.send(SseEmitter.event().id(changes.getNextCursor()).name("changes")
+                                .data(changesResponse(changes), MediaType.APPLICATION_JSON));
+                    }
+                    position[0] = changes.getNextCursor();
+                } while (changes.isHasMore());
+            } catch (CursorExpiredException | IllegalArgumentException e) {
+                try {
+                    emitter.send(SseEmitter.event().name("reset").data(e.getMessage()));
+                    emitter.complete();
+                } catch (IOException sendFailure) {
+                    emitter.completeWithError(sendFailure);
+                }
+            } catch (IOException | RuntimeException e) {
+                emitter.completeWithError(e);
+            }
+        });
+        emitter.onCompletion(subscription::cancel);
+        emitter.onError(error -> subscription.cancel());
+        // Send the backlog straight away rather than on the next write
+        subscription.wake();
+        return emitter;
+    }
+    
+    @GetMapping("/export")
+    @Operation(summary = "Export todos", description = "Streams every todo as newline-delimited JSON in id order. "
+            + "To resume an interrupted export, pass the id of the last line received as afterId.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Export stream started")
+    })
+    public ResponseEntity<StreamingResponseBody> exportTodos(
+            @Parameter(hidden = true) @AuthenticationPrincipal String ownerId,
+            @Parameter(description = "Only export todos with a greater id") @RequestParam(required = false) Long afterId) {
+        StreamingResponseBody body = outputStream -> {
+            long[] written = {0};
+            todoService.exportTodos(ownerId, afterId, todo -> {
+                try {
+                    outputStream.write(objectMapper.writeValueAsBytes(todo));
+                    outputStream.write('\n');
+                    // Flush the first row straight away, then periodically
+                    if (written[0]++ % EXPORT_FLUSH_INTERVAL == 0) {
+                        outputStream.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            outputStream.flush();
+        };
+        
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+    
     @GetMapping("/{id}")
-    @Operation(summary = "Get todo by ID", description = "Retrieves a specific todo by its ID")
+    @Operation(summary = "Get todo by ID", description = "Retrieves a specific todo by its ID. "
+            + "The ETag is the todo's version; send it as If-None-Match to get 304 when unchanged.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Todo found"),
+        @ApiResponse(responseCode = "304", description = "Todo not modified"),
         @ApiResponse(responseCode = "404", description = "Todo not found")
     })
     public ResponseEntity<Map<String, Object>> getTodoById(
-            @Parameter(description = "Todo ID", required = true) @PathVariable Long id) {
+            @Parameter(hidden = true) @AuthenticationPrincipal String ownerId,
+            @Parameter(description = "Todo ID", required = true) @PathVariable Long id,
+            WebRequest webRequest) {
         try {
-            Todo todo = todoService.getTodoById(id);
+            TodoView todo = todoService.getTodoById(ownerId, id);
+            // Sets the 304 status itself when If-None-Match matches
+            if (webRequest.checkNotModified(etag(todo))) {
+                return null;
+            }
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("data", todo);
             
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().eTag(etag(todo)).body(response);
         } catch (RuntimeException e) {
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("success", false);
@@ -77,14 +336,35 @@ public class TodoController {
         @ApiResponse(responseCode = "201", description = "Todo created successfully"),
         @ApiResponse(responseCode = "400", description = "Bad request - validation failed")
     })
-    public ResponseEntity<Map<String, Object>> createTodo(@Valid @RequestBody CreateTodoDto createTodoDto) {
-        Todo todo = todoService.createTodo(createTodoDto);
+    public ResponseEntity<Map<String, Object>> createTodo(
+            @Parameter(hidden = true) @AuthenticationPrincipal String ownerId,
+            @Valid @RequestBody CreateTodoDto createTodoDto) {
+        Todo todo = todoService.createTodo(ownerId, createTodoDto);
         
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
         response.put("data", todo);
         
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(etag(todo)).body(response);
+    }
+    
+    @PostMapping("/batch")
+    @Operation(summary = "Apply a batch of operations", description = "Applies up to " + BatchRequestDto.MAX_OPERATIONS
+            + " create/update/delete/toggle operations in one transaction and returns a result per operation")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Batch applied"),
+        @ApiResponse(responseCode = "400", description = "Bad request - validation failed")
+    })
+    public ResponseEntity<Map<String, Object>> applyBatch(
+            @Parameter(hidden = true) @AuthenticationPrincipal String ownerId,
+            @Valid @RequestBody BatchRequestDto batchRequestDto) {
+        List<BatchOperationResult> results = todoService.applyBatch(ownerId, batchRequestDto.getOperations());
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", results);
+        
+        return ResponseEntity.ok(response);
     }
     
     @PutMapping("/{id}")
@@ -92,19 +372,37 @@ public class TodoController {
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Todo updated successfully"),
         @ApiResponse(responseCode = "400", description = "Bad request - validation failed"),
-        @ApiResponse(responseCode = "404", description = "Todo not found")
+        @ApiResponse(responseCode = "404", description = "Todo not found"),
+        @ApiResponse(responseCode = "409", description = "Todo was modified concurrently"),
+        @ApiResponse(responseCode = "412", description = "If-Match does not match the current version")
     })
     public ResponseEntity<Map<String, Object>> updateTodo(
+            @Parameter(hidden = true) @AuthenticationPrincipal String ownerId,
             @Parameter(description = "Todo ID", required = true) @PathVariable Long id,
+            @Parameter(description = "ETag of the version being updated") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody UpdateTodoDto updateTodoDto) {
         try {
-            Todo todo = todoService.updateTodo(id, updateTodoDto);
+            Long expectedVersion = parseIfMatch(ifMatch);
+            // Unconditional writes skip the transaction when write-behind is on
+            Todo todo = expectedVersion == null && todoWriteBuffer.isEnabled()
+                    ? todoWriteBuffer.update(ownerId, id, updateTodoDto)
+                    : todoService.updateTodo(ownerId, id, updateTodoDto, expectedVersion);
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("data", todo);
             
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().eTag(etag(todo)).body(response);
+        } catch (PreconditionFailedException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(errorResponse);
+        } catch (OptimisticLockingFailureException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", "Todo with ID " + id + " was modified concurrently");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
         } catch (RuntimeException e) {
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("success", false);
@@ -117,18 +415,29 @@ public class TodoController {
     @Operation(summary = "Toggle todo completed status", description = "Toggles the completed status of a todo")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Todo status toggled successfully"),
-        @ApiResponse(responseCode = "404", description = "Todo not found")
+        @ApiResponse(responseCode = "404", description = "Todo not found"),
+        @ApiResponse(responseCode = "412", description = "If-Match does not match the current version")
     })
     public ResponseEntity<Map<String, Object>> toggleTodo(
-            @Parameter(description = "Todo ID", required = true) @PathVariable Long id) {
+            @Parameter(hidden = true) @AuthenticationPrincipal String ownerId,
+            @Parameter(description = "Todo ID", required = true) @PathVariable Long id,
+            @Parameter(description = "ETag of the version being toggled") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            Todo todo = todoService.toggleTodo(id);
+            Long expectedVersion = parseIfMatch(ifMatch);
+            Todo todo = expectedVersion == null && todoWriteBuffer.isEnabled()
+                    ? todoWriteBuffer.toggle(ownerId, id)
+                    : todoService.toggleTodo(ownerId, id, expectedVersion);
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("data", todo);
             
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().eTag(etag(todo)).body(response);
+        } catch (PreconditionFailedException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(errorResponse);
         } catch (RuntimeException e) {
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("success", false);
@@ -141,18 +450,26 @@ public class TodoController {
     @Operation(summary = "Delete todo", description = "Deletes a todo by its ID")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Todo deleted successfully"),
-        @ApiResponse(responseCode = "404", description = "Todo not found")
+        @ApiResponse(responseCode = "404", description = "Todo not found"),
+        @ApiResponse(responseCode = "412", description = "If-Match does not match the current version")
     })
     public ResponseEntity<Map<String, Object>> deleteTodo(
-            @Parameter(description = "Todo ID", required = true) @PathVariable Long id) {
+            @Parameter(hidden = true) @AuthenticationPrincipal String ownerId,
+            @Parameter(description = "Todo ID", required = true) @PathVariable Long id,
+            @Parameter(description = "ETag of the version being deleted") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            todoService.deleteTodo(id);
+            todoService.deleteTodo(ownerId, id, parseIfMatch(ifMatch));
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Todo deleted successfully");
             
             return ResponseEntity.ok(response);
+        } catch (PreconditionFailedException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(errorResponse);
         } catch (RuntimeException e) {
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("success", false);
@@ -160,5 +477,67 @@ public class TodoController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
         }
     }
+    
+    private static Map<String, Object> changesResponse(TodoChanges changes) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("upserts", changes.getUpserts());
+        data.put("deletes", changes.getDeletes());
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", data);
+        response.put("nextCursor", changes.getNextCursor());
+        response.put("hasMore", changes.isHasMore());
+        return response;
+    }
+    
+    private static <T> DeferredResult<T> completed(T value) {
+        DeferredResult<T> result = new DeferredResult<>();
+        result.setResult(value);
+        return result;
+    }
+    
+    /**
+     * Whether an Accept-Encoding header allows gzip; "gzip;q=0" refuses it
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase("gzip") || name.equals("*")) {
+                return parts.length < 2 || !parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+    
+    private static String etag(Todo todo) {
+        return "\"" + todo.getVersion() + "\"";
+    }
+    
+    private static String etag(TodoView todo) {
+        return "\"" + todo.version() + "\"";
+    }
+    
+    /**
+     * Version named by an If-Match header, or null when the header is absent or "*".
+     * Only a single strong entity tag is understood; anything else can never match.
+     */
+    private static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.parseLong(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException e) {
+                // fall through
+            }
+        }
+        throw new PreconditionFailedException("If-Match " + ifMatch + " does not match the current version");
+    }
 }
-
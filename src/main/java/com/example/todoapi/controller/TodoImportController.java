@@ -0,0 +1,170 @@
+package com.example.todoapi.controller;
+
+import com.example.todoapi.entity.TodoImport;
+import com.example.todoapi.exception.ImportConflictException;
+import com.example.todoapi.imports.ImportFormat;
+import com.example.todoapi.repository.TodoImportRepository;
+import com.example.todoapi.service.TodoImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+@RestController
+@RequestMapping("/api/todos/imports")
+@Tag(name = "Todo imports", description = "Bulk import of todos from CSV or NDJSON")
+@CrossOrigin(origins = "*")
+public class TodoImportController {
+    
+    private static final Pattern IMPORT_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+    private static final int MAX_REJECTS_PAGE = 1000;
+    
+    private final TodoImportService todoImportService;
+    
+    @Autowired
+    public TodoImportController(TodoImportService todoImportService) {
+        this.todoImportService = todoImportService;
+    }
+    
+    @PostMapping(consumes = {"text/csv", "application/x-ndjson"})
+    @Operation(summary = "Start an import", description = "Streams a CSV (header row with title, "
+            + "description, dueAt and remindAt columns) or NDJSON upload into the todos table. Invalid records are skipped and listed under /rejects. "
+            + "Prefer PUT /api/todos/imports/{importId} with your own ID so an interrupted upload can be resumed.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Import completed"),
+        @ApiResponse(responseCode = "400", description = "Bad request - unreadable upload or missing CSV header")
+    })
+    public ResponseEntity<Map<String, Object>> startImport(
+            @Parameter(hidden = true) @AuthenticationPrincipal String ownerId,
+            HttpServletRequest request) {
+        return runImport(ownerId, null, request);
+    }
+    
+    @PutMapping(path = "/{importId}", consumes = {"text/csv", "application/x-ndjson"})
+    @Operation(summary = "Start or resume an import", description = "Starts an import under the given ID, or resumes "
+            + "it: upload the same file again and the records already committed are skipped. "
+            + "Re-uploading a completed import changes nothing.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Import completed"),
+        @ApiResponse(responseCode = "400", description = "Bad request - invalid ID, unreadable upload or format mismatch"),
+        @ApiResponse(responseCode = "409", description = "Another upload of this import is running, "
+                + "or another user's import has this ID")
+    })
+    public ResponseEntity<Map<String, Object>> putImport(
+            @Parameter(hidden = true) @AuthenticationPrincipal String ownerId,
+            @Parameter(description = "Import ID chosen by the client", required = true) @PathVariable String importId,
+            HttpServletRequest request) {
+        if (!IMPORT_ID.matcher(importId).matches()) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", "Import ID must be 1-64 letters, digits, '.', '_' or '-'");
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+        return runImport(ownerId, importId, request);
+    }
+    
+    @GetMapping("/{importId}")
+    @Operation(summary = "Get import progress", description = "Records consumed, rows imported and rejected, and status")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Import found"),
+        @ApiResponse(responseCode = "404", description = "Import not found")
+    })
+    public ResponseEntity<Map<String, Object>> getImport(
+            @Parameter(hidden = true) @AuthenticationPrincipal String ownerId,
+            @Parameter(description = "Import ID", required = true) @PathVariable String importId) {
+        Optional<TodoImport> todoImport = todoImportService.getImport(ownerId, importId);
+        if (todoImport.isEmpty()) {
+            return notFound(importId);
+        }
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", todoImport.get());
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    @GetMapping("/{importId}/rejects")
+    @Operation(summary = "Get rejected records", description = "Records that failed validation, in upload order. "
+            + "Pass the returned nextAfterLine to fetch the following page.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Rejects retrieved"),
+        @ApiResponse(responseCode = "404", description = "Import not found")
+    })
+    public ResponseEntity<Map<String, Object>> getRejects(
+            @Parameter(hidden = true) @AuthenticationPrincipal String ownerId,
+            @Parameter(description = "Import ID", required = true) @PathVariable String importId,
+            @Parameter(description = "Only rejects after this line of the upload") @RequestParam(defaultValue = "0") long afterLine,
+            @Parameter(description = "Page size (max " + MAX_REJECTS_PAGE + ")") @RequestParam(defaultValue = "100") int limit) {
+        if (todoImportService.getImport(ownerId, importId).isEmpty()) {
+            return notFound(importId);
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_REJECTS_PAGE));
+        List<TodoImportRepository.Reject> rejects = todoImportService.getRejects(ownerId, importId, afterLine, pageSize);
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", rejects);
+        response.put("nextAfterLine", rejects.size() < pageSize ? null : rejects.get(rejects.size() - 1).getLine());
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    private ResponseEntity<Map<String, Object>> runImport(String ownerId, String importId, HttpServletRequest request) {
+        TodoImport todoImport = null;
+        try {
+            ImportFormat format = ImportFormat.fromContentType(request.getContentType());
+            todoImport = todoImportService.begin(ownerId, importId, format);
+            TodoImportService.ImportRun run = todoImportService.run(todoImport, request.getInputStream());
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", run.todoImport());
+            response.put("rowsImported", run.rowsImported());
+            response.put("rowsRejected", run.rowsRejected());
+            response.put("elapsedMs", run.elapsedMillis());
+            response.put("rowsPerSecond", run.rowsPerSecond());
+            
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .header(HttpHeaders.LOCATION, "/api/todos/imports/" + run.todoImport().getId())
+                    .body(response);
+        } catch (IllegalArgumentException | IOException e) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage(), todoImport);
+        } catch (ImportConflictException e) {
+            return error(HttpStatus.CONFLICT, e.getMessage(), todoImport);
+        }
+    }
+    
+    // Carries the import ID so a client that did not choose one can still resume
+    private static ResponseEntity<Map<String, Object>> error(HttpStatus status, String message, TodoImport todoImport) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("message", message);
+        if (todoImport != null) {
+            errorResponse.put("importId", todoImport.getId());
+        }
+        return ResponseEntity.status(status).body(errorResponse);
+    }
+    
+    private static ResponseEntity<Map<String, Object>> notFound(String importId) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("message", "Import " + importId + " not found");
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+    }
+}
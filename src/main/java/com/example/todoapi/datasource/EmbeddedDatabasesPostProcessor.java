@@ -0,0 +1,107 @@
+package com.example.todoapi.datasource;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.util.ClassUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * With the "embedded" profile, starts an embedded Postgres server, loads init_db.sql into it
+ * and points spring.datasource at it.
+ * <p>
+ * With app.embedded.replica=true as well, a second server stands in for a read replica under
+ * app.datasource.replica. It is a separate database, not a streaming copy: rows written through
+ * the API only show up on the primary, which makes routing observable, but reads routed to it
+ * find none of them once the read-your-writes window has passed. Only for trying out routing.
+ * <p>
+ * The embedded-postgres dependency is developmentOnly (and jmhRuntimeOnly), so this only works
+ * under bootRun and in benchmarks.
+ */
+public class EmbeddedDatabasesPostProcessor implements EnvironmentPostProcessor, Ordered {
+    
+    public static final String PROFILE = "embedded";
+    
+    private static final String EMBEDDED_POSTGRES_CLASS = "io.zonky.test.db.postgres.embedded.EmbeddedPostgres";
+    
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        if (!environment.matchesProfiles(PROFILE)) {
+            return;
+        }
+        if (!ClassUtils.isPresent(EMBEDDED_POSTGRES_CLASS, getClass().getClassLoader())) {
+            throw new IllegalStateException("The " + PROFILE + " profile needs io.zonky.test:embedded-postgres "
+                    + "on the classpath; run it with ./gradlew bootRun");
+        }
+        String initScript = environment.getProperty("app.embedded.init-script", "init_db.sql");
+        boolean replica = environment.getProperty("app.embedded.replica", Boolean.class, false);
+        environment.getPropertySources().addFirst(new MapPropertySource("embeddedDatabases",
+                Launcher.start(initScript, replica)));
+    }
+    
+    @Override
+    public int getOrder() {
+        // After config data, so profile-specific files have been read
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+    
+    // Kept apart so EmbeddedPostgres is only loaded once the profile is known to be active
+    private static final class Launcher {
+        
+        static Map<String, Object> start(String initScript, boolean withReplica) {
+            EmbeddedPostgres primary = startDatabase(initScript);
+            EmbeddedPostgres replica = withReplica ? startDatabase(initScript) : null;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                if (replica != null) {
+                    close(replica);
+                }
+                close(primary);
+            }, "embedded-postgres-shutdown"));
+            
+            Map<String, Object> properties = new HashMap<>();
+            properties.put("spring.datasource.url", primary.getJdbcUrl("postgres", "postgres")
+                    + "&reWriteBatchedInserts=true");
+            properties.put("spring.datasource.username", "postgres");
+            properties.put("spring.datasource.password", "postgres");
+            if (replica != null) {
+                properties.put("app.datasource.replica.urls", replica.getJdbcUrl("postgres", "postgres"));
+                properties.put("app.datasource.replica.username", "postgres");
+                properties.put("app.datasource.replica.password", "postgres");
+            }
+            return properties;
+        }
+        
+        private static EmbeddedPostgres startDatabase(String initScript) {
+            try {
+                EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+                try (Connection connection = postgres.getPostgresDatabase().getConnection()) {
+                    ScriptUtils.executeSqlScript(connection, new FileSystemResource(initScript));
+                }
+                return postgres;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (SQLException e) {
+                throw new IllegalStateException("Could not load " + initScript + " into embedded Postgres", e);
+            }
+        }
+        
+        private static void close(EmbeddedPostgres postgres) {
+            try {
+                postgres.close();
+            } catch (IOException e) {
+                // shutting down anyway
+            }
+        }
+    }
+}
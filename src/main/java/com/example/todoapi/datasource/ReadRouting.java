@@ -0,0 +1,45 @@
+package com.example.todoapi.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Per-thread override that keeps read-only transactions on the primary. Used for reads that
+ * must not lag behind writes (a client's own recent writes, the change feed's cursor).
+ * Only matters when {@link ReplicaRoutingDataSource} is configured; otherwise a no-op.
+ */
+public final class ReadRouting {
+    
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+    
+    private ReadRouting() {}
+    
+    /**
+     * Run work with every connection it opens taken from the primary
+     */
+    public static <T> T onPrimary(Supplier<T> work) {
+        boolean previous = requirePrimary();
+        try {
+            return work.get();
+        } finally {
+            restore(previous);
+        }
+    }
+    
+    public static boolean isPrimaryRequired() {
+        return Boolean.TRUE.equals(PRIMARY_REQUIRED.get());
+    }
+    
+    static boolean requirePrimary() {
+        boolean previous = isPrimaryRequired();
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+        return previous;
+    }
+    
+    static void restore(boolean previous) {
+        if (previous) {
+            PRIMARY_REQUIRED.set(Boolean.TRUE);
+        } else {
+            PRIMARY_REQUIRED.remove();
+        }
+    }
+}
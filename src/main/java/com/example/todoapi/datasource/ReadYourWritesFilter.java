@@ -0,0 +1,77 @@
+package com.example.todoapi.datasource;
+
+import com.example.todoapi.security.JwtAuthenticationFilter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * After a client writes, keeps that client's reads on the primary for a short window so it
+ * sees its own change even while replicas catch up. Clients are told apart by their verified
+ * token's subject, which covers all of a user's devices, and otherwise by remote address. A
+ * header (e.g. X-Client-Id) only splits clients behind one address, so made-up values cannot
+ * reach beyond the caller's own address.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+    
+    private static final long MAX_TRACKED_CLIENTS = 100_000;
+    
+    private final Cache<String, Boolean> recentWriters;
+    
+    private final String clientHeader;
+    
+    public ReadYourWritesFilter(Duration window, String clientHeader) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(MAX_TRACKED_CLIENTS)
+                .build();
+        this.clientHeader = clientHeader;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String client = clientKey(request);
+        if (!SAFE_METHODS.contains(request.getMethod())) {
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                // The write has committed by now; the window starts here
+                recentWriters.put(client, Boolean.TRUE);
+            }
+            return;
+        }
+        
+        if (recentWriters.getIfPresent(client) == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        boolean previous = ReadRouting.requirePrimary();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadRouting.restore(previous);
+        }
+    }
+    
+    // Runs after the security filter chain, which has verified any token by now
+    private String clientKey(HttpServletRequest request) {
+        Object subject = request.getAttribute(JwtAuthenticationFilter.SUBJECT_ATTRIBUTE);
+        if (subject != null) {
+            return "sub:" + subject;
+        }
+        String client = request.getHeader(clientHeader);
+        String address = "addr:" + request.getRemoteAddr();
+        return client != null && !client.isBlank() ? address + "/" + client : address;
+    }
+}
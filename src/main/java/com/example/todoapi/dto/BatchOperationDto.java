@@ -0,0 +1,89 @@
+package com.example.todoapi.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+public class BatchOperationDto {
+    
+    public enum Type {
+        CREATE, UPDATE, DELETE, TOGGLE
+    }
+    
+    @NotNull(message = "Operation type is required")
+    private Type op;
+    
+    // Required for UPDATE, DELETE and TOGGLE
+    private Long id;
+    
+    // Required for CREATE, optional for UPDATE
+    @Size(min = 1, max = 255, message = "Title must be between 1 and 255 characters")
+    private String title;
+    
+    private String description;
+    
+    private Boolean completed;
+    
+    // Default constructor
+    public BatchOperationDto() {}
+    
+    // Constructor with fields
+    public BatchOperationDto(Type op, Long id, String title, String description, Boolean completed) {
+        this.op = op;
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.completed = completed;
+    }
+    
+    // Getters and Setters
+    public Type getOp() {
+        return op;
+    }
+    
+    public void setOp(Type op) {
+        this.op = op;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getTitle() {
+        return title;
+    }
+    
+    public void setTitle(String title) {
+        this.title = title;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public void setDescription(String description) {
+        this.description = description;
+    }
+    
+    public Boolean getCompleted() {
+        return completed;
+    }
+    
+    public void setCompleted(Boolean completed) {
+        this.completed = completed;
+    }
+    
+    @Override
+    public String toString() {
+        return "BatchOperationDto{" +
+                "op=" + op +
+                ", id=" + id +
+                ", title='" + title + '\'' +
+                ", description='" + description + '\'' +
+                ", completed=" + completed +
+                '}';
+    }
+}
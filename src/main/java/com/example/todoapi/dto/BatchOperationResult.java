@@ -0,0 +1,76 @@
+package com.example.todoapi.dto;
+
+import com.example.todoapi.entity.Todo;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Outcome of a single operation within a POST /api/todos/batch request.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchOperationResult {
+    
+    public enum Status {
+        CREATED, UPDATED, TOGGLED, DELETED, NOT_FOUND, INVALID
+    }
+    
+    private final int index;
+    
+    private final BatchOperationDto.Type op;
+    
+    private final Status status;
+    
+    private final Long id;
+    
+    private final Todo data;
+    
+    private final String message;
+    
+    private BatchOperationResult(int index, BatchOperationDto.Type op, Status status, Long id, Todo data, String message) {
+        this.index = index;
+        this.op = op;
+        this.status = status;
+        this.id = id;
+        this.data = data;
+        this.message = message;
+    }
+    
+    public static BatchOperationResult applied(int index, BatchOperationDto.Type op, Status status, Todo todo) {
+        return new BatchOperationResult(index, op, status, todo.getId(), todo, null);
+    }
+    
+    public static BatchOperationResult deleted(int index, Long id) {
+        return new BatchOperationResult(index, BatchOperationDto.Type.DELETE, Status.DELETED, id, null, null);
+    }
+    
+    public static BatchOperationResult notFound(int index, BatchOperationDto.Type op, Long id) {
+        return new BatchOperationResult(index, op, Status.NOT_FOUND, id, null, "Todo with ID " + id + " not found");
+    }
+    
+    public static BatchOperationResult invalid(int index, BatchOperationDto.Type op, String message) {
+        return new BatchOperationResult(index, op, Status.INVALID, null, null, message);
+    }
+    
+    public int getIndex() {
+        return index;
+    }
+    
+    public BatchOperationDto.Type getOp() {
+        return op;
+    }
+    
+    public Status getStatus() {
+        return status;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public Todo getData() {
+        return data;
+    }
+    
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.todoapi.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class BatchRequestDto {
+    
+    public static final int MAX_OPERATIONS = 1000;
+    
+    @NotEmpty(message = "At least one operation is required")
+    @Size(max = MAX_OPERATIONS, message = "At most " + MAX_OPERATIONS + " operations are allowed per batch")
+    @Valid
+    private List<BatchOperationDto> operations;
+    
+    // Default constructor
+    public BatchRequestDto() {}
+    
+    // Constructor with fields
+    public BatchRequestDto(List<BatchOperationDto> operations) {
+        this.operations = operations;
+    }
+    
+    // Getters and Setters
+    public List<BatchOperationDto> getOperations() {
+        return operations;
+    }
+    
+    public void setOperations(List<BatchOperationDto> operations) {
+        this.operations = operations;
+    }
+    
+    @Override
+    public String toString() {
+        return "BatchRequestDto{" +
+                "operations=" + operations +
+                '}';
+    }
+}
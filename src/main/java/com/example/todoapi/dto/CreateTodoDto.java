@@ -3,6 +3,8 @@ package com.example.todoapi.dto;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
+import java.time.LocalDateTime;
+
 public class CreateTodoDto {
     
     @NotBlank(message = "Title is required")
@@ -11,6 +13,10 @@ public class CreateTodoDto {
     
     private String description;
     
+    private LocalDateTime dueAt;
+    
+    private LocalDateTime remindAt;
+    
     // Default constructor
     public CreateTodoDto() {}
     
@@ -37,11 +43,29 @@ public class CreateTodoDto {
         this.description = description;
     }
     
+    public LocalDateTime getDueAt() {
+        return dueAt;
+    }
+    
+    public void setDueAt(LocalDateTime dueAt) {
+        this.dueAt = dueAt;
+    }
+    
+    public LocalDateTime getRemindAt() {
+        return remindAt;
+    }
+    
+    public void setRemindAt(LocalDateTime remindAt) {
+        this.remindAt = remindAt;
+    }
+    
     @Override
     public String toString() {
         return "CreateTodoDto{" +
                 "title='" + title + '\'' +
                 ", description='" + description + '\'' +
+                ", dueAt=" + dueAt +
+                ", remindAt=" + remindAt +
                 '}';
     }
 }
@@ -0,0 +1,48 @@
+package com.example.todoapi.dto;
+
+import java.util.List;
+
+/**
+ * One page of the change feed: todos created or updated, and IDs of todos deleted,
+ * since the client's cursor. Pass nextCursor back to receive the following changes.
+ */
+public class TodoChanges {
+    
+    private final List<TodoView> upserts;
+    
+    private final List<Long> deletes;
+    
+    private final String nextCursor;
+    
+    private final boolean hasMore;
+    
+    public TodoChanges(List<TodoView> upserts, List<Long> deletes, String nextCursor, boolean hasMore) {
+        this.upserts = upserts;
+        this.deletes = deletes;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+    
+    public List<TodoView> getUpserts() {
+        return upserts;
+    }
+    
+    public List<Long> getDeletes() {
+        return deletes;
+    }
+    
+    /**
+     * @return cursor to resume from; unchanged from the request when there were no changes
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    
+    public boolean isHasMore() {
+        return hasMore;
+    }
+    
+    public boolean isEmpty() {
+        return upserts.isEmpty() && deletes.isEmpty();
+    }
+}
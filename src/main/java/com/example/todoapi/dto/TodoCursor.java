@@ -0,0 +1,75 @@
+package com.example.todoapi.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for paging through todos.
+ * Pages ordered by id carry only the last id; pages filtered by updatedSince
+ * are ordered by (updatedAt, id) and carry both.
+ */
+public final class TodoCursor {
+
+    private static final String ID_PREFIX = "i";
+    private static final String UPDATED_AT_PREFIX = "u";
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime updatedAt;
+    private final Long id;
+
+    private TodoCursor(LocalDateTime updatedAt, Long id) {
+        this.updatedAt = updatedAt;
+        this.id = id;
+    }
+
+    public static TodoCursor afterId(Long id) {
+        return new TodoCursor(null, id);
+    }
+
+    public static TodoCursor afterUpdatedAt(LocalDateTime updatedAt, Long id) {
+        return new TodoCursor(updatedAt, id);
+    }
+
+    /**
+     * Decode a cursor previously returned as nextCursor
+     * @param token the encoded cursor
+     * @return the decoded cursor
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static TodoCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR);
+            if (parts.length == 2 && ID_PREFIX.equals(parts[0])) {
+                return afterId(Long.parseLong(parts[1]));
+            }
+            if (parts.length == 3 && UPDATED_AT_PREFIX.equals(parts[0])) {
+                return afterUpdatedAt(LocalDateTime.parse(parts[1]), Long.parseLong(parts[2]));
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            // fall through to the common error below
+        }
+        throw new IllegalArgumentException("Invalid cursor");
+    }
+
+    public String encode() {
+        String raw = isUpdatedAtOrdered()
+                ? UPDATED_AT_PREFIX + SEPARATOR + updatedAt + SEPARATOR + id
+                : ID_PREFIX + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public boolean isUpdatedAtOrdered() {
+        return updatedAt != null;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.todoapi.dto;
+
+import java.util.List;
+
+public class TodoPage<T> {
+
+    private final List<T> items;
+
+    private final String nextCursor;
+
+    public TodoPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * @return cursor for the following page, or null when this is the last page
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.todoapi.dto;
+
+import com.example.todoapi.entity.Todo;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of a todo, selected with a JPQL constructor expression rather than loaded as
+ * an entity: nothing enters the persistence context, so there is no dirty-checking snapshot,
+ * and it can be cached or rendered after the transaction without lazy-loading surprises.
+ * Serializes to the same JSON as {@link Todo}.
+ */
+public record TodoView(Long id,
+                       @JsonIgnore String ownerId,
+                       String title,
+                       String description,
+                       Boolean completed,
+                       LocalDateTime completedAt,
+                       LocalDateTime dueAt,
+                       LocalDateTime remindAt,
+                       LocalDateTime createdAt,
+                       LocalDateTime updatedAt,
+                       Long version) {
+    
+    public static TodoView of(Todo todo) {
+        return new TodoView(todo.getId(), todo.getOwnerId(), todo.getTitle(), todo.getDescription(), todo.getCompleted(),
+                todo.getCompletedAt(), todo.getDueAt(), todo.getRemindAt(), todo.getCreatedAt(),
+                todo.getUpdatedAt(), todo.getVersion());
+    }
+}
@@ -2,6 +2,8 @@ package com.example.todoapi.dto;
 
 import jakarta.validation.constraints.Size;
 
+import java.time.LocalDateTime;
+
 public class UpdateTodoDto {
     
     @Size(min = 1, max = 255, message = "Title must be between 1 and 255 characters")
@@ -9,6 +11,10 @@ public class UpdateTodoDto {
     
     private String description;
     
+    private LocalDateTime dueAt;
+    
+    private LocalDateTime remindAt;
+    
     private Boolean completed;
     
     // Default constructor
@@ -46,11 +52,29 @@ public class UpdateTodoDto {
         this.completed = completed;
     }
     
+    public LocalDateTime getDueAt() {
+        return dueAt;
+    }
+    
+    public void setDueAt(LocalDateTime dueAt) {
+        this.dueAt = dueAt;
+    }
+    
+    public LocalDateTime getRemindAt() {
+        return remindAt;
+    }
+    
+    public void setRemindAt(LocalDateTime remindAt) {
+        this.remindAt = remindAt;
+    }
+    
     @Override
     public String toString() {
         return "UpdateTodoDto{" +
                 "title='" + title + '\'' +
                 ", description='" + description + '\'' +
+                ", dueAt=" + dueAt +
+                ", remindAt=" + remindAt +
                 ", completed=" + completed +
                 '}';
     }
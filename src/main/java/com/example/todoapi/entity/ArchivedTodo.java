@@ -0,0 +1,114 @@
+package com.example.todoapi.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * A completed todo moved out of the hot todos table by TodoArchiveService. Never changed in
+ * place: writes move it back to todos first (see TodoArchiveRepository#restore).
+ */
+@Entity
+@Immutable
+@Table(name = "todos_archive")
+public class ArchivedTodo {
+    
+    @Id
+    private Long id;
+    
+    @Column(name = "owner_id", nullable = false)
+    private String ownerId;
+    
+    @Column(nullable = false)
+    private String title;
+    
+    @Column(columnDefinition = "TEXT")
+    private String description;
+    
+    @Column(nullable = false)
+    private Boolean completed;
+    
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+    
+    @Column(name = "due_at")
+    private LocalDateTime dueAt;
+    
+    @Column(name = "remind_at")
+    private LocalDateTime remindAt;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    @Column(nullable = false)
+    private Long version;
+    
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+    
+    // Default constructor
+    protected ArchivedTodo() {}
+    
+    // Getters
+    public Long getId() {
+        return id;
+    }
+    
+    public String getOwnerId() {
+        return ownerId;
+    }
+    
+    public String getTitle() {
+        return title;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public Boolean getCompleted() {
+        return completed;
+    }
+    
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+    
+    public LocalDateTime getDueAt() {
+        return dueAt;
+    }
+    
+    public LocalDateTime getRemindAt() {
+        return remindAt;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+    
+    @Override
+    public String toString() {
+        return "ArchivedTodo{" +
+                "id=" + id +
+                ", title='" + title + '\'' +
+                ", completedAt=" + completedAt +
+                ", archivedAt=" + archivedAt +
+                '}';
+    }
+}
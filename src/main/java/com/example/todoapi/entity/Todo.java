@@ -1,5 +1,6 @@
 package com.example.todoapi.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
@@ -7,15 +8,27 @@ import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 @Entity
-@Table(name = "todos")
+@Table(name = "todos", indexes = {
+    @Index(name = "idx_todos_owner_id_id", columnList = "owner_id, id"),
+    @Index(name = "idx_todos_owner_id_completed_id", columnList = "owner_id, completed, id"),
+    @Index(name = "idx_todos_owner_id_updated_at_id", columnList = "owner_id, updated_at, id")
+})
 public class Todo {
     
+    // Pooled sequence (allocationSize must match the sequence INCREMENT BY) so inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "todos_id_seq")
+    @SequenceGenerator(name = "todos_id_seq", sequenceName = "todos_id_seq", allocationSize = 50)
     private Long id;
     
+    // Subject of the token that created it; every read and write is scoped to it
+    @JsonIgnore
+    @Column(name = "owner_id", nullable = false, updatable = false, length = 64)
+    private String ownerId;
+    
     @NotBlank(message = "Title is required")
     @Size(min = 1, max = 255, message = "Title must be between 1 and 255 characters")
     @Column(nullable = false)
@@ -27,6 +40,17 @@ public class Todo {
     @Column(nullable = false)
     private Boolean completed = false;
     
+    // Time of the most recent completion; kept when un-completed, only meaningful while completed
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+    
+    @Column(name = "due_at")
+    private LocalDateTime dueAt;
+    
+    // When to send a reminder; only open todos are reminded
+    @Column(name = "remind_at")
+    private LocalDateTime remindAt;
+    
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -35,6 +59,11 @@ public class Todo {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
     
+    // Left null until persisted so Spring Data still treats new todos as new
+    @Version
+    @Column(nullable = false)
+    private Long version;
+    
     // Default constructor
     public Todo() {}
     
@@ -45,6 +74,25 @@ public class Todo {
         this.completed = false;
     }
     
+    /**
+     * A detached copy with the same field values, unaffected by later changes to this entity
+     */
+    public Todo copy() {
+        Todo copy = new Todo();
+        copy.id = id;
+        copy.ownerId = ownerId;
+        copy.title = title;
+        copy.description = description;
+        copy.completed = completed;
+        copy.completedAt = completedAt;
+        copy.dueAt = dueAt;
+        copy.remindAt = remindAt;
+        copy.createdAt = createdAt;
+        copy.updatedAt = updatedAt;
+        copy.version = version;
+        return copy;
+    }
+    
     // Getters and Setters
     public Long getId() {
         return id;
@@ -54,6 +102,14 @@ public class Todo {
         this.id = id;
     }
     
+    public String getOwnerId() {
+        return ownerId;
+    }
+    
+    public void setOwnerId(String ownerId) {
+        this.ownerId = ownerId;
+    }
+    
     public String getTitle() {
         return title;
     }
@@ -75,9 +131,37 @@ public class Todo {
     }
     
     public void setCompleted(Boolean completed) {
+        if (Boolean.TRUE.equals(completed) && !Boolean.TRUE.equals(this.completed)) {
+            this.completedAt = LocalDateTime.now();
+        }
         this.completed = completed;
     }
     
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+    
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+    
+    public LocalDateTime getDueAt() {
+        return dueAt;
+    }
+    
+    // Postgres keeps microseconds; matching that lets reminder timers compare against the row
+    public void setDueAt(LocalDateTime dueAt) {
+        this.dueAt = dueAt != null ? dueAt.truncatedTo(ChronoUnit.MICROS) : null;
+    }
+    
+    public LocalDateTime getRemindAt() {
+        return remindAt;
+    }
+    
+    public void setRemindAt(LocalDateTime remindAt) {
+        this.remindAt = remindAt != null ? remindAt.truncatedTo(ChronoUnit.MICROS) : null;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -94,15 +178,28 @@ public class Todo {
         this.updatedAt = updatedAt;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     @Override
     public String toString() {
         return "Todo{" +
                 "id=" + id +
+                ", ownerId='" + ownerId + '\'' +
                 ", title='" + title + '\'' +
                 ", description='" + description + '\'' +
                 ", completed=" + completed +
+                ", completedAt=" + completedAt +
+                ", dueAt=" + dueAt +
+                ", remindAt=" + remindAt +
                 ", createdAt=" + createdAt +
                 ", updatedAt=" + updatedAt +
+                ", version=" + version +
                 '}';
     }
 }
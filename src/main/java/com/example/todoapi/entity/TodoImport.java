@@ -0,0 +1,162 @@
+package com.example.todoapi.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a bulk import. Records are committed in chunks, and recordsConsumed only moves
+ * in the transaction that writes a chunk, so a re-uploaded file can skip exactly what is
+ * already in the table.
+ */
+@Entity
+@Table(name = "todo_imports")
+public class TodoImport {
+    
+    public enum Status {
+        RUNNING, INTERRUPTED, COMPLETED
+    }
+    
+    @Id
+    private String id;
+    
+    // Subject of the token that started the import; only it can resume or inspect it
+    @JsonIgnore
+    @Column(name = "owner_id", nullable = false, updatable = false, length = 64)
+    private String ownerId;
+    
+    @Column(nullable = false, length = 16)
+    private String format;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+    
+    // Records of the upload (imported or rejected) covered by committed chunks
+    @Column(name = "records_consumed", nullable = false)
+    private long recordsConsumed;
+    
+    @Column(name = "rows_imported", nullable = false)
+    private long rowsImported;
+    
+    @Column(name = "rows_rejected", nullable = false)
+    private long rowsRejected;
+    
+    // Why the last upload stopped early, while INTERRUPTED
+    @Column(columnDefinition = "TEXT")
+    private String error;
+    
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+    
+    // Default constructor
+    public TodoImport() {}
+    
+    // Constructor with fields
+    public TodoImport(String id, String ownerId, String format, LocalDateTime createdAt) {
+        this.id = id;
+        this.ownerId = ownerId;
+        this.format = format;
+        this.status = Status.RUNNING;
+        this.createdAt = createdAt;
+        this.updatedAt = createdAt;
+    }
+    
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+    
+    public void setId(String id) {
+        this.id = id;
+    }
+    
+    public String getOwnerId() {
+        return ownerId;
+    }
+    
+    public void setOwnerId(String ownerId) {
+        this.ownerId = ownerId;
+    }
+    
+    public String getFormat() {
+        return format;
+    }
+    
+    public void setFormat(String format) {
+        this.format = format;
+    }
+    
+    public Status getStatus() {
+        return status;
+    }
+    
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+    
+    public long getRecordsConsumed() {
+        return recordsConsumed;
+    }
+    
+    public void setRecordsConsumed(long recordsConsumed) {
+        this.recordsConsumed = recordsConsumed;
+    }
+    
+    public long getRowsImported() {
+        return rowsImported;
+    }
+    
+    public void setRowsImported(long rowsImported) {
+        this.rowsImported = rowsImported;
+    }
+    
+    public long getRowsRejected() {
+        return rowsRejected;
+    }
+    
+    public void setRowsRejected(long rowsRejected) {
+        this.rowsRejected = rowsRejected;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public void setError(String error) {
+        this.error = error;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+    
+    @Override
+    public String toString() {
+        return "TodoImport{" +
+                "id='" + id + '\'' +
+                ", format='" + format + '\'' +
+                ", status=" + status +
+                ", recordsConsumed=" + recordsConsumed +
+                ", rowsImported=" + rowsImported +
+                ", rowsRejected=" + rowsRejected +
+                ", updatedAt=" + updatedAt +
+                '}';
+    }
+}
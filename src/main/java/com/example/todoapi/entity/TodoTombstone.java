@@ -0,0 +1,71 @@
+package com.example.todoapi.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marker left behind by a deleted todo so the change feed can tell clients to drop it.
+ * Purged after the tombstone retention period.
+ */
+@Entity
+@Table(name = "todo_tombstones", indexes = {
+    @Index(name = "idx_todo_tombstones_deleted_at_todo_id", columnList = "deleted_at, todo_id"),
+    @Index(name = "idx_todo_tombstones_owner_id_deleted_at_todo_id", columnList = "owner_id, deleted_at, todo_id")
+})
+public class TodoTombstone {
+    
+    @Id
+    @Column(name = "todo_id")
+    private Long todoId;
+    
+    @Column(name = "owner_id", nullable = false, length = 64)
+    private String ownerId;
+    
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+    
+    // Default constructor
+    public TodoTombstone() {}
+    
+    // Constructor with fields
+    public TodoTombstone(Long todoId, String ownerId, LocalDateTime deletedAt) {
+        this.todoId = todoId;
+        this.ownerId = ownerId;
+        this.deletedAt = deletedAt;
+    }
+    
+    // Getters and Setters
+    public Long getTodoId() {
+        return todoId;
+    }
+    
+    public void setTodoId(Long todoId) {
+        this.todoId = todoId;
+    }
+    
+    public String getOwnerId() {
+        return ownerId;
+    }
+    
+    public void setOwnerId(String ownerId) {
+        this.ownerId = ownerId;
+    }
+    
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+    
+    public void setDeletedAt(LocalDateTime deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+    
+    @Override
+    public String toString() {
+        return "TodoTombstone{" +
+                "todoId=" + todoId +
+                ", ownerId='" + ownerId + '\'' +
+                ", deletedAt=" + deletedAt +
+                '}';
+    }
+}
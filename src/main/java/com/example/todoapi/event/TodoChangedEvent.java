@@ -0,0 +1,42 @@
+package com.example.todoapi.event;
+
+import com.example.todoapi.entity.Todo;
+
+/**
+ * Published by TodoService for every write. Listeners that keep derived state (search index,
+ * caches, counters) should use @TransactionalEventListener so they only see committed changes.
+ * <p>
+ * The todo is a copy taken when the event is created. Listeners run after commit, and by then a
+ * managed entity may have been changed again by later operations in the same transaction (a batch
+ * that toggles one todo twice). The version and updatedAt of an update may predate the flush.
+ * @param type what happened
+ * @param id the todo ID
+ * @param todo the todo right after the change, or the last state of a deleted todo
+ * @param previousCompleted completed before the change; null for CREATED
+ */
+public record TodoChangedEvent(Type type, Long id, Todo todo, Boolean previousCompleted) {
+    
+    public TodoChangedEvent {
+        todo = todo.copy();
+    }
+    
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+    
+    public static TodoChangedEvent created(Todo todo) {
+        return new TodoChangedEvent(Type.CREATED, todo.getId(), todo, null);
+    }
+    
+    public static TodoChangedEvent updated(Todo todo, Boolean previousCompleted) {
+        return new TodoChangedEvent(Type.UPDATED, todo.getId(), todo, previousCompleted);
+    }
+    
+    public static TodoChangedEvent deleted(Todo todo) {
+        return new TodoChangedEvent(Type.DELETED, todo.getId(), todo, todo.getCompleted());
+    }
+    
+    public boolean completedChanged() {
+        return previousCompleted != null && !previousCompleted.equals(todo.getCompleted());
+    }
+}
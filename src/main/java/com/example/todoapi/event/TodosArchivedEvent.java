@@ -0,0 +1,18 @@
+package com.example.todoapi.event;
+
+import java.util.List;
+
+/**
+ * Published by TodoArchiveService for each owner with todos in an archived batch. Archived todos
+ * are still found by ID, so they are not deleted, but they have left lists and search: caches
+ * and indexes over those should drop them. Like {@link TodoChangedEvent}, listen with
+ * @TransactionalEventListener to see only committed batches.
+ * @param ownerId owner of the archived todos
+ * @param ids the todos moved to todos_archive
+ */
+public record TodosArchivedEvent(String ownerId, List<Long> ids) {
+    
+    public TodosArchivedEvent {
+        ids = List.copyOf(ids);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.todoapi.exception;
+
+/**
+ * Thrown when a change feed cursor predates the tombstone retention period, so deletes
+ * since then can no longer be reported and the client has to resynchronize in full.
+ */
+public class CursorExpiredException extends RuntimeException {
+    
+    public CursorExpiredException(String message) {
+        super(message);
+    }
+}
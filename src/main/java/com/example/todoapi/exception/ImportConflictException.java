@@ -0,0 +1,12 @@
+package com.example.todoapi.exception;
+
+/**
+ * Thrown when another upload of the same import committed a chunk first, or the import has
+ * already completed; the caller should re-read its progress before resuming.
+ */
+public class ImportConflictException extends RuntimeException {
+    
+    public ImportConflictException(String message) {
+        super(message);
+    }
+}
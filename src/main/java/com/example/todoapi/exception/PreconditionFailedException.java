@@ -0,0 +1,11 @@
+package com.example.todoapi.exception;
+
+/**
+ * Thrown when a conditional write (If-Match) names a version that is no longer current.
+ */
+public class PreconditionFailedException extends RuntimeException {
+    
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
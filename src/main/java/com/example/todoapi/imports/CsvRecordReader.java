@@ -0,0 +1,180 @@
+package com.example.todoapi.imports;
+
+import com.example.todoapi.dto.CreateTodoDto;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * RFC 4180 CSV: comma separated, fields optionally double-quoted, "" for a quote inside a
+ * quoted field, which may also span lines. The header row names the columns; title is
+ * required, description, dueAt and remindAt (ISO date-times, e.g. 2024-05-01T09:00) optional,
+ * and any others are ignored. An empty unquoted field is read as null.
+ */
+final class CsvRecordReader implements ImportRecordReader {
+    
+    // A record still open after this many characters is an unterminated quote, not data
+    private static final int MAX_RECORD_LENGTH = 1 << 20;
+    
+    private final BufferedReader reader;
+    
+    private final int titleColumn;
+    
+    private final int descriptionColumn;
+    
+    private final int dueAtColumn;
+    
+    private final int remindAtColumn;
+    
+    private final int columns;
+    
+    private long line;
+    
+    CsvRecordReader(BufferedReader reader) throws IOException {
+        this.reader = reader;
+        List<String> header = readFields(new StringBuilder(), new ArrayList<>());
+        if (header == null) {
+            throw new IllegalArgumentException("CSV upload is empty; expected a header row");
+        }
+        int title = -1;
+        int description = -1;
+        int dueAt = -1;
+        int remindAt = -1;
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i) == null ? "" : header.get(i).trim().toLowerCase(Locale.ROOT);
+            if (name.equals("title")) {
+                title = i;
+            } else if (name.equals("description")) {
+                description = i;
+            } else if (name.equals("dueat") || name.equals("due_at")) {
+                dueAt = i;
+            } else if (name.equals("remindat") || name.equals("remind_at")) {
+                remindAt = i;
+            }
+        }
+        if (title < 0) {
+            throw new IllegalArgumentException("CSV header has no title column");
+        }
+        this.titleColumn = title;
+        this.descriptionColumn = description;
+        this.dueAtColumn = dueAt;
+        this.remindAtColumn = remindAt;
+        this.columns = header.size();
+    }
+    
+    @Override
+    public ImportRecord next() throws IOException {
+        StringBuilder raw = new StringBuilder();
+        List<String> fields = new ArrayList<>(columns);
+        long start;
+        do {
+            raw.setLength(0);
+            fields.clear();
+            start = line + 1;
+            try {
+                if (readFields(raw, fields) == null) {
+                    return null;
+                }
+            } catch (MalformedRecordException e) {
+                return ImportRecord.rejected(start, raw.toString(), e.getMessage());
+            }
+        } while (raw.isEmpty());
+        
+        if (fields.size() != columns) {
+            return ImportRecord.rejected(start, raw.toString(),
+                    "Expected " + columns + " fields but found " + fields.size());
+        }
+        String description = descriptionColumn >= 0 ? fields.get(descriptionColumn) : null;
+        CreateTodoDto todo = new CreateTodoDto(fields.get(titleColumn), description);
+        try {
+            todo.setDueAt(dateTime(fields, dueAtColumn));
+            todo.setRemindAt(dateTime(fields, remindAtColumn));
+        } catch (DateTimeParseException e) {
+            return ImportRecord.rejected(start, raw.toString(),
+                    "dueAt and remindAt must be ISO date-times, e.g. 2024-05-01T09:00");
+        }
+        return ImportRecord.parsed(start, todo, raw.toString());
+    }
+    
+    private static LocalDateTime dateTime(List<String> fields, int column) {
+        String value = column >= 0 ? fields.get(column) : null;
+        return value == null || value.isBlank() ? null : LocalDateTime.parse(value.trim());
+    }
+    
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+    
+    /**
+     * Read one record into fields, appending its text to raw
+     * @return fields, or null at end of input
+     */
+    private List<String> readFields(StringBuilder raw, List<String> fields) throws IOException {
+        String text = reader.readLine();
+        if (text == null) {
+            return null;
+        }
+        line++;
+        raw.append(text);
+        
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        int i = 0;
+        while (true) {
+            if (i == text.length()) {
+                if (!quoted) {
+                    break;
+                }
+                // A quoted field continues on the next line
+                text = reader.readLine();
+                if (text == null) {
+                    throw new MalformedRecordException("Unterminated quoted field");
+                }
+                line++;
+                if (raw.length() + text.length() > MAX_RECORD_LENGTH) {
+                    throw new MalformedRecordException("Record longer than " + MAX_RECORD_LENGTH + " characters");
+                }
+                raw.append('\n').append(text);
+                field.append('\n');
+                i = 0;
+                continue;
+            }
+            char c = text.charAt(i++);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i < text.length() && text.charAt(i) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == ',') {
+                fields.add(wasQuoted || !field.isEmpty() ? field.toString() : null);
+                field.setLength(0);
+                wasQuoted = false;
+            } else if (c == '"' && field.isEmpty() && !wasQuoted) {
+                quoted = true;
+                wasQuoted = true;
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(wasQuoted || !field.isEmpty() ? field.toString() : null);
+        return fields;
+    }
+    
+    private static final class MalformedRecordException extends IOException {
+        
+        private MalformedRecordException(String message) {
+            super(message);
+        }
+    }
+}
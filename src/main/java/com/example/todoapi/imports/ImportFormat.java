@@ -0,0 +1,44 @@
+package com.example.todoapi.imports;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Upload formats accepted by the bulk import
+ */
+public enum ImportFormat {
+    
+    /**
+     * RFC 4180 CSV with a header row naming the title, description, dueAt and remindAt columns
+     */
+    CSV("text/csv"),
+    
+    /**
+     * One JSON object per line, shaped like the POST /api/todos body
+     */
+    NDJSON("application/x-ndjson");
+    
+    private final String mediaType;
+    
+    ImportFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+    
+    public String getMediaType() {
+        return mediaType;
+    }
+    
+    /**
+     * @throws IllegalArgumentException if the content type is not one of the import formats
+     */
+    public static ImportFormat fromContentType(String contentType) {
+        if (contentType != null) {
+            MediaType type = MediaType.parseMediaType(contentType);
+            for (ImportFormat format : values()) {
+                if (type.isCompatibleWith(MediaType.parseMediaType(format.mediaType))) {
+                    return format;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Content-Type must be text/csv or application/x-ndjson");
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.todoapi.imports;
+
+import com.example.todoapi.dto.CreateTodoDto;
+
+/**
+ * One record of an upload: the parsed todo, or why it could not be parsed
+ * @param line line of the upload the record starts on, for the rejects report
+ * @param todo the parsed todo; null when rejected
+ * @param raw the record as uploaded, kept for the rejects report
+ * @param error why the record was rejected; null when parsed
+ */
+public record ImportRecord(long line, CreateTodoDto todo, String raw, String error) {
+    
+    public static ImportRecord parsed(long line, CreateTodoDto todo, String raw) {
+        return new ImportRecord(line, todo, raw, null);
+    }
+    
+    public static ImportRecord rejected(long line, String raw, String error) {
+        return new ImportRecord(line, null, raw, error);
+    }
+    
+    public boolean isRejected() {
+        return error != null;
+    }
+    
+    public ImportRecord reject(String reason) {
+        return rejected(line, raw, reason);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.todoapi.imports;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads an upload one record at a time, so memory use does not depend on its size.
+ * Malformed records come back rejected rather than failing the upload; only an unreadable
+ * stream (or a CSV header without a title column) does.
+ */
+public interface ImportRecordReader extends Closeable {
+    
+    /**
+     * @return the next record, or null at the end of the upload
+     * @throws IOException if the upload cannot be read
+     */
+    ImportRecord next() throws IOException;
+    
+    static ImportRecordReader open(ImportFormat format, InputStream input, ObjectMapper objectMapper) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 64 * 1024);
+        return switch (format) {
+            case CSV -> new CsvRecordReader(reader);
+            case NDJSON -> new NdjsonRecordReader(reader, objectMapper);
+        };
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.todoapi.imports;
+
+import com.example.todoapi.dto.CreateTodoDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+final class NdjsonRecordReader implements ImportRecordReader {
+    
+    private final BufferedReader reader;
+    
+    private final ObjectReader todoReader;
+    
+    private long line;
+    
+    NdjsonRecordReader(BufferedReader reader, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.todoReader = objectMapper.readerFor(CreateTodoDto.class);
+    }
+    
+    @Override
+    public ImportRecord next() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            line++;
+            if (text == null) {
+                return null;
+            }
+        } while (text.isBlank());
+        
+        try {
+            return ImportRecord.parsed(line, todoReader.readValue(text), text);
+        } catch (JsonProcessingException e) {
+            return ImportRecord.rejected(line, text, "Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.todoapi.metrics;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps every DataSource bean in a datasource-proxy that reports to {@link SqlMetricsListener}.
+ * The proxy delegates unwrap(), so pool metrics still find the underlying HikariDataSource.
+ */
+public class DataSourceMetricsPostProcessor implements BeanPostProcessor {
+    
+    private final SqlMetricsListener listener;
+    
+    public DataSourceMetricsPostProcessor(SqlMetricsListener listener) {
+        this.listener = listener;
+    }
+    
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+            return ProxyDataSourceBuilder.create(dataSource)
+                    .name(beanName)
+                    .listener(listener)
+                    .build();
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.todoapi.metrics;
+
+/**
+ * Per-request count of JDBC statements, bound to the request thread by {@link QueryCountFilter}
+ * and incremented by {@link SqlMetricsListener}. Statements run outside a request are not counted.
+ */
+final class RequestQueryCounter {
+    
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+    
+    private RequestQueryCounter() {}
+    
+    static void start() {
+        COUNT.set(new int[1]);
+    }
+    
+    static void add(int statements) {
+        int[] count = COUNT.get();
+        if (count != null) {
+            count[0] += statements;
+        }
+    }
+    
+    static int stop() {
+        int[] count = COUNT.get();
+        COUNT.remove();
+        return count != null ? count[0] : 0;
+    }
+}
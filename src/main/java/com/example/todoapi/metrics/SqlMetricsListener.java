@@ -0,0 +1,76 @@
+package com.example.todoapi.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts statements for {@link RequestQueryCounter} and logs a sample of slow statements
+ * as key=value lines on the com.example.todoapi.sql.slow logger. Replaces Hibernate's
+ * show-sql, which printed every statement to stdout. Also keeps process-wide totals,
+ * background work included, as the todo.db.statements and todo.db.executions counters.
+ */
+public class SqlMetricsListener implements QueryExecutionListener, MeterBinder {
+    
+    private static final Logger slowQueryLog = LoggerFactory.getLogger("com.example.todoapi.sql.slow");
+    private static final int MAX_LOGGED_SQL_LENGTH = 1000;
+    
+    private final long thresholdMillis;
+    
+    private final double sampleRate;
+    
+    private final LongAdder statements = new LongAdder();
+    
+    private final LongAdder executions = new LongAdder();
+    
+    public SqlMetricsListener(Duration threshold, double sampleRate) {
+        this.thresholdMillis = threshold.toMillis();
+        this.sampleRate = sampleRate;
+    }
+    
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+    
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        int count = execInfo.isBatch() ? Math.max(execInfo.getBatchSize(), 1) : 1;
+        RequestQueryCounter.add(count);
+        statements.add(count);
+        executions.increment();
+        
+        if (execInfo.getElapsedTime() < thresholdMillis || !slowQueryLog.isWarnEnabled()) {
+            return;
+        }
+        if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        String sql = queryInfoList.isEmpty() ? "" : queryInfoList.get(0).getQuery();
+        if (sql.length() > MAX_LOGGED_SQL_LENGTH) {
+            sql = sql.substring(0, MAX_LOGGED_SQL_LENGTH) + "...";
+        }
+        slowQueryLog.warn("event=slow_query elapsed_ms={} threshold_ms={} success={} batch={} batch_size={} statements={} sql=\"{}\"",
+                execInfo.getElapsedTime(), thresholdMillis, execInfo.isSuccess(), execInfo.isBatch(),
+                execInfo.getBatchSize(), queryInfoList.size(), sql.replace('"', '\'').replaceAll("\\s+", " "));
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("todo.db.statements", statements, LongAdder::sum)
+                .description("JDBC statements executed; each statement of a batch counts")
+                .register(registry);
+        FunctionCounter.builder("todo.db.executions", executions, LongAdder::sum)
+                .description("JDBC executions, i.e. round trips; a batch counts once")
+                .register(registry);
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.todoapi.reminder;
+
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel (Varghese and Lauck): timeouts are hashed by their deadline tick into
+ * a ring of buckets, so scheduling and cancelling are O(1) and each tick only visits one
+ * bucket. Deadlines further out than one revolution wait out the extra rounds in place.
+ * <p>
+ * Time is passed in by the caller, which keeps the wheel deterministic and cheap to
+ * benchmark. Not thread-safe; the owner serializes access.
+ * @param <T> what a timeout carries
+ */
+public final class HashedTimingWheel<T> {
+    
+    public static final class Timeout<T> {
+        
+        private final T payload;
+        
+        private final long deadlineMillis;
+        
+        private long remainingRounds;
+        
+        private Timeout<T> prev;
+        
+        private Timeout<T> next;
+        
+        private Bucket<T> bucket;
+        
+        private Timeout(T payload, long deadlineMillis) {
+            this.payload = payload;
+            this.deadlineMillis = deadlineMillis;
+        }
+        
+        public T getPayload() {
+            return payload;
+        }
+        
+        public long getDeadlineMillis() {
+            return deadlineMillis;
+        }
+        
+        /**
+         * @return whether the timeout is still waiting, i.e. neither expired nor cancelled
+         */
+        public boolean isPending() {
+            return bucket != null;
+        }
+    }
+    
+    private static final class Bucket<T> {
+        
+        private Timeout<T> head;
+        
+        private Timeout<T> tail;
+        
+        private void add(Timeout<T> timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+            }
+            tail = timeout;
+        }
+        
+        private void remove(Timeout<T> timeout) {
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            } else {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+    
+    private final long tickMillis;
+    
+    private final long startMillis;
+    
+    private final Bucket<T>[] buckets;
+    
+    private final int mask;
+    
+    // Next tick to process; tick t holds deadlines in (start + (t-1) * tickMillis, start + t * tickMillis]
+    private long tick = 1;
+    
+    private int size;
+    
+    /**
+     * @param tickMillis resolution; a timeout fires up to this late
+     * @param wheelSize buckets, rounded up to a power of two
+     * @param startMillis the current time
+     */
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("tickMillis and wheelSize must be positive");
+        }
+        int ringSize = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        this.buckets = new Bucket[ringSize];
+        for (int i = 0; i < ringSize; i++) {
+            buckets[i] = new Bucket<>();
+        }
+        this.mask = ringSize - 1;
+    }
+    
+    /**
+     * Schedule a timeout; one whose deadline has passed fires on the next tick processed
+     * @return handle for {@link #cancel}
+     */
+    public Timeout<T> schedule(T payload, long deadlineMillis) {
+        Timeout<T> timeout = new Timeout<>(payload, deadlineMillis);
+        long deadlineTick = Math.max(tick, Math.floorDiv(deadlineMillis - startMillis + tickMillis - 1, tickMillis));
+        timeout.remainingRounds = (deadlineTick - tick) / buckets.length;
+        buckets[(int) (deadlineTick & mask)].add(timeout);
+        size++;
+        return timeout;
+    }
+    
+    /**
+     * @return true if the timeout was pending and will now never fire
+     */
+    public boolean cancel(Timeout<T> timeout) {
+        if (timeout.bucket == null) {
+            return false;
+        }
+        timeout.bucket.remove(timeout);
+        size--;
+        return true;
+    }
+    
+    /**
+     * Process every tick that has ended by nowMillis, handing expired payloads to the consumer
+     * @return number of timeouts expired
+     */
+    public int advanceTo(long nowMillis, Consumer<? super T> expired) {
+        int fired = 0;
+        while (startMillis + tick * tickMillis <= nowMillis) {
+            Bucket<T> bucket = buckets[(int) (tick & mask)];
+            Timeout<T> timeout = bucket.head;
+            while (timeout != null) {
+                Timeout<T> next = timeout.next;
+                if (timeout.remainingRounds <= 0) {
+                    bucket.remove(timeout);
+                    size--;
+                    fired++;
+                    expired.accept(timeout.payload);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+            tick++;
+        }
+        return fired;
+    }
+    
+    /**
+     * @return time the next tick ends, after which {@link #advanceTo} has work to do
+     */
+    public long nextTickMillis() {
+        return startMillis + tick * tickMillis;
+    }
+    
+    public int size() {
+        return size;
+    }
+}
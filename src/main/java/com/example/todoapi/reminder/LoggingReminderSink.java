@@ -0,0 +1,22 @@
+package com.example.todoapi.reminder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes reminders to the log; the default sink until a real notification channel exists
+ */
+@Component
+@ConditionalOnProperty(name = "app.reminders.sink", havingValue = "log", matchIfMissing = true)
+public class LoggingReminderSink implements ReminderSink {
+    
+    private static final Logger log = LoggerFactory.getLogger(LoggingReminderSink.class);
+    
+    @Override
+    public void remind(Reminder reminder) {
+        log.info("Todo {} of {} {} at {}: {}", reminder.todoId(), reminder.ownerId(),
+                reminder.kind() == Reminder.Kind.DUE ? "due" : "reminder", reminder.at(), reminder.title());
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.todoapi.reminder;
+
+import java.time.LocalDateTime;
+
+/**
+ * A notification that a todo has reached its reminder time or due date
+ * @param kind which of the two
+ * @param todoId the todo ID
+ * @param ownerId owner of the todo, who is to be notified
+ * @param title the todo's title when the reminder fired
+ * @param at the reminder time or due date that was reached
+ */
+public record Reminder(Kind kind, Long todoId, String ownerId, String title, LocalDateTime at) {
+    
+    public enum Kind {
+        REMIND, DUE
+    }
+}
@@ -0,0 +1,325 @@
+package com.example.todoapi.reminder;
+
+import com.example.todoapi.datasource.ReadRouting;
+import com.example.todoapi.entity.Todo;
+import com.example.todoapi.event.TodoChangedEvent;
+import com.example.todoapi.repository.TodoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Fires todo reminders (remindAt) and due notifications (dueAt) to the {@link ReminderSink}.
+ * <p>
+ * Only the upcoming window is held in memory, in a {@link HashedTimingWheel}: a periodic load
+ * reads open todos with a time inside the window, in keyset batches, up to a cap on the
+ * number of timers. If the cap is hit the window ends at the last time loaded, and the rest
+ * waits for a later load. Committed writes through this instance cancel or reschedule their
+ * timers at once; writes made by other instances are picked up by the next load.
+ * <p>
+ * A timer that fires is checked against the table before delivery, so one made stale by a
+ * concurrent or remote write is dropped instead of delivered. A write that sets a time already
+ * past, or leaves a fired one unchanged, schedules nothing, so edits never repeat a reminder.
+ * <p>
+ * Every instance loads and fires every reminder: with several instances running, the sink gets
+ * one copy per instance. Run reminders on one of them (app.reminders.enabled) or make the sink
+ * idempotent on (kind, todoId, at).
+ */
+@Component
+@ConditionalOnProperty(name = "app.reminders.enabled", havingValue = "true", matchIfMissing = true)
+public class ReminderScheduler implements SmartLifecycle {
+    
+    private static final Logger log = LoggerFactory.getLogger(ReminderScheduler.class);
+    
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+    
+    private record TimerKey(Reminder.Kind kind, Long todoId) {}
+    
+    private record Timer(TimerKey key, LocalDateTime at) {}
+    
+    private final TodoRepository todoRepository;
+    
+    private final ReminderSink sink;
+    
+    private final TaskExecutor taskExecutor;
+    
+    private final Duration tick;
+    
+    private final int wheelSize;
+    
+    private final Duration window;
+    
+    private final Duration catchUp;
+    
+    private final int batchSize;
+    
+    private final int maxTimers;
+    
+    private final Counter fired;
+    
+    private final Counter dropped;
+    
+    // Guards the wheel, the timers and the horizon
+    private final Object lock = new Object();
+    
+    private HashedTimingWheel<Timer> wheel;
+    
+    private final Map<TimerKey, HashedTimingWheel.Timeout<Timer>> timers = new HashMap<>();
+    
+    // Every timer up to here has been loaded; later ones wait for a load unless a write brings them in
+    private LocalDateTime horizon = LocalDateTime.MIN;
+    
+    private boolean loaded;
+    
+    private volatile boolean running;
+    
+    private Thread ticker;
+    
+    @Autowired
+    public ReminderScheduler(TodoRepository todoRepository, ReminderSink sink,
+                             @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.reminders.tick:1s}") Duration tick,
+                             @Value("${app.reminders.wheel-size:512}") int wheelSize,
+                             @Value("${app.reminders.window:10m}") Duration window,
+                             @Value("${app.reminders.catch-up:5m}") Duration catchUp,
+                             @Value("${app.reminders.batch-size:1000}") int batchSize,
+                             @Value("${app.reminders.max-timers:100000}") int maxTimers) {
+        this.todoRepository = todoRepository;
+        this.sink = sink;
+        this.taskExecutor = taskExecutor;
+        this.tick = tick;
+        this.wheelSize = wheelSize;
+        this.window = window;
+        this.catchUp = catchUp;
+        this.batchSize = batchSize;
+        this.maxTimers = maxTimers;
+        this.fired = Counter.builder("todo.reminders.fired")
+                .description("Reminders and due notifications delivered to the sink")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("todo.reminders.dropped")
+                .description("Timers that fired but no longer matched the todo")
+                .register(meterRegistry);
+        Gauge.builder("todo.reminders.scheduled", this, ReminderScheduler::scheduledCount)
+                .description("Timers currently held in the timing wheel")
+                .register(meterRegistry);
+    }
+    
+    @Override
+    public void start() {
+        synchronized (lock) {
+            wheel = new HashedTimingWheel<>(tick.toMillis(), wheelSize, System.currentTimeMillis());
+        }
+        running = true;
+        ticker = new Thread(this::runTicker, "todo-reminders");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+    
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = ticker;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(tick.toMillis() * 2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    /**
+     * Load the timers of the upcoming window. The first load also picks up what came due
+     * during the catch-up period before startup, and a load after a capped one starts where
+     * that stopped, so what came due in between fires late rather than never.
+     */
+    @Scheduled(fixedDelayString = "${app.reminders.load-interval:PT1M}")
+    public void load() {
+        if (!running) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime from;
+        synchronized (lock) {
+            // After a capped load, pick up from where it stopped, even if that is now past
+            from = !loaded ? now.minus(catchUp) : horizon.isBefore(now) ? horizon : now;
+        }
+        LocalDateTime until = now.plus(window);
+        LocalDateTime reached = until;
+        for (Reminder.Kind kind : Reminder.Kind.values()) {
+            LocalDateTime kindReached = load(kind, from, until);
+            if (kindReached.isBefore(reached)) {
+                reached = kindReached;
+            }
+        }
+        synchronized (lock) {
+            horizon = reached;
+        }
+        loaded = true;
+        if (reached.isBefore(until)) {
+            log.warn("Reminder timers capped at {}; loaded up to {} instead of {}", maxTimers, reached, until);
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodoChanged(TodoChangedEvent event) {
+        if (!running) {
+            return;
+        }
+        Todo todo = event.todo();
+        boolean inactive = event.type() == TodoChangedEvent.Type.DELETED || Boolean.TRUE.equals(todo.getCompleted());
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (lock) {
+            for (Reminder.Kind kind : Reminder.Kind.values()) {
+                TimerKey key = new TimerKey(kind, event.id());
+                LocalDateTime at = inactive ? null : timeOf(kind, todo);
+                HashedTimingWheel.Timeout<Timer> existing = timers.get(key);
+                if (existing != null && existing.getPayload().at().equals(at)) {
+                    // Unchanged, e.g. a title edit: keep the timer, even if due within the current tick
+                    continue;
+                }
+                if (at == null || !at.isAfter(now)) {
+                    // Gone, or set to a time already past: a fired reminder is not sent again
+                    if (existing != null) {
+                        timers.remove(key);
+                        wheel.cancel(existing);
+                    }
+                } else if (existing != null || !at.isAfter(horizon)) {
+                    if (!schedule(key, at)) {
+                        // No room: leave it, and everything after it, to the next load
+                        horizon = at.minusNanos(1000);
+                    }
+                }
+            }
+        }
+    }
+    
+    private LocalDateTime load(Reminder.Kind kind, LocalDateTime from, LocalDateTime until) {
+        LocalDateTime afterAt = from;
+        long afterId = 0;
+        while (true) {
+            List<Todo> batch = kind == Reminder.Kind.REMIND
+                    ? todoRepository.findRemindersAfter(afterAt, afterId, until, Limit.of(batchSize))
+                    : todoRepository.findDueAfter(afterAt, afterId, until, Limit.of(batchSize));
+            synchronized (lock) {
+                for (Todo todo : batch) {
+                    LocalDateTime at = timeOf(kind, todo);
+                    if (!schedule(new TimerKey(kind, todo.getId()), at)) {
+                        return at.minusNanos(1000);
+                    }
+                }
+            }
+            if (batch.size() < batchSize) {
+                return until;
+            }
+            Todo last = batch.get(batch.size() - 1);
+            afterAt = timeOf(kind, last);
+            afterId = last.getId();
+        }
+    }
+    
+    /**
+     * Add or move a timer; caller holds the lock
+     * @return false if it is new and the wheel is full
+     */
+    private boolean schedule(TimerKey key, LocalDateTime at) {
+        HashedTimingWheel.Timeout<Timer> existing = timers.get(key);
+        if (existing != null) {
+            if (existing.getPayload().at().equals(at)) {
+                return true;
+            }
+            wheel.cancel(existing);
+        } else if (timers.size() >= maxTimers) {
+            return false;
+        }
+        timers.put(key, wheel.schedule(new Timer(key, at), at.atZone(ZONE).toInstant().toEpochMilli()));
+        return true;
+    }
+    
+    private void runTicker() {
+        List<Timer> expired = new ArrayList<>();
+        while (running) {
+            long sleepMillis;
+            synchronized (lock) {
+                wheel.advanceTo(System.currentTimeMillis(), timer -> {
+                    timers.remove(timer.key());
+                    expired.add(timer);
+                });
+                sleepMillis = wheel.nextTickMillis() - System.currentTimeMillis();
+            }
+            if (!expired.isEmpty()) {
+                List<Timer> due = List.copyOf(expired);
+                expired.clear();
+                taskExecutor.execute(() -> deliver(due));
+            }
+            try {
+                Thread.sleep(Math.max(1, sleepMillis));
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+    
+    private void deliver(List<Timer> due) {
+        for (int i = 0; i < due.size(); i += batchSize) {
+            List<Timer> chunk = due.subList(i, Math.min(due.size(), i + batchSize));
+            List<Long> ids = chunk.stream().map(timer -> timer.key().todoId()).distinct().toList();
+            // A replica may not have the write that set this time yet
+            Map<Long, Todo> current = ReadRouting.onPrimary(() -> todoRepository.findAllById(ids)).stream()
+                    .collect(Collectors.toMap(Todo::getId, Function.identity()));
+            for (Timer timer : chunk) {
+                Reminder.Kind kind = timer.key().kind();
+                Todo todo = current.get(timer.key().todoId());
+                if (todo == null || Boolean.TRUE.equals(todo.getCompleted()) || !timer.at().equals(timeOf(kind, todo))) {
+                    dropped.increment();
+                    continue;
+                }
+                try {
+                    sink.remind(new Reminder(kind, todo.getId(), todo.getOwnerId(), todo.getTitle(), timer.at()));
+                    fired.increment();
+                } catch (RuntimeException e) {
+                    log.warn("Reminder sink failed for todo {}", todo.getId(), e);
+                }
+            }
+        }
+    }
+    
+    private int scheduledCount() {
+        synchronized (lock) {
+            return timers.size();
+        }
+    }
+    
+    private static LocalDateTime timeOf(Reminder.Kind kind, Todo todo) {
+        return kind == Reminder.Kind.REMIND ? todo.getRemindAt() : todo.getDueAt();
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.todoapi.reminder;
+
+/**
+ * Receives fired reminders, on a task executor thread. A reminder can be delivered more than
+ * once (a restart inside the catch-up window, or several instances), so a sink should
+ * treat (kind, todoId, at) as an idempotency key.
+ */
+public interface ReminderSink {
+    
+    void remind(Reminder reminder);
+}
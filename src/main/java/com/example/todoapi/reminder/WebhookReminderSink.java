@@ -0,0 +1,67 @@
+package com.example.todoapi.reminder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * POSTs each reminder as JSON to a webhook. Failures are logged and not retried; the
+ * receiver is expected to be a queue or notification service that stays available.
+ */
+@Component
+@ConditionalOnProperty(name = "app.reminders.sink", havingValue = "webhook")
+public class WebhookReminderSink implements ReminderSink {
+    
+    private static final Logger log = LoggerFactory.getLogger(WebhookReminderSink.class);
+    
+    private final ObjectMapper objectMapper;
+    
+    private final URI url;
+    
+    private final Duration timeout;
+    
+    private final HttpClient httpClient;
+    
+    @Autowired
+    public WebhookReminderSink(ObjectMapper objectMapper,
+                               @Value("${app.reminders.webhook.url}") URI url,
+                               @Value("${app.reminders.webhook.timeout:5s}") Duration timeout) {
+        this.objectMapper = objectMapper;
+        this.url = url;
+        this.timeout = timeout;
+        this.httpClient = HttpClient.newBuilder().connectTimeout(timeout).build();
+    }
+    
+    @Override
+    public void remind(Reminder reminder) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(url)
+                    .timeout(timeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(reminder)))
+                    .build();
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() >= 300) {
+                log.warn("Reminder webhook answered {} for todo {}", response.statusCode(), reminder.todoId());
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        } catch (IOException e) {
+            log.warn("Reminder webhook failed for todo {}: {}", reminder.todoId(), e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
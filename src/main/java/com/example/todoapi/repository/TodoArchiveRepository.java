@@ -0,0 +1,60 @@
+package com.example.todoapi.repository;
+
+import com.example.todoapi.dto.TodoView;
+import com.example.todoapi.entity.ArchivedTodo;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TodoArchiveRepository extends JpaRepository<ArchivedTodo, Long> {
+    
+    // Columns shared by todos and todos_archive (todos' search_vector is not archived)
+    String COLUMNS = "id, owner_id, title, description, completed, completed_at, due_at, remind_at, created_at, updated_at, version";
+    
+    /**
+     * A todo moved by {@link #archiveCompletedBefore}
+     */
+    interface ArchivedId {
+        Long getId();
+        
+        String getOwnerId();
+    }
+    
+    @Query("SELECT " + TodoRepository.TODO_VIEW + " FROM ArchivedTodo t WHERE t.id = :id AND t.ownerId = :ownerId")
+    Optional<TodoView> findViewById(@Param("id") Long id, @Param("ownerId") String ownerId);
+    
+    /**
+     * Move up to limit todos completed before cutoff from todos to todos_archive, oldest
+     * completion first. Rows locked by a concurrent write are left for a later run. Must run
+     * in a read-write transaction: the query is a SELECT over data-modifying CTEs.
+     * @return the todos moved
+     */
+    @Query(value = "WITH batch AS (SELECT id, created_at FROM todos WHERE completed AND completed_at < :cutoff "
+            + "ORDER BY completed_at LIMIT :limit FOR UPDATE SKIP LOCKED), "
+            + "moved AS (DELETE FROM todos t USING batch b WHERE t.id = b.id AND t.created_at = b.created_at "
+            + "RETURNING t.*), "
+            + "archived AS (INSERT INTO todos_archive (" + COLUMNS + ", archived_at) SELECT " + COLUMNS
+            + ", :now FROM moved RETURNING id, owner_id) "
+            + "SELECT id, owner_id AS ownerId FROM archived", nativeQuery = true)
+    List<ArchivedId> archiveCompletedBefore(@Param("cutoff") LocalDateTime cutoff,
+                               @Param("now") LocalDateTime now,
+                               @Param("limit") int limit);
+    
+    /**
+     * Move one owner's archived todos back to todos, unchanged, so they can be written to
+     * @return number of todos moved; IDs that are not archived or belong to another owner are skipped
+     */
+    @Modifying
+    @Query(value = "WITH restored AS (DELETE FROM todos_archive WHERE id IN (:ids) AND owner_id = :ownerId "
+            + "RETURNING *) "
+            + "INSERT INTO todos (" + COLUMNS + ") SELECT " + COLUMNS + " FROM restored", nativeQuery = true)
+    int restore(@Param("ids") Collection<Long> ids, @Param("ownerId") String ownerId);
+}
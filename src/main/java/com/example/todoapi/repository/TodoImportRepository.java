@@ -0,0 +1,69 @@
+package com.example.todoapi.repository;
+
+import com.example.todoapi.entity.TodoImport;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TodoImportRepository extends JpaRepository<TodoImport, String> {
+    
+    /**
+     * A rejected record of an import
+     */
+    interface Reject {
+        long getLine();
+        
+        String getReason();
+        
+        String getContent();
+    }
+    
+    Optional<TodoImport> findByIdAndOwnerId(String id, String ownerId);
+    
+    /**
+     * Record a committed chunk, provided no other upload of the same import got there first
+     * @return 1 if progress was at recordsFrom, 0 otherwise
+     */
+    @Modifying
+    @Query("UPDATE TodoImport i SET i.recordsConsumed = :recordsTo, "
+            + "i.rowsImported = i.rowsImported + :imported, i.rowsRejected = i.rowsRejected + :rejected, "
+            + "i.status = com.example.todoapi.entity.TodoImport.Status.RUNNING, i.error = null, i.updatedAt = :now "
+            + "WHERE i.id = :id AND i.recordsConsumed = :recordsFrom AND i.status <> com.example.todoapi.entity.TodoImport.Status.COMPLETED")
+    int advance(@Param("id") String id,
+                @Param("recordsFrom") long recordsFrom,
+                @Param("recordsTo") long recordsTo,
+                @Param("imported") long imported,
+                @Param("rejected") long rejected,
+                @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("UPDATE TodoImport i SET i.status = :status, i.error = :error, i.updatedAt = :now "
+            + "WHERE i.id = :id AND i.status <> com.example.todoapi.entity.TodoImport.Status.COMPLETED")
+    int finish(@Param("id") String id,
+               @Param("status") TodoImport.Status status,
+               @Param("error") String error,
+               @Param("now") LocalDateTime now);
+    
+    /**
+     * Reserve blocks of todo ids the way Hibernate's pooled optimizer does: each sequence value
+     * is the highest id of a block of the sequence increment
+     */
+    @Query(value = "SELECT nextval('todos_id_seq') FROM generate_series(1, :blocks)", nativeQuery = true)
+    List<Long> reserveIdBlocks(@Param("blocks") int blocks);
+    
+    /**
+     * Rejected records of one owner's import after a line, in upload order
+     */
+    @Query(value = "SELECT r.line, r.reason, r.content FROM todo_import_rejects r "
+            + "JOIN todo_imports i ON i.id = r.import_id AND i.owner_id = :ownerId "
+            + "WHERE r.import_id = :id AND r.line > :afterLine ORDER BY r.line LIMIT :limit", nativeQuery = true)
+    List<Reject> findRejects(@Param("id") String id, @Param("ownerId") String ownerId,
+                             @Param("afterLine") long afterLine, @Param("limit") int limit);
+}
@@ -1,10 +1,181 @@
 package com.example.todoapi.repository;
 
+import com.example.todoapi.dto.TodoView;
 import com.example.todoapi.entity.Todo;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Queries used by the API take the caller's ownerId and only see that owner's todos; the
+ * owner-first indexes keep them proportional to one user's data. The reminder queries and
+ * {@link #findViewsAfterIdForAllOwners} are for system jobs and span every owner.
+ */
 @Repository
-public interface TodoRepository extends JpaRepository<Todo, Long> {
+public interface TodoRepository extends JpaRepository<Todo, Long>, TodoRepositoryCustom {
+    
+    int EXPORT_FETCH_SIZE = 500;
+    
+    /**
+     * Totals for stats reconciliation
+     */
+    interface TodoCounts {
+        long getTotal();
+        
+        long getCompleted();
+    }
+    
+    /**
+     * Count of todos per calendar day, day formatted as yyyy-MM-dd
+     */
+    interface DailyCount {
+        String getDay();
+        
+        long getCount();
+    }
+    
+    // Selects a TodoView instead of a managed entity; JPQL over alias t
+    String TODO_VIEW = "new com.example.todoapi.dto.TodoView(t.id, t.ownerId, t.title, t.description, t.completed, "
+            + "t.completedAt, t.dueAt, t.remindAt, t.createdAt, t.updatedAt, t.version)";
+    
+    // In SET, "completed" is the pre-toggle value: stamp completions, keep the last one otherwise
+    String SET_COMPLETED_AT = "completed_at = CASE WHEN completed THEN completed_at ELSE :now END";
+    
+    // Data-modifying CTE over a "deleted" CTE; Postgres runs it even though the outer SELECT ignores it
+    String INSERT_TOMBSTONE = "tombstone AS (INSERT INTO todo_tombstones (todo_id, owner_id, deleted_at) "
+            + "SELECT id, owner_id, :now FROM deleted) ";
+    
+    Optional<Todo> findByIdAndOwnerId(Long id, String ownerId);
+    
+    /**
+     * The given todos of one owner, in no particular order; missing IDs are skipped
+     */
+    List<Todo> findAllByIdInAndOwnerId(Collection<Long> ids, String ownerId);
+    
+    boolean existsByIdAndOwnerId(Long id, String ownerId);
+    
+    @Query("SELECT " + TODO_VIEW + " FROM Todo t WHERE t.id = :id AND t.ownerId = :ownerId")
+    Optional<TodoView> findViewById(@Param("id") Long id, @Param("ownerId") String ownerId);
+    
+    /**
+     * Views of the given todos of one owner, in no particular order; missing IDs are skipped
+     */
+    @Query("SELECT " + TODO_VIEW + " FROM Todo t WHERE t.id IN :ids AND t.ownerId = :ownerId")
+    List<TodoView> findViewsByIdIn(@Param("ids") Collection<Long> ids, @Param("ownerId") String ownerId);
+    
+    /**
+     * Views of every owner's todos in id order, for rebuilding derived state such as the in-memory search index
+     */
+    @Query("SELECT " + TODO_VIEW + " FROM Todo t WHERE t.id > :afterId ORDER BY t.id")
+    List<TodoView> findViewsAfterIdForAllOwners(@Param("afterId") Long afterId, Limit limit);
+    
+    /**
+     * Stream one owner's todo views in id order using a server-side cursor. Must be consumed inside a
+     * transaction, otherwise the Postgres driver ignores the fetch size and buffers every row.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE))
+    @Query("SELECT " + TODO_VIEW + " FROM Todo t WHERE t.ownerId = :ownerId AND t.id > :afterId ORDER BY t.id")
+    Stream<TodoView> streamViewsAfterId(@Param("ownerId") String ownerId, @Param("afterId") Long afterId);
+    
+    /**
+     * Flip completed in a single statement and return the updated row, so concurrent
+     * toggles never read-modify-write a stale value. updatedAt is passed in rather than
+     * using now() so it comes from the same clock as @UpdateTimestamp.
+     */
+    @Query(value = "UPDATE todos SET completed = NOT completed, " + SET_COMPLETED_AT
+            + ", updated_at = :now, version = version + 1 WHERE id = :id AND owner_id = :ownerId RETURNING *",
+            nativeQuery = true)
+    Optional<Todo> toggleCompleted(@Param("id") Long id, @Param("ownerId") String ownerId,
+                                   @Param("now") LocalDateTime now);
+    
+    /**
+     * Conditional variant of {@link #toggleCompleted}; matches nothing unless the row is still at the given version
+     */
+    @Query(value = "UPDATE todos SET completed = NOT completed, " + SET_COMPLETED_AT
+            + ", updated_at = :now, version = version + 1 "
+            + "WHERE id = :id AND owner_id = :ownerId AND version = :version RETURNING *", nativeQuery = true)
+    Optional<Todo> toggleCompletedIfVersion(@Param("id") Long id, @Param("ownerId") String ownerId,
+                                            @Param("version") Long version, @Param("now") LocalDateTime now);
+    
+    /**
+     * Delete in a single statement without loading the entity first, leaving a tombstone
+     * for the change feed in the same statement
+     * @return the deleted row, empty if the todo does not exist
+     */
+    @Query(value = "WITH deleted AS (DELETE FROM todos WHERE id = :id AND owner_id = :ownerId RETURNING *), "
+            + INSERT_TOMBSTONE + "SELECT * FROM deleted", nativeQuery = true)
+    Optional<Todo> deleteTodoById(@Param("id") Long id, @Param("ownerId") String ownerId,
+                                  @Param("now") LocalDateTime now);
+    
+    /**
+     * Conditional variant of {@link #deleteTodoById}
+     * @return the deleted row, empty if the todo does not exist or is at another version
+     */
+    @Query(value = "WITH deleted AS (DELETE FROM todos "
+            + "WHERE id = :id AND owner_id = :ownerId AND version = :version RETURNING *), "
+            + INSERT_TOMBSTONE + "SELECT * FROM deleted", nativeQuery = true)
+    Optional<Todo> deleteTodoByIdAndVersion(@Param("id") Long id, @Param("ownerId") String ownerId,
+                                            @Param("version") Long version, @Param("now") LocalDateTime now);
+    
+    /**
+     * Todos updated after the (updatedAt, id) keyset position and no later than until, for the change feed
+     */
+    @Query("SELECT " + TODO_VIEW + " FROM Todo t WHERE t.ownerId = :ownerId "
+            + "AND (t.updatedAt > :afterUpdatedAt OR (t.updatedAt = :afterUpdatedAt AND t.id > :afterId)) "
+            + "AND t.updatedAt <= :until ORDER BY t.updatedAt ASC, t.id ASC")
+    List<TodoView> findUpdatedAfter(@Param("ownerId") String ownerId,
+                                    @Param("afterUpdatedAt") LocalDateTime afterUpdatedAt,
+                                    @Param("afterId") Long afterId,
+                                    @Param("until") LocalDateTime until,
+                                    Limit limit);
+    
+    /**
+     * Open todos with a reminder after the (remindAt, id) keyset position and no later than until
+     */
+    @Query("SELECT t FROM Todo t WHERE t.completed = false "
+            + "AND (t.remindAt > :afterAt OR (t.remindAt = :afterAt AND t.id > :afterId)) "
+            + "AND t.remindAt <= :until ORDER BY t.remindAt ASC, t.id ASC")
+    List<Todo> findRemindersAfter(@Param("afterAt") LocalDateTime afterAt,
+                                  @Param("afterId") Long afterId,
+                                  @Param("until") LocalDateTime until,
+                                  Limit limit);
+    
+    /**
+     * Open todos falling due after the (dueAt, id) keyset position and no later than until
+     */
+    @Query("SELECT t FROM Todo t WHERE t.completed = false "
+            + "AND (t.dueAt > :afterAt OR (t.dueAt = :afterAt AND t.id > :afterId)) "
+            + "AND t.dueAt <= :until ORDER BY t.dueAt ASC, t.id ASC")
+    List<Todo> findDueAfter(@Param("afterAt") LocalDateTime afterAt,
+                            @Param("afterId") Long afterId,
+                            @Param("until") LocalDateTime until,
+                            Limit limit);
+    
+    /**
+     * One owner's totals over todos and todos_archive; archived todos are all completed
+     */
+    @Query(value = "SELECT h.total + a.archived AS total, h.completed + a.archived AS completed "
+            + "FROM (SELECT count(*) AS total, count(*) FILTER (WHERE completed) AS completed FROM todos "
+            + "WHERE owner_id = :ownerId) h, "
+            + "(SELECT count(*) AS archived FROM todos_archive WHERE owner_id = :ownerId) a", nativeQuery = true)
+    TodoCounts countTotals(@Param("ownerId") String ownerId);
+    
+    @Query(value = "SELECT to_char(created_at, 'YYYY-MM-DD') AS day, count(*) AS count FROM todos "
+            + "WHERE owner_id = :ownerId AND created_at >= :since GROUP BY 1", nativeQuery = true)
+    List<DailyCount> countCreatedPerDay(@Param("ownerId") String ownerId, @Param("since") LocalDateTime since);
+    
+    @Query(value = "SELECT to_char(completed_at, 'YYYY-MM-DD') AS day, count(*) AS count FROM todos "
+            + "WHERE owner_id = :ownerId AND completed AND completed_at >= :since GROUP BY 1", nativeQuery = true)
+    List<DailyCount> countCompletedPerDay(@Param("ownerId") String ownerId, @Param("since") LocalDateTime since);
 }
-
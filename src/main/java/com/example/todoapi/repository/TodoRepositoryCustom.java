@@ -0,0 +1,31 @@
+package com.example.todoapi.repository;
+
+import com.example.todoapi.dto.TodoCursor;
+import com.example.todoapi.dto.TodoView;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface TodoRepositoryCustom {
+    
+    /**
+     * Keyset page of one owner's todo views. Ordered by id, or by (updatedAt, id) when updatedSince is set.
+     * @param ownerId owner of the todos
+     * @param after cursor of the last row of the previous page, or null for the first page
+     * @param completed optional completed filter
+     * @param updatedSince optional lower bound (inclusive) on updatedAt
+     * @param limit maximum number of rows to return
+     * @return at most limit todos following the cursor
+     */
+    List<TodoView> findPage(String ownerId, TodoCursor after, Boolean completed, LocalDateTime updatedSince, int limit);
+    
+    /**
+     * Full-text search of one owner's todos over the generated search_vector column (GIN-indexed), best rank first
+     * @param ownerId owner of the todos
+     * @param tsQuery a to_tsquery expression, e.g. "buy & mil:*"
+     * @param limit maximum number of rows to return
+     * @param offset number of ranked rows to skip
+     * @return matching todo views in rank order
+     */
+    List<TodoView> searchRanked(String ownerId, String tsQuery, int limit, int offset);
+}
@@ -0,0 +1,92 @@
+package com.example.todoapi.repository;
+
+import com.example.todoapi.dto.TodoCursor;
+import com.example.todoapi.dto.TodoView;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.query.NativeQuery;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Hand-written queries that Spring Data cannot derive, mixed into {@link TodoRepository}.
+ */
+public class TodoRepositoryImpl implements TodoRepositoryCustom {
+    
+    private static final String SEARCH_RANKED = "SELECT t.id, t.owner_id, t.title, t.description, t.completed, t.completed_at, "
+            + "t.due_at, t.remind_at, t.created_at, t.updated_at, t.version FROM todos t "
+            + "WHERE t.owner_id = :ownerId AND t.search_vector @@ to_tsquery('english', :tsQuery) "
+            + "ORDER BY ts_rank(t.search_vector, to_tsquery('english', :tsQuery)) DESC, t.id "
+            + "LIMIT :limit OFFSET :offset";
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public List<TodoView> findPage(String ownerId, TodoCursor after, Boolean completed, LocalDateTime updatedSince,
+                                   int limit) {
+        boolean byUpdatedAt = updatedSince != null;
+        StringBuilder jpql = new StringBuilder("SELECT " + TodoRepository.TODO_VIEW
+                + " FROM Todo t WHERE t.ownerId = :ownerId");
+        
+        if (completed != null) {
+            jpql.append(" AND t.completed = :completed");
+        }
+        if (byUpdatedAt) {
+            jpql.append(" AND t.updatedAt >= :updatedSince");
+        }
+        if (after != null) {
+            // Row-value comparison written out so Postgres can use the (owner_id, updated_at, id) index
+            jpql.append(byUpdatedAt
+                    ? " AND (t.updatedAt > :afterUpdatedAt OR (t.updatedAt = :afterUpdatedAt AND t.id > :afterId))"
+                    : " AND t.id > :afterId");
+        }
+        jpql.append(byUpdatedAt ? " ORDER BY t.updatedAt ASC, t.id ASC" : " ORDER BY t.id ASC");
+        
+        TypedQuery<TodoView> query = entityManager.createQuery(jpql.toString(), TodoView.class)
+                .setParameter("ownerId", ownerId);
+        if (completed != null) {
+            query.setParameter("completed", completed);
+        }
+        if (byUpdatedAt) {
+            query.setParameter("updatedSince", updatedSince);
+        }
+        if (after != null) {
+            if (byUpdatedAt) {
+                query.setParameter("afterUpdatedAt", after.getUpdatedAt());
+            }
+            query.setParameter("afterId", after.getId());
+        }
+        return query.setMaxResults(limit).getResultList();
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<TodoView> searchRanked(String ownerId, String tsQuery, int limit, int offset) {
+        // Native SQL has no constructor expressions; scalars typed here and mapped straight to the record
+        return entityManager.createNativeQuery(SEARCH_RANKED)
+                .unwrap(NativeQuery.class)
+                .addScalar("id", Long.class)
+                .addScalar("owner_id", String.class)
+                .addScalar("title", String.class)
+                .addScalar("description", String.class)
+                .addScalar("completed", Boolean.class)
+                .addScalar("completed_at", LocalDateTime.class)
+                .addScalar("due_at", LocalDateTime.class)
+                .addScalar("remind_at", LocalDateTime.class)
+                .addScalar("created_at", LocalDateTime.class)
+                .addScalar("updated_at", LocalDateTime.class)
+                .addScalar("version", Long.class)
+                .setTupleTransformer((tuple, aliases) -> new TodoView((Long) tuple[0], (String) tuple[1],
+                        (String) tuple[2], (String) tuple[3], (Boolean) tuple[4], (LocalDateTime) tuple[5],
+                        (LocalDateTime) tuple[6], (LocalDateTime) tuple[7], (LocalDateTime) tuple[8],
+                        (LocalDateTime) tuple[9], (Long) tuple[10]))
+                .setParameter("ownerId", ownerId)
+                .setParameter("tsQuery", tsQuery)
+                .setParameter("limit", limit)
+                .setParameter("offset", offset)
+                .getResultList();
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.todoapi.repository;
+
+import com.example.todoapi.entity.TodoTombstone;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TodoTombstoneRepository extends JpaRepository<TodoTombstone, Long> {
+    
+    /**
+     * One owner's tombstones after the (deletedAt, todoId) keyset position and no later than until
+     */
+    @Query("SELECT t FROM TodoTombstone t WHERE t.ownerId = :ownerId "
+            + "AND (t.deletedAt > :afterDeletedAt OR (t.deletedAt = :afterDeletedAt AND t.todoId > :afterId)) "
+            + "AND t.deletedAt <= :until ORDER BY t.deletedAt ASC, t.todoId ASC")
+    List<TodoTombstone> findDeletedAfter(@Param("ownerId") String ownerId,
+                                         @Param("afterDeletedAt") LocalDateTime afterDeletedAt,
+                                         @Param("afterId") Long afterId,
+                                         @Param("until") LocalDateTime until,
+                                         Limit limit);
+    
+    @Modifying
+    @Query("DELETE FROM TodoTombstone t WHERE t.deletedAt < :cutoff")
+    int deleteDeletedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
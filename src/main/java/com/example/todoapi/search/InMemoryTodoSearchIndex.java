@@ -0,0 +1,210 @@
+package com.example.todoapi.search;
+
+import com.example.todoapi.dto.TodoView;
+import com.example.todoapi.entity.Todo;
+import com.example.todoapi.event.TodoChangedEvent;
+import com.example.todoapi.event.TodosArchivedEvent;
+import com.example.todoapi.repository.TodoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-process inverted index for tests and embedded runs without Postgres full-text search.
+ * Built from the table at startup and kept current from committed {@link TodoChangedEvent}s
+ * and {@link TodosArchivedEvent}s.
+ * Terms are not stemmed; a title occurrence weighs more than a description occurrence.
+ * One index covers every owner; matches are narrowed to the caller's todos before ranking.
+ */
+@Component
+@ConditionalOnProperty(name = "app.search.engine", havingValue = "memory")
+public class InMemoryTodoSearchIndex implements TodoSearchIndex {
+    
+    private static final Logger log = LoggerFactory.getLogger(InMemoryTodoSearchIndex.class);
+    private static final float TITLE_WEIGHT = 2.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+    private static final int LOAD_BATCH_SIZE = 1000;
+    
+    private final TodoRepository todoRepository;
+    
+    // term -> (todo ID -> weight); sorted so prefix lookups are a range scan
+    private final NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+    
+    // todo ID -> its indexed terms, needed to remove stale postings on update/delete
+    private final Map<Long, Set<String>> documents = new HashMap<>();
+    
+    // todo ID -> owner ID
+    private final Map<Long, String> owners = new HashMap<>();
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    @Autowired
+    public InMemoryTodoSearchIndex(TodoRepository todoRepository) {
+        this.todoRepository = todoRepository;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long indexed = 0;
+        long after = 0;
+        List<TodoView> batch;
+        do {
+            batch = todoRepository.findViewsAfterIdForAllOwners(after, Limit.of(LOAD_BATCH_SIZE));
+            batch.forEach(todo -> index(todo.id(), todo.ownerId(), todo.title(), todo.description()));
+            indexed += batch.size();
+            if (!batch.isEmpty()) {
+                after = batch.get(batch.size() - 1).id();
+            }
+        } while (batch.size() == LOAD_BATCH_SIZE);
+        log.info("In-memory search index built with {} todos and {} terms", indexed, postings.size());
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodoChanged(TodoChangedEvent event) {
+        if (event.type() == TodoChangedEvent.Type.DELETED) {
+            remove(event.id());
+        } else {
+            Todo todo = event.todo();
+            index(todo.getId(), todo.getOwnerId(), todo.getTitle(), todo.getDescription());
+        }
+    }
+    
+    // Search only covers the todos table
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodosArchived(TodosArchivedEvent event) {
+        lock.writeLock().lock();
+        try {
+            event.ids().forEach(this::removeLocked);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public List<TodoView> search(String ownerId, TodoSearchQuery query, int offset, int limit) {
+        List<Long> ranked;
+        lock.readLock().lock();
+        try {
+            ranked = rank(ownerId, query);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (offset >= ranked.size()) {
+            return List.of();
+        }
+        List<Long> pageIds = ranked.subList(offset, Math.min(ranked.size(), offset + limit));
+        Map<Long, TodoView> todos = todoRepository.findViewsByIdIn(pageIds, ownerId).stream()
+                .collect(Collectors.toMap(TodoView::id, Function.identity()));
+        List<TodoView> page = new ArrayList<>(pageIds.size());
+        for (Long id : pageIds) {
+            TodoView todo = todos.get(id);
+            if (todo != null) {
+                page.add(todo);
+            }
+        }
+        return page;
+    }
+    
+    private List<Long> rank(String ownerId, TodoSearchQuery query) {
+        Map<Long, Float> scores = null;
+        List<String> terms = query.getTerms();
+        for (int i = 0; i < terms.size(); i++) {
+            boolean prefix = query.isPrefix() && i == terms.size() - 1;
+            Map<Long, Float> termScores = termScores(terms.get(i), prefix);
+            if (scores == null) {
+                scores = termScores;
+                scores.keySet().removeIf(id -> !ownerId.equals(owners.get(id)));
+            } else {
+                // Every term must match: keep the intersection and sum the weights
+                Map<Long, Float> matches = termScores;
+                scores.keySet().retainAll(matches.keySet());
+                scores.replaceAll((id, score) -> score + matches.get(id));
+            }
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Float>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+    
+    private Map<Long, Float> termScores(String term, boolean prefix) {
+        Map<Long, Float> scores = new HashMap<>();
+        Map<String, Map<Long, Float>> matching = prefix
+                ? postings.subMap(term, true, term + Character.MAX_VALUE, false)
+                : postings.containsKey(term) ? Map.of(term, postings.get(term)) : Map.of();
+        for (Map<Long, Float> posting : matching.values()) {
+            posting.forEach((id, weight) -> scores.merge(id, weight, Math::max));
+        }
+        return scores;
+    }
+    
+    private void index(Long id, String ownerId, String title, String description) {
+        Map<String, Float> weights = new HashMap<>();
+        for (String term : TodoSearchQuery.tokenize(title)) {
+            weights.merge(term, TITLE_WEIGHT, Float::sum);
+        }
+        for (String term : TodoSearchQuery.tokenize(description)) {
+            weights.merge(term, DESCRIPTION_WEIGHT, Float::sum);
+        }
+        
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            weights.forEach((term, weight) ->
+                    postings.computeIfAbsent(term, t -> new HashMap<>()).put(id, weight));
+            documents.put(id, weights.keySet());
+            owners.put(id, ownerId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private void removeLocked(Long id) {
+        owners.remove(id);
+        Set<String> terms = documents.remove(id);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<Long, Float> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(id);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+}
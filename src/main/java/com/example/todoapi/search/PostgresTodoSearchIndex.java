@@ -0,0 +1,30 @@
+package com.example.todoapi.search;
+
+import com.example.todoapi.dto.TodoView;
+import com.example.todoapi.repository.TodoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Search backed by the generated todos.search_vector column and its GIN index.
+ * Postgres maintains the vector itself, so writes need no extra work here.
+ */
+@Component
+@ConditionalOnProperty(name = "app.search.engine", havingValue = "postgres", matchIfMissing = true)
+public class PostgresTodoSearchIndex implements TodoSearchIndex {
+    
+    private final TodoRepository todoRepository;
+    
+    @Autowired
+    public PostgresTodoSearchIndex(TodoRepository todoRepository) {
+        this.todoRepository = todoRepository;
+    }
+    
+    @Override
+    public List<TodoView> search(String ownerId, TodoSearchQuery query, int offset, int limit) {
+        return todoRepository.searchRanked(ownerId, query.toTsQuery(), limit, offset);
+    }
+}
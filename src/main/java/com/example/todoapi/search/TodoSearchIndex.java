@@ -0,0 +1,22 @@
+package com.example.todoapi.search;
+
+import com.example.todoapi.dto.TodoView;
+
+import java.util.List;
+
+/**
+ * Full-text search over todo title and description. Selected with app.search.engine:
+ * "postgres" (default, tsvector + GIN index) or "memory" (in-process inverted index).
+ */
+public interface TodoSearchIndex {
+    
+    /**
+     * Find one owner's todos matching every term, best matches first (title hits outrank description hits)
+     * @param ownerId owner of the todos
+     * @param query the parsed query
+     * @param offset number of ranked results to skip
+     * @param limit maximum number of results
+     * @return matching todos in rank order
+     */
+    List<TodoView> search(String ownerId, TodoSearchQuery query, int offset, int limit);
+}
@@ -0,0 +1,89 @@
+package com.example.todoapi.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A user search string reduced to lower-case word terms. Every term must match;
+ * with prefix matching the last term also matches longer words (type-ahead).
+ */
+public final class TodoSearchQuery {
+    
+    public static final int MAX_TERMS = 10;
+    
+    private final List<String> terms;
+    
+    private final boolean prefix;
+    
+    private TodoSearchQuery(List<String> terms, boolean prefix) {
+        this.terms = terms;
+        this.prefix = prefix;
+    }
+    
+    /**
+     * Parse a raw search string
+     * @param raw text typed by the user
+     * @param prefix whether the last term is a prefix
+     * @return the parsed query
+     * @throws IllegalArgumentException if the text contains no searchable words
+     */
+    public static TodoSearchQuery parse(String raw, boolean prefix) {
+        List<String> terms = tokenize(raw);
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("Search query must contain at least one word");
+        }
+        if (terms.size() > MAX_TERMS) {
+            terms = terms.subList(0, MAX_TERMS);
+        }
+        return new TodoSearchQuery(Collections.unmodifiableList(terms), prefix);
+    }
+    
+    /**
+     * Split text into lower-case runs of letters and digits; everything else is a separator
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+    
+    /**
+     * Render as a Postgres tsquery, e.g. "buy & mil:*". Safe to bind as a to_tsquery
+     * parameter because terms only ever contain letters and digits.
+     */
+    public String toTsQuery() {
+        StringBuilder tsQuery = new StringBuilder();
+        for (int i = 0; i < terms.size(); i++) {
+            if (i > 0) {
+                tsQuery.append(" & ");
+            }
+            tsQuery.append(terms.get(i));
+            if (prefix && i == terms.size() - 1) {
+                tsQuery.append(":*");
+            }
+        }
+        return tsQuery.toString();
+    }
+    
+    public List<String> getTerms() {
+        return terms;
+    }
+    
+    public boolean isPrefix() {
+        return prefix;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.todoapi.security;
+
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Authenticates "Authorization: Bearer &lt;jwt&gt;" requests as the token's subject, which
+ * controllers receive as the owner ID (@AuthenticationPrincipal String). A token that fails
+ * verification is answered with 401 straight away. Requests without a token pass through
+ * unauthenticated, unless an anonymous owner is configured (jwt.required: false), in which
+ * case they act as that owner.
+ * <p>
+ * The subject of a verified token is also left in the {@link #SUBJECT_ATTRIBUTE} request
+ * attribute, so later filters can tell callers apart by something they cannot make up.
+ */
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+    
+    /**
+     * Subject of the request's verified token; absent for requests without one, anonymous or not
+     */
+    public static final String SUBJECT_ATTRIBUTE = JwtAuthenticationFilter.class.getName() + ".subject";
+    
+    private static final String BEARER_PREFIX = "Bearer ";
+    
+    private final JwtTokenVerifier verifier;
+    
+    private final String anonymousOwner;
+    
+    /**
+     * @param anonymousOwner owner of requests without a token, or null to leave them unauthenticated
+     */
+    public JwtAuthenticationFilter(JwtTokenVerifier verifier, String anonymousOwner) {
+        this.verifier = verifier;
+        this.anonymousOwner = anonymousOwner;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            if (anonymousOwner != null) {
+                authenticate(anonymousOwner);
+            }
+            filterChain.doFilter(request, response);
+            return;
+        }
+        
+        try {
+            String subject = verifier.verify(header.substring(BEARER_PREFIX.length()).trim()).subject();
+            authenticate(subject);
+            request.setAttribute(SUBJECT_ATTRIBUTE, subject);
+        } catch (JwtException | IllegalArgumentException e) {
+            SecurityContextHolder.clearContext();
+            unauthorized(response, "Invalid bearer token");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+    
+    private static void authenticate(String ownerId) {
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(UsernamePasswordAuthenticationToken.authenticated(ownerId, null, List.of()));
+        SecurityContextHolder.setContext(context);
+    }
+    
+    /**
+     * 401 in the API's usual error shape, for a bad token here or a missing one (entry point)
+     */
+    public static void unauthorized(HttpServletResponse response, String message) throws IOException {
+        response.setStatus(HttpStatus.UNAUTHORIZED.value());
+        response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write("{\"success\":false,\"message\":\"" + message + "\"}");
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.todoapi.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import javax.crypto.SecretKey;
+
+/**
+ * Verifies HMAC-signed bearer tokens against jwt.secret. What a verified token says is cached,
+ * keyed by a SHA-256 of the token rather than the token itself, so a client sending the same
+ * token on every request pays for signature checking and claims parsing once. Entries expire
+ * with their token, or after max-ttl if sooner; the cache is bounded in size.
+ * <p>
+ * Tokens must carry a subject, which becomes the owner of the caller's todos, and an expiry.
+ * <p>
+ * jwt.secret has no default. While tokens are required, startup fails unless it is at least
+ * 256 bits (32 bytes), as HS256 needs, and not the placeholder older configurations shipped.
+ * With tokens optional and no usable secret, a random key is used, so no token verifies.
+ */
+@Component
+public class JwtTokenVerifier {
+    
+    public static final String CACHE_NAME = "jwtClaims";
+    
+    // Longest subject accepted; todos.owner_id is VARCHAR(64)
+    public static final int MAX_SUBJECT_LENGTH = 64;
+    
+    // Shortest secret HS256 accepts
+    public static final int MIN_SECRET_BYTES = 32;
+    
+    // Former default of jwt.secret, public since it was committed
+    private static final String PLACEHOLDER_SECRET = "your-super-secret-jwt-key-change-this-in-production";
+    
+    private static final Logger log = LoggerFactory.getLogger(JwtTokenVerifier.class);
+    
+    /**
+     * The parts of a verified token the application uses
+     * @param subject the caller, i.e. the owner ID
+     * @param expiresAt when the token stops being accepted
+     */
+    public record VerifiedToken(String subject, Instant expiresAt) {}
+    
+    private final JwtParser parser;
+    
+    private final Cache<ByteBuffer, VerifiedToken> cache;
+    
+    @Autowired
+    public JwtTokenVerifier(@Value("${jwt.secret:}") String secret,
+                            @Value("${jwt.required:true}") boolean required,
+                            MeterRegistry meterRegistry,
+                            @Value("${jwt.cache.max-size:100000}") long maxSize,
+                            @Value("${jwt.cache.max-ttl:10m}") Duration maxTtl) {
+        this.parser = Jwts.parser()
+                .verifyWith(signingKey(secret, required))
+                .build();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<ByteBuffer, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(ByteBuffer key, VerifiedToken token, long currentTime) {
+                        long untilExpiry = Duration.between(Instant.now(), token.expiresAt()).toNanos();
+                        return Math.max(0, Math.min(untilExpiry, maxTtl.toNanos()));
+                    }
+                    
+                    @Override
+                    public long expireAfterUpdate(ByteBuffer key, VerifiedToken token, long currentTime,
+                                                  long currentDuration) {
+                        return currentDuration;
+                    }
+                    
+                    @Override
+                    public long expireAfterRead(ByteBuffer key, VerifiedToken token, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+    
+    private static SecretKey signingKey(String secret, boolean required) {
+        byte[] bytes = secret.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length >= MIN_SECRET_BYTES && !secret.equals(PLACEHOLDER_SECRET)) {
+            return Keys.hmacShaKeyFor(bytes);
+        }
+        if (required) {
+            throw new IllegalStateException("jwt.secret (JWT_SECRET) must be set to a secret of at least "
+                    + MIN_SECRET_BYTES + " bytes while jwt.required is true, e.g. from openssl rand -base64 48");
+        }
+        log.warn("jwt.secret is unset or unusable; tokens are optional and none will verify");
+        return Jwts.SIG.HS256.key().build();
+    }
+    
+    /**
+     * Verify a token, or find it already verified
+     * @param token the compact JWT, without the "Bearer " prefix
+     * @return the verified token
+     * @throws JwtException if the token is malformed, wrongly signed, expired, or lacks a
+     *                      usable subject or an expiry
+     */
+    public VerifiedToken verify(String token) {
+        ByteBuffer key = ByteBuffer.wrap(sha256(token));
+        VerifiedToken verified = cache.getIfPresent(key);
+        // Expiry is enforced by the cache too, but only as precisely as its timer wheel
+        if (verified != null && verified.expiresAt().isAfter(Instant.now())) {
+            return verified;
+        }
+        
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        String subject = claims.getSubject();
+        if (subject == null || subject.isBlank() || subject.length() > MAX_SUBJECT_LENGTH) {
+            throw new MalformedJwtException("Token subject must be 1-" + MAX_SUBJECT_LENGTH + " characters");
+        }
+        if (claims.getExpiration() == null) {
+            throw new MalformedJwtException("Token has no expiry");
+        }
+        verified = new VerifiedToken(subject, claims.getExpiration().toInstant());
+        cache.put(key, verified);
+        return verified;
+    }
+    
+    private static byte[] sha256(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
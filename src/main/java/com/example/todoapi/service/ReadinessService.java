@@ -0,0 +1,126 @@
+package com.example.todoapi.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Readiness of this node to take traffic: database reachable and connection pool not saturated.
+ * The result is cached for a short interval, and only one caller at a time refreshes it while
+ * the others are served the previous result, so probe storms never turn into database load.
+ */
+@Service
+public class ReadinessService {
+    
+    public record PoolStats(int active, int idle, int pending, int max) {
+        
+        public double utilization() {
+            return max > 0 ? (double) active / max : 0.0;
+        }
+    }
+    
+    public record Readiness(boolean databaseUp, boolean saturated, PoolStats pool, String error, Instant checkedAt) {
+        
+        public boolean ready() {
+            return databaseUp && !saturated;
+        }
+    }
+    
+    private final DataSource dataSource;
+    
+    private final Duration cacheTtl;
+    
+    private final int validationTimeoutSeconds;
+    
+    private final int maxPendingConnections;
+    
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    
+    private volatile Readiness cached;
+    
+    @Autowired
+    public ReadinessService(DataSource dataSource,
+                            @Value("${app.health.readiness-cache-ttl:2s}") Duration cacheTtl,
+                            @Value("${app.health.validation-timeout:1s}") Duration validationTimeout,
+                            @Value("${app.health.max-pending-connections:10}") int maxPendingConnections) {
+        this.dataSource = dataSource;
+        this.cacheTtl = cacheTtl;
+        this.validationTimeoutSeconds = (int) Math.max(1, validationTimeout.toSeconds());
+        this.maxPendingConnections = maxPendingConnections;
+    }
+    
+    /**
+     * Get the current readiness, re-checking the database at most once per cache interval
+     * @return the cached or freshly checked readiness
+     */
+    public Readiness getReadiness() {
+        Readiness current = cached;
+        if (current != null && !isExpired(current)) {
+            return current;
+        }
+        if (current != null && !refreshLock.tryLock()) {
+            // Another probe is already refreshing; the slightly stale answer is good enough
+            return current;
+        }
+        if (current == null) {
+            refreshLock.lock();
+        }
+        try {
+            current = cached;
+            if (current == null || isExpired(current)) {
+                current = check();
+                cached = current;
+            }
+            return current;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+    
+    private boolean isExpired(Readiness readiness) {
+        return readiness.checkedAt().plus(cacheTtl).isBefore(Instant.now());
+    }
+    
+    private Readiness check() {
+        PoolStats pool = poolStats();
+        boolean saturated = pool != null && pool.pending() > maxPendingConnections;
+        if (saturated) {
+            // Don't join the queue for a connection just to find out the database is up
+            return new Readiness(true, true, pool, null, Instant.now());
+        }
+        
+        try (Connection connection = dataSource.getConnection()) {
+            boolean valid = connection.isValid(validationTimeoutSeconds);
+            return new Readiness(valid, false, pool, valid ? null : "Connection validation failed", Instant.now());
+        } catch (SQLException e) {
+            return new Readiness(false, false, pool, e.getMessage(), Instant.now());
+        }
+    }
+    
+    private PoolStats poolStats() {
+        try {
+            if (!dataSource.isWrapperFor(HikariDataSource.class)) {
+                return null;
+            }
+            HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+            HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+            if (pool == null) {
+                // Pool not started yet
+                return new PoolStats(0, 0, 0, hikari.getMaximumPoolSize());
+            }
+            return new PoolStats(pool.getActiveConnections(), pool.getIdleConnections(),
+                    pool.getThreadsAwaitingConnection(), hikari.getMaximumPoolSize());
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
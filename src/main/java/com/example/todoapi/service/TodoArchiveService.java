@@ -0,0 +1,107 @@
+package com.example.todoapi.service;
+
+import com.example.todoapi.event.TodosArchivedEvent;
+import com.example.todoapi.repository.TodoArchiveRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Moves todos completed longer than app.archive.completed-age ago from todos to todos_archive,
+ * so lists, search and the indexes behind them only cover todos still in use.
+ * <p>
+ * Archived todos keep their id and version and are still served by
+ * {@link TodoService#getTodoById}; a write moves one back to todos first. They do leave lists
+ * and search, so each batch publishes a {@link TodosArchivedEvent} per owner for the caches and
+ * indexes over those (not a {@link com.example.todoapi.event.TodoChangedEvent}: nothing was
+ * deleted). Each batch commits on its own, keeping row locks short; rows a concurrent write
+ * holds are skipped until the next run, which also makes parallel runs on several instances
+ * safe. A run stops after app.archive.max-run-time, leaving any backlog to the next.
+ */
+@Service
+public class TodoArchiveService {
+    
+    private static final Logger log = LoggerFactory.getLogger(TodoArchiveService.class);
+    
+    private final TodoArchiveRepository archiveRepository;
+    
+    private final TransactionTemplate transactionTemplate;
+    
+    private final ApplicationEventPublisher eventPublisher;
+    
+    private final Counter archivedCounter;
+    
+    private final boolean enabled;
+    
+    private final Duration completedAge;
+    
+    private final int batchSize;
+    
+    private final Duration maxRunTime;
+    
+    @Autowired
+    public TodoArchiveService(TodoArchiveRepository archiveRepository,
+                              PlatformTransactionManager transactionManager,
+                              ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry,
+                              @Value("${app.archive.enabled:true}") boolean enabled,
+                              @Value("${app.archive.completed-age:90d}") Duration completedAge,
+                              @Value("${app.archive.batch-size:1000}") int batchSize,
+                              @Value("${app.archive.max-run-time:1m}") Duration maxRunTime) {
+        this.archiveRepository = archiveRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.archivedCounter = Counter.builder("todo.archive.archived")
+                .description("Completed todos moved to todos_archive")
+                .register(meterRegistry);
+        this.enabled = enabled;
+        this.completedAge = completedAge;
+        this.batchSize = batchSize;
+        this.maxRunTime = maxRunTime;
+    }
+    
+    @Scheduled(fixedDelayString = "${app.archive.interval:PT1H}",
+            initialDelayString = "${app.archive.interval:PT1H}")
+    public void archiveCompleted() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cutoff = now.minus(completedAge);
+        long deadline = System.nanoTime() + maxRunTime.toNanos();
+        long archived = 0;
+        int moved;
+        do {
+            moved = transactionTemplate.execute(status -> archiveBatch(cutoff, now));
+            archived += moved;
+            archivedCounter.increment(moved);
+        } while (moved == batchSize && System.nanoTime() - deadline < 0);
+        if (archived > 0) {
+            log.info("Archived {} todos completed before {}{}", archived, cutoff,
+                    moved == batchSize ? "; the rest waits for the next run" : "");
+        }
+    }
+    
+    // Delivered after commit, like TodoChangedEvent
+    private int archiveBatch(LocalDateTime cutoff, LocalDateTime now) {
+        List<TodoArchiveRepository.ArchivedId> batch = archiveRepository.archiveCompletedBefore(cutoff, now, batchSize);
+        Map<String, List<Long>> byOwner = batch.stream().collect(Collectors.groupingBy(
+                TodoArchiveRepository.ArchivedId::getOwnerId,
+                Collectors.mapping(TodoArchiveRepository.ArchivedId::getId, Collectors.toList())));
+        byOwner.forEach((ownerId, ids) -> eventPublisher.publishEvent(new TodosArchivedEvent(ownerId, ids)));
+        return batch.size();
+    }
+}
@@ -0,0 +1,272 @@
+package com.example.todoapi.service;
+
+import com.example.todoapi.datasource.ReadRouting;
+import com.example.todoapi.dto.TodoChanges;
+import com.example.todoapi.dto.TodoCursor;
+import com.example.todoapi.dto.TodoView;
+import com.example.todoapi.entity.TodoTombstone;
+import com.example.todoapi.event.TodoChangedEvent;
+import com.example.todoapi.exception.CursorExpiredException;
+import com.example.todoapi.repository.TodoRepository;
+import com.example.todoapi.repository.TodoTombstoneRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Delta sync: todos created or updated, and todos deleted, since a client's cursor.
+ * <p>
+ * Upserts come from (updatedAt, id) and deletes from tombstones (deletedAt, todoId); both are
+ * read through keyset indexes and merged into one stream, so a single cursor covers both.
+ * Changes younger than the settle window are held back: a transaction may take its timestamp
+ * before a concurrent one yet commit after it, and reading too close to "now" would let the
+ * cursor move past the later-committing row.
+ * <p>
+ * Long-poll and SSE clients {@link #subscribe} to be woken once committed changes become
+ * visible. Local writes wake them as soon as they settle; a periodic tick covers writes made
+ * by other instances.
+ */
+@Service
+public class TodoChangeFeedService {
+    
+    private static final Logger log = LoggerFactory.getLogger(TodoChangeFeedService.class);
+    
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = TodoService.MAX_PAGE_SIZE;
+    
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+    
+    // Postgres rounds timestamps to microseconds, which can put a row just after "now"
+    private static final Duration WAKEUP_SLACK = Duration.ofMillis(5);
+    
+    /**
+     * Handle returned by {@link #subscribe}
+     */
+    public interface Subscription {
+        
+        /**
+         * Run the listener soon, as if changes had arrived
+         */
+        void wake();
+        
+        void cancel();
+    }
+    
+    private final TodoRepository todoRepository;
+    
+    private final TodoTombstoneRepository tombstoneRepository;
+    
+    private final TaskExecutor taskExecutor;
+    
+    private final TaskScheduler taskScheduler;
+    
+    private final Duration settleWindow;
+    
+    private final Duration tombstoneRetention;
+    
+    private final Set<ListenerSubscription> subscriptions = ConcurrentHashMap.newKeySet();
+    
+    private final AtomicBoolean wakeupScheduled = new AtomicBoolean();
+    
+    @Autowired
+    public TodoChangeFeedService(TodoRepository todoRepository,
+                                 TodoTombstoneRepository tombstoneRepository,
+                                 @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                                 TaskScheduler taskScheduler,
+                                 @Value("${app.changes.settle-window:1s}") Duration settleWindow,
+                                 @Value("${app.changes.tombstone-retention:30d}") Duration tombstoneRetention) {
+        this.todoRepository = todoRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.taskExecutor = taskExecutor;
+        this.taskScheduler = taskScheduler;
+        this.settleWindow = settleWindow;
+        this.tombstoneRetention = tombstoneRetention;
+    }
+    
+    /**
+     * Get the changes to one owner's todos after a cursor, oldest first
+     * @param ownerId owner of the todos
+     * @param cursor nextCursor from a previous call, or null
+     * @param updatedSince used when there is no cursor: changes at or after this time;
+     *                     with neither, every todo is returned (initial sync) and no deletes
+     * @param limit maximum number of upserts plus deletes, clamped to MAX_LIMIT
+     * @return the changes and the cursor to resume from
+     * @throws IllegalArgumentException if the cursor is malformed
+     * @throws CursorExpiredException if the cursor is older than the tombstone retention
+     */
+    @Transactional(readOnly = true)
+    public TodoChanges getChanges(String ownerId, String cursor, LocalDateTime updatedSince, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIMIT));
+        TodoCursor after = resolveCursor(cursor, updatedSince);
+        LocalDateTime now = LocalDateTime.now();
+        if (after != null && after.getUpdatedAt().isBefore(now.minus(tombstoneRetention))) {
+            throw new CursorExpiredException("Cursor is older than the change history kept ("
+                    + tombstoneRetention.toDays() + " days); resynchronize from the full list");
+        }
+        
+        TodoCursor from = after != null ? after : TodoCursor.afterUpdatedAt(BEGINNING, 0L);
+        LocalDateTime until = now.minus(settleWindow);
+        // Replica lag is not bounded by the settle window, so the feed always reads the primary
+        List<TodoView> updated = ReadRouting.onPrimary(() -> todoRepository.findUpdatedAfter(
+                ownerId, from.getUpdatedAt(), from.getId(), until, Limit.of(pageSize + 1)));
+        // A client without a cursor holds nothing yet, so it has nothing to delete
+        List<TodoTombstone> deleted = after == null ? List.of() : ReadRouting.onPrimary(() ->
+                tombstoneRepository.findDeletedAfter(ownerId, from.getUpdatedAt(), from.getId(), until,
+                        Limit.of(pageSize + 1)));
+        
+        // Merge both (timestamp, id)-ordered lists up to the page size
+        List<TodoView> upserts = new ArrayList<>();
+        List<Long> deletes = new ArrayList<>();
+        LocalDateTime lastAt = null;
+        Long lastId = null;
+        int u = 0;
+        int d = 0;
+        while (upserts.size() + deletes.size() < pageSize && (u < updated.size() || d < deleted.size())) {
+            boolean takeUpdate = d >= deleted.size() || (u < updated.size()
+                    && compare(updated.get(u).updatedAt(), updated.get(u).id(),
+                               deleted.get(d).getDeletedAt(), deleted.get(d).getTodoId()) < 0);
+            if (takeUpdate) {
+                TodoView todo = updated.get(u++);
+                upserts.add(todo);
+                lastAt = todo.updatedAt();
+                lastId = todo.id();
+            } else {
+                TodoTombstone tombstone = deleted.get(d++);
+                deletes.add(tombstone.getTodoId());
+                lastAt = tombstone.getDeletedAt();
+                lastId = tombstone.getTodoId();
+            }
+        }
+        
+        boolean hasMore = u < updated.size() || d < deleted.size();
+        // Once caught up, move the cursor to the settle horizon so idle clients never expire
+        TodoCursor next = hasMore
+                ? TodoCursor.afterUpdatedAt(lastAt, lastId)
+                : TodoCursor.afterUpdatedAt(until, Long.MAX_VALUE);
+        return new TodoChanges(upserts, deletes, next.encode(), hasMore);
+    }
+    
+    /**
+     * Register a listener to run (on the application task executor) when changes may be
+     * available. Runs of one subscription never overlap, and wakeups that arrive while it
+     * runs are coalesced into one more run.
+     * @param listener re-reads the feed from its own cursor
+     * @return handle to wake or cancel the subscription
+     */
+    public Subscription subscribe(Runnable listener) {
+        ListenerSubscription subscription = new ListenerSubscription(listener);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodoChanged(TodoChangedEvent event) {
+        // One wakeup per settle window, however many writes land in it
+        if (!subscriptions.isEmpty() && wakeupScheduled.compareAndSet(false, true)) {
+            taskScheduler.schedule(() -> {
+                wakeupScheduled.set(false);
+                wakeSubscribers();
+            }, Instant.now().plus(settleWindow).plus(WAKEUP_SLACK));
+        }
+    }
+    
+    /**
+     * Wake every subscriber periodically to pick up changes committed by other instances
+     */
+    @Scheduled(fixedDelayString = "${app.changes.poll-interval:PT5S}")
+    public void wakeSubscribers() {
+        subscriptions.forEach(ListenerSubscription::wake);
+    }
+    
+    /**
+     * Drop tombstones past the retention period; cursors that old get CursorExpiredException
+     */
+    @Scheduled(fixedDelayString = "${app.changes.purge-interval:PT1H}")
+    @Transactional
+    public void purgeTombstones() {
+        int purged = tombstoneRepository.deleteDeletedBefore(LocalDateTime.now().minus(tombstoneRetention));
+        if (purged > 0) {
+            log.info("Purged {} todo tombstones", purged);
+        }
+    }
+    
+    private static TodoCursor resolveCursor(String cursor, LocalDateTime updatedSince) {
+        if (cursor != null && !cursor.isEmpty()) {
+            TodoCursor decoded = TodoCursor.decode(cursor);
+            if (!decoded.isUpdatedAtOrdered()) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return decoded;
+        }
+        // id > 0 makes the bound inclusive
+        return updatedSince != null ? TodoCursor.afterUpdatedAt(updatedSince, 0L) : null;
+    }
+    
+    private static int compare(LocalDateTime at1, Long id1, LocalDateTime at2, Long id2) {
+        int byTime = at1.compareTo(at2);
+        return byTime != 0 ? byTime : id1.compareTo(id2);
+    }
+    
+    private final class ListenerSubscription implements Subscription {
+        
+        private final Runnable listener;
+        
+        private final AtomicBoolean pending = new AtomicBoolean();
+        
+        private final AtomicBoolean running = new AtomicBoolean();
+        
+        private ListenerSubscription(Runnable listener) {
+            this.listener = listener;
+        }
+        
+        @Override
+        public void wake() {
+            pending.set(true);
+            drain();
+        }
+        
+        @Override
+        public void cancel() {
+            subscriptions.remove(this);
+        }
+        
+        private void drain() {
+            if (!subscriptions.contains(this) || !running.compareAndSet(false, true)) {
+                return;
+            }
+            taskExecutor.execute(() -> {
+                try {
+                    while (pending.getAndSet(false) && subscriptions.contains(this)) {
+                        listener.run();
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Change feed subscriber failed", e);
+                } finally {
+                    running.set(false);
+                }
+                // A wake that landed between the last check and releasing the flag
+                if (pending.get()) {
+                    drain();
+                }
+            });
+        }
+    }
+}
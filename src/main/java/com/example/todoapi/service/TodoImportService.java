@@ -0,0 +1,403 @@
+package com.example.todoapi.service;
+
+import com.example.todoapi.dto.CreateTodoDto;
+import com.example.todoapi.entity.Todo;
+import com.example.todoapi.entity.TodoImport;
+import com.example.todoapi.event.TodoChangedEvent;
+import com.example.todoapi.exception.ImportConflictException;
+import com.example.todoapi.imports.ImportFormat;
+import com.example.todoapi.imports.ImportRecord;
+import com.example.todoapi.imports.ImportRecordReader;
+import com.example.todoapi.repository.TodoImportRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk import of todos from a streamed CSV or NDJSON upload.
+ * <p>
+ * Records are validated with the CreateTodoDto rules as they are read and gathered into
+ * chunks of a bounded size; each chunk goes to Postgres through COPY in its own transaction,
+ * together with its rejects and the import's progress. An interrupted import is resumed by
+ * uploading the same file again: the records already covered by committed chunks are skipped.
+ * <p>
+ * Ids are drawn from todos_id_seq in blocks, like Hibernate does, and a TodoChangedEvent is
+ * published per imported todo after its chunk commits, so counters, caches, the change feed
+ * and the reminder scheduler (for dueAt/remindAt) see the new rows.
+ * <p>
+ * A chunk's rows are stamped when its COPY starts but only become visible when it commits, so
+ * a chunk must commit within the change feed's settle window or its rows land behind cursors
+ * already handed out. Chunks are kept small for that, and a slower one is logged.
+ */
+@Service
+public class TodoImportService {
+    
+    private static final Logger log = LoggerFactory.getLogger(TodoImportService.class);
+    
+    // Must match todos_id_seq INCREMENT BY (allocationSize on Todo.id)
+    private static final int ID_BLOCK_SIZE = 50;
+    
+    private static final String COPY_TODOS =
+            "COPY todos (id, owner_id, title, description, due_at, remind_at, created_at, updated_at) "
+            + "FROM STDIN WITH (FORMAT csv)";
+    private static final String COPY_REJECTS =
+            "COPY todo_import_rejects (import_id, line, reason, content) FROM STDIN WITH (FORMAT csv)";
+    
+    /**
+     * Outcome of one upload of an import
+     * @param todoImport the import's progress after the upload
+     * @param rowsImported todos imported by this upload
+     * @param rowsRejected records rejected by this upload
+     * @param elapsedMillis time spent on this upload
+     */
+    public record ImportRun(TodoImport todoImport, long rowsImported, long rowsRejected, long elapsedMillis) {
+        
+        public long rowsPerSecond() {
+            return (rowsImported + rowsRejected) * 1000 / Math.max(1, elapsedMillis);
+        }
+    }
+    
+    private final TodoImportRepository importRepository;
+    
+    private final DataSource dataSource;
+    
+    private final TransactionTemplate transactionTemplate;
+    
+    private final Validator validator;
+    
+    private final ObjectMapper objectMapper;
+    
+    private final ApplicationEventPublisher eventPublisher;
+    
+    private final int chunkSize;
+    
+    private final int maxRejectLength;
+    
+    private final Duration settleWindow;
+    
+    @Autowired
+    public TodoImportService(TodoImportRepository importRepository, DataSource dataSource,
+                             PlatformTransactionManager transactionManager, Validator validator,
+                             ObjectMapper objectMapper, ApplicationEventPublisher eventPublisher,
+                             @Value("${app.import.chunk-size:1000}") int chunkSize,
+                             @Value("${app.import.max-reject-length:1000}") int maxRejectLength,
+                             @Value("${app.changes.settle-window:1s}") Duration settleWindow) {
+        this.importRepository = importRepository;
+        this.dataSource = dataSource;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+        this.maxRejectLength = maxRejectLength;
+        this.settleWindow = settleWindow;
+    }
+    
+    public Optional<TodoImport> getImport(String ownerId, String id) {
+        return importRepository.findByIdAndOwnerId(id, ownerId);
+    }
+    
+    public List<TodoImportRepository.Reject> getRejects(String ownerId, String id, long afterLine, int limit) {
+        return importRepository.findRejects(id, ownerId, afterLine, limit);
+    }
+    
+    /**
+     * Create an import, or look up an existing one to resume
+     * @param ownerId owner of the import and of the todos it creates
+     * @param id the import ID; null to generate one
+     * @param format format of the upload
+     * @return the import and its progress so far
+     * @throws IllegalArgumentException if an existing import was started with another format
+     * @throws ImportConflictException if the ID is taken by another owner's import
+     */
+    public TodoImport begin(String ownerId, String id, ImportFormat format) {
+        String importId = id != null ? id : UUID.randomUUID().toString();
+        return transactionTemplate.execute(status -> {
+            TodoImport existing = importRepository.findById(importId).orElse(null);
+            if (existing == null) {
+                return importRepository.save(new TodoImport(importId, ownerId, format.name(), now()));
+            }
+            if (!existing.getOwnerId().equals(ownerId)) {
+                throw new ImportConflictException("Import ID " + importId + " is already taken; choose another");
+            }
+            if (!existing.getFormat().equals(format.name())) {
+                throw new IllegalArgumentException("Import " + importId + " was started as "
+                        + existing.getFormat() + "; resume it with the same file");
+            }
+            return existing;
+        });
+    }
+    
+    /**
+     * Import an upload, skipping the records earlier uploads of this import already committed.
+     * A completed import is left as it is and the upload is not read.
+     * @param todoImport the import returned by {@link #begin}
+     * @param upload the file, read once from start to end
+     * @return what this upload did
+     * @throws IOException if the upload cannot be read; committed chunks are kept
+     * @throws IllegalArgumentException if a CSV upload has no header row with a title column
+     * @throws ImportConflictException if another upload of this import is running
+     */
+    public ImportRun run(TodoImport todoImport, InputStream upload) throws IOException {
+        String id = todoImport.getId();
+        String ownerId = todoImport.getOwnerId();
+        long start = System.nanoTime();
+        if (todoImport.getStatus() == TodoImport.Status.COMPLETED) {
+            return new ImportRun(todoImport, 0, 0, 0);
+        }
+        
+        long consumed = todoImport.getRecordsConsumed();
+        long imported = 0;
+        long rejected = 0;
+        try (ImportRecordReader reader = ImportRecordReader.open(ImportFormat.valueOf(todoImport.getFormat()),
+                upload, objectMapper)) {
+            // Skip what earlier uploads committed
+            long skipped = 0;
+            while (skipped < consumed && reader.next() != null) {
+                skipped++;
+            }
+            
+            List<CreateTodoDto> rows = new ArrayList<>(chunkSize);
+            List<ImportRecord> rejects = new ArrayList<>();
+            ImportRecord record;
+            while ((record = reader.next()) != null) {
+                ImportRecord validated = validate(record);
+                if (validated.isRejected()) {
+                    rejects.add(validated);
+                } else {
+                    rows.add(validated.todo());
+                }
+                if (rows.size() + rejects.size() == chunkSize) {
+                    writeChunk(id, ownerId, consumed, rows, rejects);
+                    consumed += chunkSize;
+                    imported += rows.size();
+                    rejected += rejects.size();
+                    rows.clear();
+                    rejects.clear();
+                }
+            }
+            if (!rows.isEmpty() || !rejects.isEmpty()) {
+                writeChunk(id, ownerId, consumed, rows, rejects);
+                imported += rows.size();
+                rejected += rejects.size();
+            }
+        } catch (IOException | RuntimeException e) {
+            if (!(e instanceof ImportConflictException)) {
+                transactionTemplate.executeWithoutResult(status ->
+                        importRepository.finish(id, TodoImport.Status.INTERRUPTED, e.getMessage(), now()));
+                log.warn("Import {} interrupted after {} records: {}", id, consumed, e.getMessage());
+            }
+            throw e;
+        }
+        
+        transactionTemplate.executeWithoutResult(status ->
+                importRepository.finish(id, TodoImport.Status.COMPLETED, null, now()));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        log.info("Import {} completed: {} todos imported, {} rejected in {} ms", id, imported, rejected, elapsedMillis);
+        return new ImportRun(importRepository.findById(id).orElseThrow(), imported, rejected, elapsedMillis);
+    }
+    
+    private ImportRecord validate(ImportRecord record) {
+        if (record.isRejected()) {
+            return record;
+        }
+        CreateTodoDto todo = record.todo();
+        Set<ConstraintViolation<CreateTodoDto>> violations = validator.validate(todo);
+        if (!violations.isEmpty()) {
+            return record.reject(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+        if (containsNul(todo.getTitle()) || containsNul(todo.getDescription())) {
+            return record.reject("Text must not contain NUL characters");
+        }
+        return record;
+    }
+    
+    /**
+     * Write one chunk and advance the import's progress in a single transaction
+     */
+    private void writeChunk(String id, String ownerId, long recordsFrom, List<CreateTodoDto> rows, List<ImportRecord> rejects) {
+        long start = System.nanoTime();
+        LocalDateTime now = now();
+        transactionTemplate.executeWithoutResult(status -> {
+            long recordsTo = recordsFrom + rows.size() + rejects.size();
+            if (importRepository.advance(id, recordsFrom, recordsTo, rows.size(), rejects.size(), now) == 0) {
+                throw new ImportConflictException("Import " + id + " is being written by another upload "
+                        + "or has already completed");
+            }
+            try {
+                PGConnection connection = DataSourceUtils.getConnection(dataSource).unwrap(PGConnection.class);
+                List<Todo> created = copyTodos(connection, ownerId, rows, now);
+                copyRejects(connection, id, rejects);
+                // Delivered after commit, like the events of any other write
+                created.forEach(todo -> eventPublisher.publishEvent(TodoChangedEvent.created(todo)));
+            } catch (SQLException e) {
+                throw new UncategorizedSQLException("Import " + id, COPY_TODOS, e);
+            }
+        });
+        
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        if (!rows.isEmpty() && elapsed.compareTo(settleWindow) >= 0) {
+            log.warn("Import {} took {} ms to commit a chunk of {} records, longer than the change feed's settle "
+                    + "window ({} ms): change feed clients may miss some of its todos until they resync. "
+                    + "Lower app.import.chunk-size", id, elapsed.toMillis(), rows.size() + rejects.size(),
+                    settleWindow.toMillis());
+        }
+    }
+    
+    private List<Todo> copyTodos(PGConnection connection, String ownerId, List<CreateTodoDto> rows,
+                                 LocalDateTime now) throws SQLException {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        List<Long> blocks = reserveIdBlocks((rows.size() + ID_BLOCK_SIZE - 1) / ID_BLOCK_SIZE);
+        List<Todo> created = new ArrayList<>(rows.size());
+        String timestamp = now.toString();
+        StringBuilder line = new StringBuilder(256);
+        
+        CopyIn copy = connection.getCopyAPI().copyIn(COPY_TODOS);
+        try {
+            for (int i = 0; i < rows.size(); i++) {
+                CreateTodoDto row = rows.get(i);
+                // Each block value is the highest id of its block
+                long id = blocks.get(i / ID_BLOCK_SIZE) - ID_BLOCK_SIZE + 1 + i % ID_BLOCK_SIZE;
+                line.setLength(0);
+                line.append(id).append(',');
+                appendCsv(line, ownerId).append(',');
+                appendCsv(line, row.getTitle()).append(',');
+                appendCsv(line, row.getDescription()).append(',');
+                appendTimestamp(line, row.getDueAt()).append(',');
+                appendTimestamp(line, row.getRemindAt()).append(',');
+                line.append(timestamp).append(',').append(timestamp).append('\n');
+                write(copy, line);
+                
+                Todo todo = new Todo(row.getTitle(), row.getDescription());
+                todo.setId(id);
+                todo.setOwnerId(ownerId);
+                todo.setDueAt(row.getDueAt());
+                todo.setRemindAt(row.getRemindAt());
+                todo.setCreatedAt(now);
+                todo.setUpdatedAt(now);
+                todo.setVersion(0L);
+                created.add(todo);
+            }
+            copy.endCopy();
+        } finally {
+            if (copy.isActive()) {
+                copy.cancelCopy();
+            }
+        }
+        return created;
+    }
+    
+    private List<Long> reserveIdBlocks(int count) {
+        List<Long> blocks = new ArrayList<>(importRepository.reserveIdBlocks(count));
+        // The sequence's first value (1) heads no full block of its own
+        blocks.removeIf(hi -> hi < ID_BLOCK_SIZE);
+        if (blocks.size() < count) {
+            blocks.addAll(importRepository.reserveIdBlocks(count - blocks.size()));
+        }
+        return blocks;
+    }
+    
+    private void copyRejects(PGConnection connection, String id, List<ImportRecord> rejects) throws SQLException {
+        if (rejects.isEmpty()) {
+            return;
+        }
+        StringBuilder line = new StringBuilder(256);
+        CopyIn copy = connection.getCopyAPI().copyIn(COPY_REJECTS);
+        try {
+            for (ImportRecord reject : rejects) {
+                line.setLength(0);
+                appendCsv(line, id).append(',').append(reject.line()).append(',');
+                appendCsv(line, printable(reject.error())).append(',');
+                appendCsv(line, printable(reject.raw())).append('\n');
+                write(copy, line);
+            }
+            copy.endCopy();
+        } finally {
+            if (copy.isActive()) {
+                copy.cancelCopy();
+            }
+        }
+    }
+    
+    /**
+     * Truncated to the configured length, with NULs (which Postgres text refuses) replaced
+     */
+    private String printable(String text) {
+        if (text == null) {
+            return null;
+        }
+        String truncated = text.length() > maxRejectLength ? text.substring(0, maxRejectLength) : text;
+        return truncated.replace('\0', '\uFFFD');
+    }
+    
+    private static void write(CopyIn copy, CharSequence line) throws SQLException {
+        byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+        copy.writeToCopy(bytes, 0, bytes.length);
+    }
+    
+    /**
+     * Unquoted ISO date-time, or nothing (NULL) for null
+     */
+    private static StringBuilder appendTimestamp(StringBuilder line, LocalDateTime value) {
+        return value == null ? line : line.append(value);
+    }
+    
+    /**
+     * Quoted CSV field; null is written unquoted and empty, which COPY reads as NULL
+     */
+    private static StringBuilder appendCsv(StringBuilder line, String value) {
+        if (value == null) {
+            return line;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        return line.append('"');
+    }
+    
+    private static boolean containsNul(String text) {
+        return text != null && text.indexOf('\0') >= 0;
+    }
+    
+    // Postgres keeps microseconds; events must carry the timestamps the rows got
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+}
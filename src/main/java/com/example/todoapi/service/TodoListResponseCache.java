@@ -0,0 +1,180 @@
+package com.example.todoapi.service;
+
+import com.example.todoapi.datasource.ReadRouting;
+import com.example.todoapi.dto.TodoPage;
+import com.example.todoapi.dto.TodoView;
+import com.example.todoapi.event.TodoChangedEvent;
+import com.example.todoapi.event.TodosArchivedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialized GET /api/todos responses, so identical requests share one query and one Jackson
+ * pass. Entries are keyed by the owner and query parameters plus the owner's generation, which
+ * every committed write to one of their todos bumps, as does archiving some of them; a write
+ * therefore retires all of that owner's entries at once without scanning them, and concurrent
+ * misses on the same key wait for a single computation.
+ * <p>
+ * The generation only sees writes made through this instance, so entries also expire after a
+ * short TTL to bound staleness when several instances share the database.
+ */
+@Service
+public class TodoListResponseCache {
+    
+    public static final String CACHE_NAME = "todoListResponses";
+    
+    // Bytes held besides the body, for the weigher
+    private static final int ENTRY_OVERHEAD = 128;
+    
+    /**
+     * A serialized response: JSON body, its gzip encoding when large enough to be worth it,
+     * and a strong ETag derived from the body
+     */
+    public record CachedResponse(byte[] body, byte[] gzipped, String etag) {
+        
+        public boolean hasGzip() {
+            return gzipped != null;
+        }
+        
+        /**
+         * ETag of the gzip encoding; a strong validator has to differ between encodings
+         */
+        public String gzipEtag() {
+            return etag.substring(0, etag.length() - 1) + "-gzip\"";
+        }
+        
+        private int weight() {
+            return ENTRY_OVERHEAD + body.length + (gzipped != null ? gzipped.length : 0);
+        }
+    }
+    
+    private record Key(String ownerId, String cursor, int limit, Boolean completed, LocalDateTime updatedSince, long generation) {}
+    
+    private final TodoService todoService;
+    
+    private final ObjectMapper objectMapper;
+    
+    private final boolean enabled;
+    
+    private final int gzipMinSize;
+    
+    private final Cache<Key, CachedResponse> cache;
+    
+    // Owner ID -> current generation. Values come from one counter, so an owner whose entry
+    // expired comes back with a generation no cached response carries.
+    private final Cache<String, Long> generations;
+    
+    private final AtomicLong lastGeneration = new AtomicLong();
+    
+    @Autowired
+    public TodoListResponseCache(TodoService todoService, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                 @Value("${app.list-cache.enabled:true}") boolean enabled,
+                                 @Value("${app.list-cache.max-size:64MB}") DataSize maxSize,
+                                 @Value("${app.list-cache.ttl:5s}") Duration ttl,
+                                 @Value("${app.list-cache.gzip-min-size:2KB}") DataSize gzipMinSize) {
+        this.todoService = todoService;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.gzipMinSize = (int) gzipMinSize.toBytes();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .<Key, CachedResponse>weigher((key, response) -> response.weight())
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        this.generations = Caffeine.newBuilder()
+                .expireAfterAccess(ttl)
+                .build();
+    }
+    
+    /**
+     * Get the serialized response for one page of todos, computing it on a miss
+     * @see TodoService#getTodos
+     * @throws IllegalArgumentException if the cursor is malformed or does not match the filters
+     */
+    public CachedResponse getTodos(String ownerId, String cursor, int limit, Boolean completed, LocalDateTime updatedSince) {
+        // Normalize so equivalent requests share an entry
+        String normalizedCursor = cursor != null && !cursor.isEmpty() ? cursor : null;
+        int pageSize = Math.max(1, Math.min(limit, TodoService.MAX_PAGE_SIZE));
+        if (!enabled) {
+            return render(todoService.getTodos(ownerId, normalizedCursor, pageSize, completed, updatedSince));
+        }
+        
+        // Read the generation before querying: a write committing meanwhile moves readers to a
+        // new key, so a result that missed the write is never served after it
+        long generation = generations.get(ownerId, owner -> lastGeneration.incrementAndGet());
+        Key key = new Key(ownerId, normalizedCursor, pageSize, completed, updatedSince, generation);
+        // A miss is computed once per generation; reading the primary keeps replica lag out of
+        // the cache, where it would outlive the lag itself
+        return cache.get(key, k -> render(ReadRouting.onPrimary(
+                () -> todoService.getTodos(k.ownerId(), k.cursor(), k.limit(), k.completed(), k.updatedSince()))));
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodoChanged(TodoChangedEvent event) {
+        generations.put(event.todo().getOwnerId(), lastGeneration.incrementAndGet());
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodosArchived(TodosArchivedEvent event) {
+        generations.put(event.ownerId(), lastGeneration.incrementAndGet());
+    }
+    
+    private CachedResponse render(TodoPage<TodoView> page) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", page.getItems());
+        response.put("nextCursor", page.getNextCursor());
+        
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(response);
+            byte[] gzipped = body.length >= gzipMinSize ? gzip(body) : null;
+            return new CachedResponse(body, gzipped, etag(body));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+    
+    private static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.todoapi.service;
+
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Creates the monthly range partitions of todos (todos_YYYY_MM, by created_at) ahead of time.
+ * <p>
+ * A todo whose month has no partition lands in todos_default, and Postgres refuses to create a
+ * partition for a month the default partition already holds rows of, so partitions must exist
+ * well before their month starts. Creating one briefly locks todos; a lock timeout keeps it from
+ * queueing behind long queries and stalling traffic, and the next run tries again.
+ */
+@Service
+public class TodoPartitionService {
+    
+    private static final Logger log = LoggerFactory.getLogger(TodoPartitionService.class);
+    
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    
+    private final EntityManager entityManager;
+    
+    private final TransactionTemplate transactionTemplate;
+    
+    private final int monthsAhead;
+    
+    private final Duration lockTimeout;
+    
+    @Autowired
+    public TodoPartitionService(EntityManager entityManager, PlatformTransactionManager transactionManager,
+                                @Value("${app.partitions.months-ahead:3}") int monthsAhead,
+                                @Value("${app.partitions.lock-timeout:5s}") Duration lockTimeout) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.monthsAhead = monthsAhead;
+        this.lockTimeout = lockTimeout;
+    }
+    
+    /**
+     * Make sure this month's partition and the next monthsAhead exist
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.partitions.check-interval:PT6H}",
+            initialDelayString = "${app.partitions.check-interval:PT6H}")
+    public void createPartitions() {
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    entityManager.createNativeQuery("SET LOCAL lock_timeout = " + lockTimeout.toMillis()).executeUpdate();
+                    entityManager.createNativeQuery(partitionDdl(month)).executeUpdate();
+                });
+            } catch (RuntimeException e) {
+                log.warn("Could not create the todos partition for {}: {}", month, e.getMessage());
+            }
+        }
+    }
+    
+    static String partitionDdl(YearMonth month) {
+        return "CREATE TABLE IF NOT EXISTS todos_" + month.format(SUFFIX) + " PARTITION OF todos "
+                + "FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')";
+    }
+}
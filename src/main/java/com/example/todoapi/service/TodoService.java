@@ -1,66 +1,245 @@
 package com.example.todoapi.service;
 
+import com.example.todoapi.config.CacheConfig;
+import com.example.todoapi.dto.BatchOperationDto;
+import com.example.todoapi.dto.BatchOperationResult;
 import com.example.todoapi.dto.CreateTodoDto;
+import com.example.todoapi.dto.TodoCursor;
+import com.example.todoapi.dto.TodoPage;
+import com.example.todoapi.dto.TodoView;
 import com.example.todoapi.dto.UpdateTodoDto;
 import com.example.todoapi.entity.Todo;
+import com.example.todoapi.entity.TodoTombstone;
+import com.example.todoapi.event.TodoChangedEvent;
+import com.example.todoapi.exception.PreconditionFailedException;
+import com.example.todoapi.repository.TodoArchiveRepository;
 import com.example.todoapi.repository.TodoRepository;
+import com.example.todoapi.search.TodoSearchIndex;
+import com.example.todoapi.search.TodoSearchQuery;
+import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * Reads return {@link TodoView} projections from explicit read-only transactions, which may be
+ * routed to a replica and never hold entities past the method; writes load and change managed
+ * entities in their own read-write transactions. Open-session-in-view is off, so nothing here
+ * keeps a connection for the rest of the request.
+ * <p>
+ * Todos archived by {@link TodoArchiveService} are left out of lists and search but still found
+ * by ID; writing to one moves it back to the todos table first.
+ * <p>
+ * Every method acts for one owner, the subject of the caller's token: other owners' todos are
+ * not found, and cached todos are keyed by owner and ID.
+ * <p>
+ * With write-behind on, reads show the {@link TodoWriteBuffer}'s state of todos it holds, and
+ * writes here flush the todos they touch first, so they apply on top of the buffered ones.
+ */
 @Service
 public class TodoService {
     
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+    public static final int MAX_SEARCH_RESULTS = 1000;
+    
     private final TodoRepository todoRepository;
     
+    private final TodoArchiveRepository todoArchiveRepository;
+    
+    private final EntityManager entityManager;
+    
+    private final Cache todoCache;
+    
+    private final TodoSearchIndex searchIndex;
+    
+    private final ApplicationEventPublisher eventPublisher;
+    
+    private final TodoWriteBuffer writeBuffer;
+    
     @Autowired
-    public TodoService(TodoRepository todoRepository) {
+    public TodoService(TodoRepository todoRepository, TodoArchiveRepository todoArchiveRepository,
+                       EntityManager entityManager, CacheManager cacheManager,
+                       TodoSearchIndex searchIndex, ApplicationEventPublisher eventPublisher,
+                       TodoWriteBuffer writeBuffer) {
         this.todoRepository = todoRepository;
+        this.todoArchiveRepository = todoArchiveRepository;
+        this.entityManager = entityManager;
+        this.todoCache = cacheManager.getCache(CacheConfig.TODOS_CACHE);
+        this.searchIndex = searchIndex;
+        this.eventPublisher = eventPublisher;
+        this.writeBuffer = writeBuffer;
     }
     
     /**
-     * Get all todos
-     * @return list of all todos
+     * Get one keyset page of todos
+     * @param ownerId owner of the todos
+     * @param cursor nextCursor from the previous page, or null for the first page
+     * @param limit page size, clamped to MAX_PAGE_SIZE
+     * @param completed optional completed filter
+     * @param updatedSince optional lower bound on updatedAt; switches ordering to (updatedAt, id)
+     * @return the page and the cursor of the next one
+     * @throws IllegalArgumentException if the cursor is malformed or does not match the filters
      */
-    public List<Todo> getAllTodos() {
-        return todoRepository.findAll();
+    @Transactional(readOnly = true)
+    public TodoPage<TodoView> getTodos(String ownerId, String cursor, int limit, Boolean completed, LocalDateTime updatedSince) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        TodoCursor after = cursor != null && !cursor.isEmpty() ? TodoCursor.decode(cursor) : null;
+        boolean byUpdatedAt = updatedSince != null;
+        if (after != null && after.isUpdatedAtOrdered() != byUpdatedAt) {
+            throw new IllegalArgumentException("Cursor does not match the updatedSince filter");
+        }
+        
+        // Fetch one extra row to know whether another page exists without a count query
+        List<TodoView> rows = writeBuffer.overlay(
+                todoRepository.findPage(ownerId, after, completed, updatedSince, pageSize + 1));
+        if (rows.size() <= pageSize) {
+            return new TodoPage<>(rows, null);
+        }
+        
+        List<TodoView> items = rows.subList(0, pageSize);
+        TodoView last = items.get(pageSize - 1);
+        TodoCursor next = byUpdatedAt
+                ? TodoCursor.afterUpdatedAt(last.updatedAt(), last.id())
+                : TodoCursor.afterId(last.id());
+        return new TodoPage<>(items, next.encode());
     }
     
     /**
-     * Get todo by ID
+     * Full-text search over title and description, best matches first
+     * @param ownerId owner of the todos
+     * @param text the search text
+     * @param prefix whether the last word is a prefix (type-ahead)
+     * @param cursor nextCursor from the previous page, or null for the first page
+     * @param limit page size, clamped to MAX_PAGE_SIZE
+     * @return the page and the cursor of the next one
+     * @throws IllegalArgumentException if the text has no searchable words or the cursor is malformed
+     */
+    @Transactional(readOnly = true)
+    public TodoPage<TodoView> searchTodos(String ownerId, String text, boolean prefix, String cursor, int limit) {
+        TodoSearchQuery query = TodoSearchQuery.parse(text, prefix);
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        int offset = 0;
+        if (cursor != null && !cursor.isEmpty()) {
+            try {
+                offset = Integer.parseInt(cursor);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+        // Ranked results cannot be keyset-paged, so bound how deep offsets may go
+        if (offset < 0 || offset >= MAX_SEARCH_RESULTS) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        pageSize = Math.min(pageSize, MAX_SEARCH_RESULTS - offset);
+        
+        List<TodoView> rows = writeBuffer.overlay(searchIndex.search(ownerId, query, offset, pageSize + 1));
+        if (rows.size() <= pageSize) {
+            return new TodoPage<>(rows, null);
+        }
+        return new TodoPage<>(rows.subList(0, pageSize), String.valueOf(offset + pageSize));
+    }
+    
+    /**
+     * Stream every todo of the owner with an id greater than afterId, in id order, to the given sink.
+     * Rows are projections, so the persistence context stays empty however many are written.
+     * @param ownerId owner of the todos
+     * @param afterId last id the client already has, or null to start from the beginning
+     * @param sink receives each todo in turn
+     * @return number of todos exported
+     */
+    @Transactional(readOnly = true)
+    public long exportTodos(String ownerId, Long afterId, Consumer<TodoView> sink) {
+        long exported = 0;
+        try (Stream<TodoView> todos = todoRepository.streamViewsAfterId(ownerId, afterId != null ? afterId : 0L)) {
+            for (TodoView todo : (Iterable<TodoView>) todos::iterator) {
+                sink.accept(writeBuffer.overlay(todo));
+                exported++;
+            }
+        }
+        return exported;
+    }
+    
+    /**
+     * Get todo by ID. Served from the todos cache; concurrent misses for the same ID
+     * are coalesced into a single database load. Loads may be served by a read replica, so
+     * another client's write can take up to the replica lag plus the cache TTL to show.
+     * Todos not in the hot table are looked up in the archive; todos with buffered writes are
+     * served from the write-behind buffer.
+     * @param ownerId owner of the todo
      * @param id the todo ID
      * @return the todo if found
      * @throws RuntimeException if todo not found
      */
-    public Todo getTodoById(Long id) {
-        return todoRepository.findById(id)
+    @Cacheable(cacheNames = CacheConfig.TODOS_CACHE, key = "#ownerId + ':' + #id", sync = true)
+    @Transactional(readOnly = true)
+    public TodoView getTodoById(String ownerId, Long id) {
+        return writeBuffer.find(ownerId, id)
+                .or(() -> todoRepository.findViewById(id, ownerId))
+                .or(() -> todoArchiveRepository.findViewById(id, ownerId))
                 .orElseThrow(() -> new RuntimeException("Todo with ID " + id + " not found"));
     }
     
     /**
      * Create a new todo
+     * @param ownerId owner of the new todo
      * @param createTodoDto the todo data
      * @return the created todo
      */
-    public Todo createTodo(CreateTodoDto createTodoDto) {
+    @Transactional
+    public Todo createTodo(String ownerId, CreateTodoDto createTodoDto) {
         Todo todo = new Todo();
+        todo.setOwnerId(ownerId);
         todo.setTitle(createTodoDto.getTitle());
         todo.setDescription(createTodoDto.getDescription());
+        todo.setDueAt(createTodoDto.getDueAt());
+        todo.setRemindAt(createTodoDto.getRemindAt());
         todo.setCompleted(false);
         
-        return todoRepository.save(todo);
+        todo = todoRepository.save(todo);
+        eventPublisher.publishEvent(TodoChangedEvent.created(todo));
+        return todo;
     }
     
     /**
      * Update todo
+     * @param ownerId owner of the todo
      * @param id the todo ID
      * @param updateTodoDto the update data
+     * @param expectedVersion version from the client's If-Match, or null for an unconditional update
      * @return the updated todo
+     * @throws PreconditionFailedException if expectedVersion is not the current version
      * @throws RuntimeException if todo not found
      */
-    public Todo updateTodo(Long id, UpdateTodoDto updateTodoDto) {
-        Todo todo = getTodoById(id);
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.TODOS_CACHE, key = "#ownerId + ':' + #id")
+    public Todo updateTodo(String ownerId, Long id, UpdateTodoDto updateTodoDto, Long expectedVersion) {
+        writeBuffer.flush(ownerId, List.of(id));
+        Todo todo = restoringArchived(ownerId, id, () -> todoRepository.findByIdAndOwnerId(id, ownerId))
+                .orElseThrow(() -> new RuntimeException("Todo with ID " + id + " not found"));
+        // A concurrent write between here and commit is caught by Hibernate's version check
+        checkVersion(id, todo.getVersion(), expectedVersion);
+        Boolean previousCompleted = todo.getCompleted();
         
         // Update fields if provided
         if (updateTodoDto.getTitle() != null) {
@@ -72,30 +251,193 @@ public class TodoService {
         if (updateTodoDto.getCompleted() != null) {
             todo.setCompleted(updateTodoDto.getCompleted());
         }
+        // A changed reminder time reaches ReminderScheduler through the TodoChangedEvent
+        if (updateTodoDto.getDueAt() != null) {
+            todo.setDueAt(updateTodoDto.getDueAt());
+        }
+        if (updateTodoDto.getRemindAt() != null) {
+            todo.setRemindAt(updateTodoDto.getRemindAt());
+        }
         
-        return todoRepository.save(todo);
+        todo = todoRepository.save(todo);
+        eventPublisher.publishEvent(TodoChangedEvent.updated(todo, previousCompleted));
+        return todo;
     }
     
     /**
      * Toggle todo completed status
+     * @param ownerId owner of the todo
      * @param id the todo ID
+     * @param expectedVersion version from the client's If-Match, or null for an unconditional toggle
      * @return the updated todo
+     * @throws PreconditionFailedException if expectedVersion is not the current version
      * @throws RuntimeException if todo not found
      */
-    public Todo toggleTodo(Long id) {
-        Todo todo = getTodoById(id);
-        todo.setCompleted(!todo.getCompleted());
-        return todoRepository.save(todo);
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.TODOS_CACHE, key = "#ownerId + ':' + #id")
+    public Todo toggleTodo(String ownerId, Long id, Long expectedVersion) {
+        writeBuffer.flush(ownerId, List.of(id));
+        LocalDateTime now = LocalDateTime.now();
+        Todo todo = expectedVersion == null
+                ? restoringArchived(ownerId, id, () -> todoRepository.toggleCompleted(id, ownerId, now))
+                        .orElseThrow(() -> new RuntimeException("Todo with ID " + id + " not found"))
+                : restoringArchived(ownerId, id,
+                        () -> todoRepository.toggleCompletedIfVersion(id, ownerId, expectedVersion, now))
+                        .orElseThrow(() -> conditionalWriteFailure(ownerId, id, expectedVersion));
+        eventPublisher.publishEvent(TodoChangedEvent.updated(todo, !todo.getCompleted()));
+        return todo;
     }
     
     /**
      * Delete todo
+     * @param ownerId owner of the todo
      * @param id the todo ID
+     * @param expectedVersion version from the client's If-Match, or null for an unconditional delete
+     * @throws PreconditionFailedException if expectedVersion is not the current version
      * @throws RuntimeException if todo not found
      */
-    public void deleteTodo(Long id) {
-        Todo todo = getTodoById(id);
-        todoRepository.delete(todo);
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.TODOS_CACHE, key = "#ownerId + ':' + #id")
+    public void deleteTodo(String ownerId, Long id, Long expectedVersion) {
+        writeBuffer.flush(ownerId, List.of(id));
+        LocalDateTime now = LocalDateTime.now();
+        Todo deleted = expectedVersion == null
+                ? restoringArchived(ownerId, id, () -> todoRepository.deleteTodoById(id, ownerId, now))
+                        .orElseThrow(() -> new RuntimeException("Todo with ID " + id + " not found"))
+                : restoringArchived(ownerId, id,
+                        () -> todoRepository.deleteTodoByIdAndVersion(id, ownerId, expectedVersion, now))
+                        .orElseThrow(() -> conditionalWriteFailure(ownerId, id, expectedVersion));
+        eventPublisher.publishEvent(TodoChangedEvent.deleted(deleted));
+    }
+    
+    /**
+     * Apply a mixed list of operations in a single transaction. Referenced todos are
+     * loaded with one query and all resulting inserts, updates and deletes are flushed
+     * together at commit as JDBC batches. IDs of other owners' todos are reported as not found.
+     * @param ownerId owner of the todos
+     * @param operations the operations, applied in order
+     * @return one result per operation, in the same order
+     */
+    @Transactional
+    public List<BatchOperationResult> applyBatch(String ownerId, List<BatchOperationDto> operations) {
+        Set<Long> ids = new HashSet<>();
+        for (BatchOperationDto operation : operations) {
+            if (operation.getOp() != BatchOperationDto.Type.CREATE && operation.getId() != null) {
+                ids.add(operation.getId());
+            }
+        }
+        writeBuffer.flush(ownerId, ids);
+        Map<Long, Todo> todos = todoRepository.findAllByIdInAndOwnerId(ids, ownerId).stream()
+                .collect(Collectors.toMap(Todo::getId, Function.identity()));
+        Set<Long> missing = new HashSet<>(ids);
+        missing.removeAll(todos.keySet());
+        if (!missing.isEmpty() && todoArchiveRepository.restore(missing, ownerId) > 0) {
+            todoRepository.findAllByIdInAndOwnerId(missing, ownerId).forEach(todo -> todos.put(todo.getId(), todo));
+        }
+        evictAfterCommit(ownerId, todos.keySet());
+        
+        List<BatchOperationResult> results = new ArrayList<>(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            BatchOperationDto operation = operations.get(i);
+            BatchOperationDto.Type op = operation.getOp();
+            
+            if (op == BatchOperationDto.Type.CREATE) {
+                if (operation.getTitle() == null || operation.getTitle().isBlank()) {
+                    results.add(BatchOperationResult.invalid(i, op, "Title is required"));
+                    continue;
+                }
+                Todo todo = new Todo(operation.getTitle(), operation.getDescription());
+                todo.setOwnerId(ownerId);
+                todo = todoRepository.save(todo);
+                eventPublisher.publishEvent(TodoChangedEvent.created(todo));
+                results.add(BatchOperationResult.applied(i, op, BatchOperationResult.Status.CREATED, todo));
+                continue;
+            }
+            
+            if (operation.getId() == null) {
+                results.add(BatchOperationResult.invalid(i, op, "ID is required for " + op));
+                continue;
+            }
+            Todo todo = todos.get(operation.getId());
+            if (todo == null) {
+                results.add(BatchOperationResult.notFound(i, op, operation.getId()));
+                continue;
+            }
+            
+            // Loaded entities are managed, so changes are picked up by dirty checking at flush
+            switch (op) {
+                case UPDATE -> {
+                    Boolean previousCompleted = todo.getCompleted();
+                    if (operation.getTitle() != null) {
+                        todo.setTitle(operation.getTitle());
+                    }
+                    if (operation.getDescription() != null) {
+                        todo.setDescription(operation.getDescription());
+                    }
+                    if (operation.getCompleted() != null) {
+                        todo.setCompleted(operation.getCompleted());
+                    }
+                    eventPublisher.publishEvent(TodoChangedEvent.updated(todo, previousCompleted));
+                    results.add(BatchOperationResult.applied(i, op, BatchOperationResult.Status.UPDATED, todo));
+                }
+                case TOGGLE -> {
+                    Boolean previousCompleted = todo.getCompleted();
+                    todo.setCompleted(!previousCompleted);
+                    eventPublisher.publishEvent(TodoChangedEvent.updated(todo, previousCompleted));
+                    results.add(BatchOperationResult.applied(i, op, BatchOperationResult.Status.TOGGLED, todo));
+                }
+                case DELETE -> {
+                    todos.remove(todo.getId());
+                    todoRepository.delete(todo);
+                    // Ids are never reused, so a plain insert (batched at flush) cannot conflict
+                    entityManager.persist(new TodoTombstone(todo.getId(), ownerId, LocalDateTime.now()));
+                    eventPublisher.publishEvent(TodoChangedEvent.deleted(todo));
+                    results.add(BatchOperationResult.deleted(i, todo.getId()));
+                }
+                default -> throw new IllegalStateException("Unhandled operation " + op);
+            }
+        }
+        return results;
+    }
+    
+    /**
+     * Run a write against the todos table; if it finds nothing, move the todo back from the
+     * archive (when it is there) and run it again. Misses are rare, so hits pay nothing extra.
+     */
+    private <T> Optional<T> restoringArchived(String ownerId, Long id, Supplier<Optional<T>> write) {
+        Optional<T> result = write.get();
+        if (result.isEmpty() && todoArchiveRepository.restore(List.of(id), ownerId) > 0) {
+            return write.get();
+        }
+        return result;
+    }
+    
+    private void evictAfterCommit(String ownerId, Set<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        // Same keys as @Cacheable on getTodoById
+        List<String> evicted = ids.stream().map(id -> ownerId + ":" + id).toList();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evicted.forEach(todoCache::evict);
+            }
+        });
+    }
+    
+    private void checkVersion(Long id, Long currentVersion, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(currentVersion)) {
+            throw new PreconditionFailedException("Todo with ID " + id + " is at version " + currentVersion
+                    + ", not " + expectedVersion);
+        }
+    }
+    
+    // Only reached when a conditional statement matched no row: tell "gone" apart from "changed"
+    private RuntimeException conditionalWriteFailure(String ownerId, Long id, Long expectedVersion) {
+        if (!todoRepository.existsByIdAndOwnerId(id, ownerId)) {
+            return new RuntimeException("Todo with ID " + id + " not found");
+        }
+        return new PreconditionFailedException("Todo with ID " + id + " is no longer at version " + expectedVersion);
     }
 }
-
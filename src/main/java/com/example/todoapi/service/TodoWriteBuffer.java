@@ -0,0 +1,845 @@
+package com.example.todoapi.service;
+
+import com.example.todoapi.config.CacheConfig;
+import com.example.todoapi.datasource.ReadRouting;
+import com.example.todoapi.dto.TodoView;
+import com.example.todoapi.dto.UpdateTodoDto;
+import com.example.todoapi.entity.Todo;
+import com.example.todoapi.event.TodoChangedEvent;
+import com.example.todoapi.repository.TodoArchiveRepository;
+import com.example.todoapi.repository.TodoRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Optional write-behind for unconditional toggles and updates (app.write-behind.enabled).
+ * Instead of a transaction and an UPDATE per request, writes to the same todo are merged in
+ * memory, toggles by parity and fields last writer wins, and a flusher thread writes the merged
+ * rows every flush-interval as JDBC batches. A hot todo toggled a hundred times between flushes
+ * costs one statement; an even number of toggles still bumps its version and updated_at.
+ * <p>
+ * Buffered todos are served from here, by ID and in pages, search results and exports, so
+ * clients read their own writes. Filters and ordering still see the flushed rows until the next
+ * flush. {@link TodoChangedEvent}s are published when a write is buffered, so stats, caches and
+ * reminders follow at once. Conditional writes, deletes and batches go to the table directly,
+ * after flushing the todos they touch in their own transaction; writes buffered for those
+ * todos meanwhile wait for it to complete, so they never build on the row it replaces.
+ * <p>
+ * A write that was acknowledged is never given up on: a failed flush buffers it again for the
+ * next one, however long the database is away. Once max-pending todos are waiting, a writer
+ * flushes before buffering, and fails if that flush does, so the buffer stays bounded through an
+ * outage and new writes are refused rather than acknowledged. On shutdown the buffer is flushed
+ * after the web server has stopped taking requests; what cannot be written then is saved to
+ * spill-file and written at the next startup, provided the file survives until then: keep it
+ * on a volume, not in a container's own filesystem. Writes still buffered when the process dies
+ * are lost, and the merge assumes this instance is the only one writing a todo, so leave it off
+ * unless both are acceptable.
+ */
+@Component
+public class TodoWriteBuffer implements SmartLifecycle {
+    
+    private static final Logger log = LoggerFactory.getLogger(TodoWriteBuffer.class);
+    
+    // Failed flushes of one todo's writes after which they are reported as stuck
+    private static final int STUCK_FLUSH_ATTEMPTS = 3;
+    
+    // Unset fields keep the row's value; completed is set explicitly, flipped, or both in that order
+    private static final String MERGE_UPDATE = "UPDATE todos SET title = coalesce(?, title), "
+            + "description = coalesce(?, description), due_at = coalesce(?, due_at), "
+            + "remind_at = coalesce(?, remind_at), "
+            + "completed_at = CASE WHEN (coalesce(?, completed, false) <> ?) AND NOT coalesce(completed, false) "
+            + "THEN ? ELSE completed_at END, completed = (coalesce(?, completed, false) <> ?), "
+            + "updated_at = ?, version = version + ? "
+            + "WHERE id = ? AND owner_id = ?";
+    
+    // A replayed write applies only to the version it was merged onto, so replaying it twice is harmless
+    private static final String REPLAY_UPDATE = MERGE_UPDATE + " AND version = coalesce(?, version)";
+    
+    /**
+     * The merged effect of one or more writes to a todo
+     * @param title new title, or null to keep it
+     * @param description new description, or null to keep it
+     * @param dueAt new due time, or null to keep it
+     * @param remindAt new reminder time, or null to keep it
+     * @param completed last completed value set explicitly, or null if only toggled
+     * @param flip whether completed flips after that, i.e. an odd number of toggles followed
+     * @param count number of writes merged, added to the version
+     * @param at time of the last write, stamped as completed_at when the todo becomes completed
+     */
+    record Mutation(String title, String description, LocalDateTime dueAt, LocalDateTime remindAt,
+                    Boolean completed, boolean flip, int count, LocalDateTime at) {
+        
+        static Mutation toggle(LocalDateTime now) {
+            return new Mutation(null, null, null, null, null, true, 1, now);
+        }
+        
+        static Mutation update(UpdateTodoDto dto, LocalDateTime now) {
+            return new Mutation(dto.getTitle(), dto.getDescription(), dto.getDueAt(), dto.getRemindAt(),
+                    dto.getCompleted(), false, 1, now);
+        }
+        
+        /**
+         * This mutation followed by next
+         */
+        Mutation then(Mutation next) {
+            return new Mutation(
+                    next.title != null ? next.title : title,
+                    next.description != null ? next.description : description,
+                    next.dueAt != null ? next.dueAt : dueAt,
+                    next.remindAt != null ? next.remindAt : remindAt,
+                    next.completed != null ? next.completed : completed,
+                    next.completed != null ? next.flip : flip != next.flip,
+                    count + next.count,
+                    next.at);
+        }
+    }
+    
+    /**
+     * A buffered mutation as written to the spill file
+     * @param baseVersion version of the row the mutation applies to; null in files from before
+     *                    it was recorded, whose writes are applied whatever the version
+     */
+    record SpilledWrite(String ownerId, Long id, Mutation mutation, Long baseVersion) {}
+    
+    private static final class PendingWrite {
+        
+        final String ownerId;
+        
+        final Long id;
+        
+        Mutation mutation;
+        
+        // The todo with every buffered write applied; null for writes replayed from the spill file
+        final Todo state;
+        
+        // For writes replayed from the spill file, the version the row must be at
+        final Long baseVersion;
+        
+        int attempts;
+        
+        PendingWrite(String ownerId, Long id, Mutation mutation, Todo state) {
+            this(ownerId, id, mutation, state, null);
+        }
+        
+        PendingWrite(String ownerId, Long id, Mutation mutation, Todo state, Long baseVersion) {
+            this.ownerId = ownerId;
+            this.id = id;
+            this.mutation = mutation;
+            this.state = state;
+            this.baseVersion = baseVersion;
+        }
+    }
+    
+    private static final class Shard {
+        
+        final ReentrantLock lock = new ReentrantLock();
+        
+        final Map<Long, PendingWrite> pending = new HashMap<>();
+        
+        // Drained by a flush whose transaction has not committed yet, so still newer than the table
+        final Map<Long, PendingWrite> inFlight = new HashMap<>();
+        
+        // Bumped whenever a flush of this shard ends, or a direct write starts or ends; a base
+        // row read across one is reloaded
+        long epoch;
+        
+        // Todos with direct writes whose transactions have not completed, and how many
+        final Map<Long, Integer> directWrites = new HashMap<>();
+        
+        // Signalled when one of those completes
+        final Condition directWriteDone = lock.newCondition();
+    }
+    
+    private final TodoRepository todoRepository;
+    
+    private final TodoArchiveRepository todoArchiveRepository;
+    
+    private final DataSource dataSource;
+    
+    private final TransactionTemplate transactionTemplate;
+    
+    private final Cache todoCache;
+    
+    private final ApplicationEventPublisher eventPublisher;
+    
+    private final ObjectMapper objectMapper;
+    
+    private final boolean enabled;
+    
+    private final Duration flushInterval;
+    
+    private final int maxPending;
+    
+    private final int batchSize;
+    
+    private final Path spillFile;
+    
+    private final Shard[] shards;
+    
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    
+    // One flush at a time, so drained batches reach the table in the order they were drained
+    private final ReentrantLock flushLock = new ReentrantLock();
+    
+    private final Counter buffered;
+    
+    private final Counter flushed;
+    
+    private final Counter dropped;
+    
+    private volatile boolean running;
+    
+    private Thread flusher;
+    
+    @Autowired
+    public TodoWriteBuffer(TodoRepository todoRepository, TodoArchiveRepository todoArchiveRepository,
+                           DataSource dataSource, PlatformTransactionManager transactionManager,
+                           CacheManager cacheManager, ApplicationEventPublisher eventPublisher,
+                           ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                           @Value("${app.write-behind.enabled:false}") boolean enabled,
+                           @Value("${app.write-behind.shards:16}") int shards,
+                           @Value("${app.write-behind.flush-interval:PT0.05S}") Duration flushInterval,
+                           @Value("${app.write-behind.max-pending:10000}") int maxPending,
+                           @Value("${app.write-behind.batch-size:500}") int batchSize,
+                           @Value("${app.write-behind.spill-file:write-behind-spill.ndjson}") Path spillFile) {
+        this.todoRepository = todoRepository;
+        this.todoArchiveRepository = todoArchiveRepository;
+        this.dataSource = dataSource;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.todoCache = cacheManager.getCache(CacheConfig.TODOS_CACHE);
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.flushInterval = flushInterval;
+        this.maxPending = maxPending;
+        this.batchSize = batchSize;
+        this.spillFile = spillFile;
+        this.shards = new Shard[Math.max(1, shards)];
+        for (int i = 0; i < this.shards.length; i++) {
+            this.shards[i] = new Shard();
+        }
+        this.buffered = Counter.builder("todo.write_behind.buffered")
+                .description("Toggles and updates merged into the write-behind buffer")
+                .register(meterRegistry);
+        this.flushed = Counter.builder("todo.write_behind.flushed")
+                .description("Rows written by write-behind flushes")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("todo.write_behind.dropped")
+                .description("Buffered writes to todos deleted before the flush, or lost with the spill file")
+                .register(meterRegistry);
+        Gauge.builder("todo.write_behind.pending", pendingCount, AtomicInteger::get)
+                .description("Todos with buffered writes waiting for the next flush")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Whether toggles and updates should be buffered; false when write-behind is disabled
+     * and once shutdown has started, after which writes go to the table directly
+     */
+    public boolean isEnabled() {
+        return enabled && running;
+    }
+    
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        replaySpillFile();
+        running = true;
+        flusher = new Thread(this::runFlusher, "todo-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+    
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        Thread thread = flusher;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(flushInterval.toMillis() * 2 + 1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Final write-behind flush failed", e);
+        }
+        spill();
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    // Start before and stop after the web server, so no request can buffer a write after the final flush
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+    
+    /**
+     * Buffer a toggle of the todo's completed status
+     * @param ownerId owner of the todo
+     * @param id the todo ID
+     * @return the todo with every buffered write applied
+     * @throws RuntimeException if todo not found
+     */
+    public Todo toggle(String ownerId, Long id) {
+        LocalDateTime now = LocalDateTime.now();
+        return write(ownerId, id, Mutation.toggle(now), todo -> todo.setCompleted(!todo.getCompleted()));
+    }
+    
+    /**
+     * Buffer an update; null fields are left unchanged, as with {@link TodoService#updateTodo}
+     * @param ownerId owner of the todo
+     * @param id the todo ID
+     * @param updateTodoDto the update data
+     * @return the todo with every buffered write applied
+     * @throws RuntimeException if todo not found
+     */
+    public Todo update(String ownerId, Long id, UpdateTodoDto updateTodoDto) {
+        LocalDateTime now = LocalDateTime.now();
+        return write(ownerId, id, Mutation.update(updateTodoDto, now), todo -> {
+            if (updateTodoDto.getTitle() != null) {
+                todo.setTitle(updateTodoDto.getTitle());
+            }
+            if (updateTodoDto.getDescription() != null) {
+                todo.setDescription(updateTodoDto.getDescription());
+            }
+            if (updateTodoDto.getCompleted() != null) {
+                todo.setCompleted(updateTodoDto.getCompleted());
+            }
+            if (updateTodoDto.getDueAt() != null) {
+                todo.setDueAt(updateTodoDto.getDueAt());
+            }
+            if (updateTodoDto.getRemindAt() != null) {
+                todo.setRemindAt(updateTodoDto.getRemindAt());
+            }
+        });
+    }
+    
+    /**
+     * The buffered state of a todo, if it has writes not yet committed to the table
+     */
+    public Optional<TodoView> find(String ownerId, Long id) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Shard shard = shard(id);
+        shard.lock.lock();
+        try {
+            PendingWrite entry = shard.pending.get(id);
+            if (entry == null) {
+                entry = shard.inFlight.get(id);
+            }
+            return entry != null && entry.state != null && entry.ownerId.equals(ownerId)
+                    ? Optional.of(TodoView.of(entry.state))
+                    : Optional.empty();
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+    
+    /**
+     * The todo as read from the table, or its buffered state if newer
+     */
+    public TodoView overlay(TodoView todo) {
+        return find(todo.ownerId(), todo.id()).orElse(todo);
+    }
+    
+    /**
+     * The todos as read from the table, each replaced by its buffered state if newer
+     */
+    public List<TodoView> overlay(List<TodoView> todos) {
+        if (!enabled || todos.isEmpty()) {
+            return todos;
+        }
+        List<TodoView> result = new ArrayList<>(todos.size());
+        for (TodoView todo : todos) {
+            result.add(overlay(todo));
+        }
+        return result;
+    }
+    
+    /**
+     * Write the buffered mutations of the given todos in the caller's transaction, so a direct
+     * write that follows applies on top of them. They stay visible here until it commits, and
+     * are buffered again if it rolls back. Until the caller's transaction completes, writes
+     * buffered for these todos wait for it rather than build on a row it is about to change.
+     * @param ownerId owner of the todos
+     * @param ids the todo IDs
+     */
+    public void flush(String ownerId, Collection<Long> ids) {
+        if (!enabled || ids.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            beginDirectWrite(ids);
+        }
+        flushLock.lock();
+        try {
+            List<PendingWrite> drained = new ArrayList<>();
+            for (Long id : ids) {
+                Shard shard = shard(id);
+                shard.lock.lock();
+                try {
+                    PendingWrite entry = shard.pending.get(id);
+                    if (entry != null && entry.ownerId.equals(ownerId)) {
+                        drain(shard, entry);
+                        drained.add(entry);
+                    }
+                } finally {
+                    shard.lock.unlock();
+                }
+            }
+            if (!drained.isEmpty()) {
+                drained.sort(Comparator.comparing(entry -> entry.id));
+                writeInTransaction(drained);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+    
+    /**
+     * Write every buffered mutation, batch-size todos per transaction. A batch that fails
+     * is buffered again and retried by the next flush.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<PendingWrite> drained = new ArrayList<>();
+            for (Shard shard : shards) {
+                shard.lock.lock();
+                try {
+                    for (Iterator<PendingWrite> it = shard.pending.values().iterator(); it.hasNext(); ) {
+                        PendingWrite entry = it.next();
+                        it.remove();
+                        pendingCount.decrementAndGet();
+                        shard.inFlight.put(entry.id, entry);
+                        drained.add(entry);
+                    }
+                } finally {
+                    shard.lock.unlock();
+                }
+            }
+            // Rows are locked in id order, like the flushes of other transactions
+            drained.sort(Comparator.comparing(entry -> entry.id));
+            RuntimeException failure = null;
+            for (int from = 0; from < drained.size(); from += batchSize) {
+                try {
+                    writeInTransaction(drained.subList(from, Math.min(from + batchSize, drained.size())));
+                } catch (RuntimeException e) {
+                    failure = e;
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+    
+    private void beginDirectWrite(Collection<Long> todoIds) {
+        List<Long> ids = List.copyOf(todoIds);
+        for (Long id : ids) {
+            Shard shard = shard(id);
+            shard.lock.lock();
+            try {
+                shard.directWrites.merge(id, 1, Integer::sum);
+                shard.epoch++;
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                for (Long id : ids) {
+                    Shard shard = shard(id);
+                    shard.lock.lock();
+                    try {
+                        shard.directWrites.computeIfPresent(id, (key, count) -> count > 1 ? count - 1 : null);
+                        shard.epoch++;
+                        shard.directWriteDone.signalAll();
+                    } finally {
+                        shard.lock.unlock();
+                    }
+                }
+            }
+        });
+    }
+    
+    private Todo write(String ownerId, Long id, Mutation mutation, Consumer<Todo> change) {
+        if (pendingCount.get() >= maxPending) {
+            // Throws if the database is away, before this write is acknowledged
+            flush();
+        }
+        Shard shard = shard(id);
+        Todo loaded = null;
+        long loadedEpoch = 0;
+        while (true) {
+            Todo written = null;
+            Boolean previousCompleted = null;
+            shard.lock.lock();
+            try {
+                PendingWrite entry = shard.pending.get(id);
+                // A row read while a direct write is open may miss it once that commits
+                while (entry == null && shard.directWrites.containsKey(id)) {
+                    shard.directWriteDone.awaitUninterruptibly();
+                    entry = shard.pending.get(id);
+                }
+                if (entry == null) {
+                    PendingWrite flushing = shard.inFlight.get(id);
+                    Todo base = flushing != null && flushing.state != null ? flushing.state
+                            : loaded != null && loadedEpoch == shard.epoch ? loaded
+                            : null;
+                    if (base == null) {
+                        loadedEpoch = shard.epoch;
+                    } else if (base.getOwnerId().equals(ownerId)) {
+                        entry = new PendingWrite(ownerId, id, null, base.copy());
+                        shard.pending.put(id, entry);
+                        pendingCount.incrementAndGet();
+                    }
+                }
+                if (entry != null) {
+                    if (!entry.ownerId.equals(ownerId)) {
+                        throw notFound(id);
+                    }
+                    previousCompleted = entry.state.getCompleted();
+                    change.accept(entry.state);
+                    entry.state.setUpdatedAt(mutation.at());
+                    entry.state.setVersion(entry.state.getVersion() + 1);
+                    entry.mutation = entry.mutation == null ? mutation : entry.mutation.then(mutation);
+                    written = entry.state.copy();
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+            
+            if (written == null) {
+                // Loaded outside the lock; a flush of this shard meanwhile means loading again
+                loaded = load(ownerId, id);
+                continue;
+            }
+            buffered.increment();
+            todoCache.evict(ownerId + ":" + id);
+            eventPublisher.publishEvent(TodoChangedEvent.updated(written, previousCompleted));
+            return written;
+        }
+    }
+    
+    private Todo load(String ownerId, Long id) {
+        // The replica may not have this client's direct writes yet
+        return ReadRouting.onPrimary(() -> todoRepository.findByIdAndOwnerId(id, ownerId)
+                        .or(() -> restoreArchived(ownerId, id)))
+                .orElseThrow(() -> notFound(id));
+    }
+    
+    private Optional<Todo> restoreArchived(String ownerId, Long id) {
+        Integer restored = transactionTemplate.execute(status -> todoArchiveRepository.restore(List.of(id), ownerId));
+        return restored != null && restored > 0 ? todoRepository.findByIdAndOwnerId(id, ownerId) : Optional.empty();
+    }
+    
+    private void drain(Shard shard, PendingWrite entry) {
+        shard.pending.remove(entry.id);
+        pendingCount.decrementAndGet();
+        shard.inFlight.put(entry.id, entry);
+    }
+    
+    /**
+     * Write drained mutations in the current transaction, or a new one. The entries leave the
+     * in-flight maps when it commits, or are buffered again when it rolls back.
+     */
+    private void writeInTransaction(List<PendingWrite> entries) {
+        transactionTemplate.executeWithoutResult(status -> {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        land(entries);
+                    } else {
+                        requeue(entries);
+                    }
+                }
+            });
+            for (PendingWrite entry : writeRestoringArchived(entries, false)) {
+                log.warn("Todo {} was deleted before its buffered writes were flushed", entry.id);
+                dropped.increment();
+            }
+        });
+    }
+    
+    /**
+     * Write the entries in the current transaction; those whose todo was archived since it was
+     * loaded are moved back and written again
+     * @return the entries that still matched no row
+     */
+    private List<PendingWrite> writeRestoringArchived(List<PendingWrite> entries, boolean replay) {
+        List<PendingWrite> missing = writeBatch(entries, replay);
+        List<PendingWrite> restored = new ArrayList<>();
+        List<PendingWrite> gone = new ArrayList<>();
+        for (PendingWrite entry : missing) {
+            if (todoArchiveRepository.restore(List.of(entry.id), entry.ownerId) > 0) {
+                restored.add(entry);
+            } else {
+                gone.add(entry);
+            }
+        }
+        if (!restored.isEmpty()) {
+            gone.addAll(writeBatch(restored, replay));
+        }
+        return gone;
+    }
+    
+    /**
+     * Run MERGE_UPDATE, or REPLAY_UPDATE with each entry's base version, as one JDBC batch
+     * @return the entries that matched no row
+     */
+    private List<PendingWrite> writeBatch(List<PendingWrite> entries, boolean replay) {
+        String sql = replay ? REPLAY_UPDATE : MERGE_UPDATE;
+        // Stamped with the flush time rather than the write's, so the change feed's settle
+        // window only has to cover the flush itself
+        Timestamp flushedAt = Timestamp.valueOf(LocalDateTime.now());
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (PendingWrite entry : entries) {
+                Mutation mutation = entry.mutation;
+                statement.setObject(1, mutation.title(), Types.VARCHAR);
+                statement.setObject(2, mutation.description(), Types.VARCHAR);
+                statement.setObject(3, timestamp(mutation.dueAt()), Types.TIMESTAMP);
+                statement.setObject(4, timestamp(mutation.remindAt()), Types.TIMESTAMP);
+                statement.setObject(5, mutation.completed(), Types.BOOLEAN);
+                statement.setBoolean(6, mutation.flip());
+                statement.setTimestamp(7, timestamp(mutation.at()));
+                statement.setObject(8, mutation.completed(), Types.BOOLEAN);
+                statement.setBoolean(9, mutation.flip());
+                statement.setTimestamp(10, flushedAt);
+                statement.setInt(11, mutation.count());
+                statement.setLong(12, entry.id);
+                statement.setString(13, entry.ownerId);
+                if (replay) {
+                    statement.setObject(14, entry.baseVersion, Types.BIGINT);
+                }
+                statement.addBatch();
+            }
+            int[] counts = statement.executeBatch();
+            List<PendingWrite> missing = new ArrayList<>();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    missing.add(entries.get(i));
+                } else {
+                    flushed.increment();
+                }
+            }
+            return missing;
+        } catch (SQLException e) {
+            throw new UncategorizedSQLException("Write-behind flush", sql, e);
+        }
+    }
+    
+    private void land(List<PendingWrite> entries) {
+        for (PendingWrite entry : entries) {
+            Shard shard = shard(entry.id);
+            shard.lock.lock();
+            try {
+                shard.inFlight.remove(entry.id, entry);
+                shard.epoch++;
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+    }
+    
+    private void requeue(List<PendingWrite> entries) {
+        for (PendingWrite entry : entries) {
+            Shard shard = shard(entry.id);
+            shard.lock.lock();
+            try {
+                shard.inFlight.remove(entry.id, entry);
+                shard.epoch++;
+                // Kept however often it fails: the client was told it succeeded, and stats, caches
+                // and reminders already count it. Shutdown spills whatever is still here.
+                if (++entry.attempts == STUCK_FLUSH_ATTEMPTS) {
+                    log.error("Buffered writes to todo {} failed to flush {} times; still retrying: {}",
+                            entry.id, entry.attempts, entry.mutation);
+                }
+                // Writes buffered since the drain apply on top of the failed ones
+                PendingWrite newer = shard.pending.get(entry.id);
+                if (newer == null) {
+                    shard.pending.put(entry.id, entry);
+                    pendingCount.incrementAndGet();
+                } else {
+                    newer.mutation = entry.mutation.then(newer.mutation);
+                    newer.attempts = entry.attempts;
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+    }
+    
+    private void runFlusher() {
+        while (running) {
+            try {
+                Thread.sleep(flushInterval.toMillis());
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                log.warn("Write-behind flush failed; the writes stay buffered", e);
+            }
+        }
+    }
+    
+    /**
+     * Save whatever the final flush could not write, one JSON object per line
+     */
+    private void spill() {
+        List<SpilledWrite> remaining = new ArrayList<>();
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                // Buffered entries always have a state: its version less the writes merged
+                shard.pending.values().forEach(entry -> remaining.add(new SpilledWrite(entry.ownerId, entry.id,
+                        entry.mutation, entry.state.getVersion() - entry.mutation.count())));
+                shard.pending.clear();
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        pendingCount.set(0);
+        if (remaining.isEmpty()) {
+            return;
+        }
+        try {
+            Files.createDirectories(spillFile.toAbsolutePath().getParent());
+            try (BufferedWriter writer = Files.newBufferedWriter(spillFile)) {
+                for (SpilledWrite write : remaining) {
+                    writer.write(objectMapper.writeValueAsString(write));
+                    writer.newLine();
+                }
+                log.warn("Saved {} unflushed todo writes to {}", remaining.size(), spillFile);
+            }
+        } catch (IOException e) {
+            log.error("Could not save {} unflushed todo writes to {}; they are lost", remaining.size(), spillFile, e);
+            dropped.increment(remaining.size());
+        }
+    }
+    
+    /**
+     * Write what the last shutdown saved to the spill file. The file is kept if that fails,
+     * so the next startup tries again. Each write applies only to the version it was merged
+     * onto, so a file replayed twice, say because it could not be deleted after the commit,
+     * changes nothing the second time. Todos archived meanwhile are moved back first.
+     */
+    private void replaySpillFile() {
+        if (!Files.exists(spillFile)) {
+            return;
+        }
+        List<PendingWrite> writes = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(spillFile)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    SpilledWrite write = objectMapper.readValue(line, SpilledWrite.class);
+                    writes.add(new PendingWrite(write.ownerId(), write.id(), write.mutation(), null,
+                            write.baseVersion()));
+                }
+            }
+        } catch (IOException e) {
+            log.error("Could not read the write-behind spill file {}", spillFile, e);
+            return;
+        }
+        try {
+            writes.sort(Comparator.comparing(entry -> entry.id));
+            transactionTemplate.executeWithoutResult(status -> {
+                for (PendingWrite entry : writeRestoringArchived(writes, true)) {
+                    Long version = todoRepository.findByIdAndOwnerId(entry.id, entry.ownerId)
+                            .map(Todo::getVersion).orElse(null);
+                    if (version == null) {
+                        log.warn("Todo {} was deleted before its spilled writes were replayed", entry.id);
+                        dropped.increment();
+                    } else if (entry.baseVersion != null && version == entry.baseVersion + entry.mutation.count()) {
+                        log.info("Spilled writes to todo {} were already replayed", entry.id);
+                    } else {
+                        log.warn("Todo {} changed before its spilled writes were replayed; they are dropped",
+                                entry.id);
+                        dropped.increment();
+                    }
+                }
+            });
+            Files.delete(spillFile);
+            log.info("Replayed {} todo writes from {}", writes.size(), spillFile);
+        } catch (RuntimeException | IOException e) {
+            log.error("Could not replay the write-behind spill file {}", spillFile, e);
+        }
+    }
+    
+    private Shard shard(Long id) {
+        return shards[Math.floorMod(Long.hashCode(id), shards.length)];
+    }
+    
+    private static Timestamp timestamp(LocalDateTime time) {
+        return time != null ? Timestamp.valueOf(time) : null;
+    }
+    
+    private static RuntimeException notFound(Long id) {
+        return new RuntimeException("Todo with ID " + id + " not found");
+    }
+}
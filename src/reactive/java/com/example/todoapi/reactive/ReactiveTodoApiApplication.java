@@ -0,0 +1,17 @@
+package com.example.todoapi.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * Non-blocking variant of the todo API (WebFlux + R2DBC), built from src/reactive with
+ * ./gradlew reactiveBootJar. Serves the same JSON contract as the servlet stack for the
+ * core todo routes, against the same schema.
+ */
+@SpringBootApplication
+public class ReactiveTodoApiApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(ReactiveTodoApiApplication.class, args);
+    }
+}
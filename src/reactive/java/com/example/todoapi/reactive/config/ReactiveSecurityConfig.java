@@ -0,0 +1,36 @@
+package com.example.todoapi.reactive.config;
+
+import com.example.todoapi.reactive.security.ReactiveJwtAuthenticationFilter;
+import com.example.todoapi.security.JwtTokenVerifier;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Same bearer-token rules as the servlet stack's SecurityConfig, so the two can serve one
+ * database side by side: every todo route runs as a token's subject, or as the anonymous
+ * owner when tokens are optional.
+ */
+@Configuration
+public class ReactiveSecurityConfig {
+    
+    // Outside the reactive package, so not picked up by component scanning
+    @Bean
+    public JwtTokenVerifier jwtTokenVerifier(@Value("${jwt.secret:}") String secret,
+                                             @Value("${jwt.required:true}") boolean jwtRequired,
+                                             MeterRegistry meterRegistry,
+                                             @Value("${jwt.cache.max-size:100000}") long maxSize,
+                                             @Value("${jwt.cache.max-ttl:10m}") Duration maxTtl) {
+        return new JwtTokenVerifier(secret, jwtRequired, meterRegistry, maxSize, maxTtl);
+    }
+    
+    @Bean
+    public ReactiveJwtAuthenticationFilter jwtAuthenticationFilter(JwtTokenVerifier jwtTokenVerifier,
+                                                                   @Value("${jwt.required:true}") boolean jwtRequired,
+                                                                   @Value("${jwt.anonymous-owner:anonymous}") String anonymousOwner) {
+        return new ReactiveJwtAuthenticationFilter(jwtTokenVerifier, jwtRequired ? null : anonymousOwner);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.todoapi.reactive.controller;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@CrossOrigin(origins = "*")
+public class ReactiveAppController {
+    
+    private final DatabaseClient databaseClient;
+    
+    private final Duration validationTimeout;
+    
+    public ReactiveAppController(DatabaseClient databaseClient,
+                                 @Value("${app.health.validation-timeout:1s}") Duration validationTimeout) {
+        this.databaseClient = databaseClient;
+        this.validationTimeout = validationTimeout;
+    }
+    
+    @GetMapping("/")
+    public String getHello() {
+        return "Todo API is running!";
+    }
+    
+    @GetMapping("/health/live")
+    public ResponseEntity<Map<String, Object>> getLiveness() {
+        Map<String, Object> health = health();
+        health.put("status", "ok");
+        return ResponseEntity.ok(health);
+    }
+    
+    @GetMapping({"/health", "/health/ready"})
+    public Mono<ResponseEntity<Map<String, Object>>> getHealth() {
+        return databaseClient.sql("SELECT 1").fetch().first()
+                .timeout(validationTimeout)
+                .map(ignored -> {
+                    Map<String, Object> health = health();
+                    health.put("database", "connected");
+                    health.put("status", "ok");
+                    return ResponseEntity.ok(health);
+                })
+                .onErrorResume(e -> {
+                    Map<String, Object> health = health();
+                    health.put("database", "disconnected");
+                    health.put("status", "error");
+                    health.put("error", e.getMessage());
+                    return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(health));
+                });
+    }
+    
+    private static Map<String, Object> health() {
+        Map<String, Object> health = new HashMap<>();
+        health.put("service", "Todo API");
+        health.put("version", "1.0.0");
+        health.put("timestamp", LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        return health;
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.todoapi.reactive.controller;
+
+import com.example.todoapi.dto.CreateTodoDto;
+import com.example.todoapi.dto.UpdateTodoDto;
+import com.example.todoapi.exception.PreconditionFailedException;
+import com.example.todoapi.reactive.entity.Todo;
+import com.example.todoapi.reactive.security.ReactiveJwtAuthenticationFilter;
+import com.example.todoapi.reactive.service.ReactiveTodoService;
+import jakarta.validation.Valid;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The TodoController routes on WebFlux, with the same request parameters, status codes and
+ * JSON envelope. Check both stacks with bench/contract-check.sh. The owner comes from
+ * {@link ReactiveJwtAuthenticationFilter}.
+ */
+@RestController
+@RequestMapping("/api/todos")
+@CrossOrigin(origins = "*")
+public class ReactiveTodoController {
+    
+    private static final String NDJSON = "application/x-ndjson";
+    
+    private final ReactiveTodoService todoService;
+    
+    public ReactiveTodoController(ReactiveTodoService todoService) {
+        this.todoService = todoService;
+    }
+    
+    @GetMapping
+    public Mono<ResponseEntity<Map<String, Object>>> getAllTodos(
+            @RequestAttribute(ReactiveJwtAuthenticationFilter.OWNER_ATTRIBUTE) String ownerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + ReactiveTodoService.DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(required = false) Boolean completed,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedSince) {
+        return todoService.getTodos(ownerId, cursor, limit, completed, updatedSince)
+                .map(page -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("success", true);
+                    response.put("data", page.getItems());
+                    response.put("nextCursor", page.getNextCursor());
+                    return ResponseEntity.ok(response);
+                })
+                .onErrorResume(IllegalArgumentException.class, e -> error(HttpStatus.BAD_REQUEST, e));
+    }
+    
+    /**
+     * Streams as the client reads: each row is written as soon as it arrives and the
+     * database fetch only moves ahead as fast as the socket drains.
+     */
+    @GetMapping(path = "/export", produces = NDJSON)
+    public Flux<Todo> exportTodos(
+            @RequestAttribute(ReactiveJwtAuthenticationFilter.OWNER_ATTRIBUTE) String ownerId,
+            @RequestParam(required = false) Long afterId) {
+        return todoService.exportTodos(ownerId, afterId);
+    }
+    
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Map<String, Object>>> getTodoById(
+            @RequestAttribute(ReactiveJwtAuthenticationFilter.OWNER_ATTRIBUTE) String ownerId,
+            @PathVariable Long id, ServerWebExchange exchange) {
+        return todoService.getTodoById(ownerId, id)
+                .map(todo -> {
+                    // Sets the 304 status itself when If-None-Match matches
+                    if (exchange.checkNotModified(etag(todo))) {
+                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).<Map<String, Object>>build();
+                    }
+                    return ResponseEntity.ok().eTag(etag(todo)).body(success(todo));
+                })
+                .onErrorResume(e -> error(HttpStatus.NOT_FOUND, e));
+    }
+    
+    @PostMapping
+    public Mono<ResponseEntity<Map<String, Object>>> createTodo(
+            @RequestAttribute(ReactiveJwtAuthenticationFilter.OWNER_ATTRIBUTE) String ownerId,
+            @Valid @RequestBody CreateTodoDto createTodoDto) {
+        return todoService.createTodo(ownerId, createTodoDto)
+                .map(todo -> ResponseEntity.status(HttpStatus.CREATED).eTag(etag(todo)).body(success(todo)));
+    }
+    
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<Map<String, Object>>> updateTodo(
+            @RequestAttribute(ReactiveJwtAuthenticationFilter.OWNER_ATTRIBUTE) String ownerId,
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody UpdateTodoDto updateTodoDto) {
+        return Mono.defer(() -> todoService.updateTodo(ownerId, id, updateTodoDto, parseIfMatch(ifMatch)))
+                .map(todo -> ResponseEntity.ok().eTag(etag(todo)).body(success(todo)))
+                .onErrorResume(PreconditionFailedException.class, e -> error(HttpStatus.PRECONDITION_FAILED, e))
+                .onErrorResume(OptimisticLockingFailureException.class, e -> error(HttpStatus.CONFLICT,
+                        new RuntimeException("Todo with ID " + id + " was modified concurrently")))
+                .onErrorResume(e -> error(HttpStatus.NOT_FOUND, e));
+    }
+    
+    @PatchMapping("/{id}/toggle")
+    public Mono<ResponseEntity<Map<String, Object>>> toggleTodo(
+            @RequestAttribute(ReactiveJwtAuthenticationFilter.OWNER_ATTRIBUTE) String ownerId,
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return Mono.defer(() -> todoService.toggleTodo(ownerId, id, parseIfMatch(ifMatch)))
+                .map(todo -> ResponseEntity.ok().eTag(etag(todo)).body(success(todo)))
+                .onErrorResume(PreconditionFailedException.class, e -> error(HttpStatus.PRECONDITION_FAILED, e))
+                .onErrorResume(e -> error(HttpStatus.NOT_FOUND, e));
+    }
+    
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Map<String, Object>>> deleteTodo(
+            @RequestAttribute(ReactiveJwtAuthenticationFilter.OWNER_ATTRIBUTE) String ownerId,
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return Mono.defer(() -> todoService.deleteTodo(ownerId, id, parseIfMatch(ifMatch)))
+                .then(Mono.fromSupplier(() -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("success", true);
+                    response.put("message", "Todo deleted successfully");
+                    return ResponseEntity.ok(response);
+                }))
+                .onErrorResume(PreconditionFailedException.class, e -> error(HttpStatus.PRECONDITION_FAILED, e))
+                .onErrorResume(e -> error(HttpStatus.NOT_FOUND, e));
+    }
+    
+    private static Map<String, Object> success(Todo todo) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", todo);
+        return response;
+    }
+    
+    private static Mono<ResponseEntity<Map<String, Object>>> error(HttpStatus status, Throwable e) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("message", e.getMessage());
+        return Mono.just(ResponseEntity.status(status).body(errorResponse));
+    }
+    
+    private static String etag(Todo todo) {
+        return "\"" + todo.getVersion() + "\"";
+    }
+    
+    /**
+     * Version named by an If-Match header; same rules as TodoController
+     */
+    private static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.parseLong(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException e) {
+                // fall through
+            }
+        }
+        throw new PreconditionFailedException("If-Match " + ifMatch + " does not match the current version");
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.todoapi.reactive.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * R2DBC mapping of the todos table. Serializes to the same JSON as the JPA entity.
+ * Columns follow the default snake_case naming; timestamps are set by the service.
+ */
+@Table("todos")
+public class Todo {
+    
+    // Generated by the column default, nextval('todos_id_seq')
+    @Id
+    private Long id;
+    
+    // Subject of the token the todo was created with; never changes
+    @JsonIgnore
+    private String ownerId;
+    
+    private String title;
+    
+    private String description;
+    
+    private Boolean completed = false;
+    
+    // Time of the most recent completion; kept when un-completed, only meaningful while completed
+    private LocalDateTime completedAt;
+    
+    private LocalDateTime dueAt;
+    
+    // When to send a reminder; only open todos are reminded
+    private LocalDateTime remindAt;
+    
+    private LocalDateTime createdAt;
+    
+    private LocalDateTime updatedAt;
+    
+    // Null until inserted, which is how Spring Data tells new todos apart
+    @Version
+    private Long version;
+    
+    // Default constructor
+    public Todo() {}
+    
+    // Constructor with fields
+    public Todo(String title, String description) {
+        this.title = title;
+        this.description = description;
+        this.completed = false;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getOwnerId() {
+        return ownerId;
+    }
+    
+    public void setOwnerId(String ownerId) {
+        this.ownerId = ownerId;
+    }
+    
+    public String getTitle() {
+        return title;
+    }
+    
+    public void setTitle(String title) {
+        this.title = title;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public void setDescription(String description) {
+        this.description = description;
+    }
+    
+    public Boolean getCompleted() {
+        return completed;
+    }
+    
+    public void setCompleted(Boolean completed) {
+        if (Boolean.TRUE.equals(completed) && !Boolean.TRUE.equals(this.completed)) {
+            this.completedAt = LocalDateTime.now();
+        }
+        this.completed = completed;
+    }
+    
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+    
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+    
+    public LocalDateTime getDueAt() {
+        return dueAt;
+    }
+    
+    public void setDueAt(LocalDateTime dueAt) {
+        this.dueAt = dueAt;
+    }
+    
+    public LocalDateTime getRemindAt() {
+        return remindAt;
+    }
+    
+    public void setRemindAt(LocalDateTime remindAt) {
+        this.remindAt = remindAt;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
+    @Override
+    public String toString() {
+        return "Todo{" +
+                "id=" + id +
+                ", title='" + title + '\'' +
+                ", completed=" + completed +
+                ", version=" + version +
+                '}';
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.todoapi.reactive.repository;
+
+import com.example.todoapi.reactive.entity.Todo;
+import com.example.todoapi.repository.TodoArchiveRepository;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reactive counterpart of TodoRepository. The single-statement writes use the same SQL as the
+ * servlet stack so both can run against one database side by side. Like there, every query is
+ * scoped to one owner.
+ */
+@Repository
+public interface ReactiveTodoRepository extends R2dbcRepository<Todo, Long>, ReactiveTodoRepositoryCustom {
+    
+    // In SET, "completed" is the pre-toggle value: stamp completions, keep the last one otherwise
+    String SET_COMPLETED_AT = "completed_at = CASE WHEN completed THEN completed_at ELSE :now END";
+    
+    String INSERT_TOMBSTONE = "tombstone AS (INSERT INTO todo_tombstones (todo_id, owner_id, deleted_at) "
+            + "SELECT id, owner_id, :now FROM deleted) ";
+    
+    Mono<Todo> findByIdAndOwnerId(Long id, String ownerId);
+    
+    Mono<Boolean> existsByIdAndOwnerId(Long id, String ownerId);
+    
+    @Query("SELECT " + TodoArchiveRepository.COLUMNS + " FROM todos_archive WHERE id = :id AND owner_id = :ownerId")
+    Mono<Todo> findArchivedById(@Param("id") Long id, @Param("ownerId") String ownerId);
+    
+    /**
+     * Move one archived todo back to todos, unchanged, so it can be written to
+     * @return 1 if it was moved, 0 if it is not archived or belongs to another owner
+     * @see TodoArchiveRepository#restore
+     */
+    @Modifying
+    @Query("WITH restored AS (DELETE FROM todos_archive WHERE id = :id AND owner_id = :ownerId RETURNING *) "
+            + "INSERT INTO todos (" + TodoArchiveRepository.COLUMNS + ") SELECT " + TodoArchiveRepository.COLUMNS
+            + " FROM restored")
+    Mono<Integer> restore(@Param("id") Long id, @Param("ownerId") String ownerId);
+    
+    @Query("UPDATE todos SET completed = NOT completed, " + SET_COMPLETED_AT
+            + ", updated_at = :now, version = version + 1 WHERE id = :id AND owner_id = :ownerId RETURNING *")
+    Mono<Todo> toggleCompleted(@Param("id") Long id, @Param("ownerId") String ownerId, @Param("now") LocalDateTime now);
+    
+    @Query("UPDATE todos SET completed = NOT completed, " + SET_COMPLETED_AT
+            + ", updated_at = :now, version = version + 1 "
+            + "WHERE id = :id AND owner_id = :ownerId AND version = :version RETURNING *")
+    Mono<Todo> toggleCompletedIfVersion(@Param("id") Long id, @Param("ownerId") String ownerId,
+                                        @Param("version") Long version, @Param("now") LocalDateTime now);
+    
+    /**
+     * Delete and leave a change-feed tombstone in one statement
+     * @return the deleted row, empty if the todo does not exist
+     */
+    @Query("WITH deleted AS (DELETE FROM todos WHERE id = :id AND owner_id = :ownerId RETURNING *), "
+            + INSERT_TOMBSTONE + "SELECT * FROM deleted")
+    Mono<Todo> deleteTodoById(@Param("id") Long id, @Param("ownerId") String ownerId, @Param("now") LocalDateTime now);
+    
+    @Query("WITH deleted AS (DELETE FROM todos WHERE id = :id AND owner_id = :ownerId AND version = :version "
+            + "RETURNING *), " + INSERT_TOMBSTONE + "SELECT * FROM deleted")
+    Mono<Todo> deleteTodoByIdAndVersion(@Param("id") Long id, @Param("ownerId") String ownerId,
+                                        @Param("version") Long version, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,22 @@
+package com.example.todoapi.reactive.repository;
+
+import com.example.todoapi.dto.TodoCursor;
+import com.example.todoapi.reactive.entity.Todo;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+
+public interface ReactiveTodoRepositoryCustom {
+    
+    /**
+     * Same keyset page as TodoRepositoryCustom#findPage
+     */
+    Flux<Todo> findPage(String ownerId, TodoCursor after, Boolean completed, LocalDateTime updatedSince, int limit);
+    
+    /**
+     * Every todo of the owner with a greater id, in id order. Rows are fetched from Postgres in chunks as
+     * the subscriber requests them, so a slow consumer holds back the query instead of
+     * buffering the table.
+     */
+    Flux<Todo> streamAfterId(String ownerId, Long afterId);
+}
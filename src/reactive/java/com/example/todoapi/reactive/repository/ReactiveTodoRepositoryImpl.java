@@ -0,0 +1,63 @@
+package com.example.todoapi.reactive.repository;
+
+import com.example.todoapi.dto.TodoCursor;
+import com.example.todoapi.reactive.entity.Todo;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+
+/**
+ * Hand-written queries that Spring Data cannot derive, mixed into {@link ReactiveTodoRepository}.
+ */
+public class ReactiveTodoRepositoryImpl implements ReactiveTodoRepositoryCustom {
+    
+    public static final int EXPORT_FETCH_SIZE = 500;
+    
+    private final R2dbcEntityTemplate template;
+    
+    public ReactiveTodoRepositoryImpl(R2dbcEntityTemplate template) {
+        this.template = template;
+    }
+    
+    @Override
+    public Flux<Todo> findPage(String ownerId, TodoCursor after, Boolean completed, LocalDateTime updatedSince,
+                               int limit) {
+        boolean byUpdatedAt = updatedSince != null;
+        Criteria criteria = Criteria.where("ownerId").is(ownerId);
+        
+        if (completed != null) {
+            criteria = criteria.and("completed").is(completed);
+        }
+        if (byUpdatedAt) {
+            criteria = criteria.and("updatedAt").greaterThanOrEquals(updatedSince);
+        }
+        if (after != null) {
+            // Row-value comparison written out so Postgres can use the (updated_at, id) index
+            criteria = criteria.and(byUpdatedAt
+                    ? Criteria.where("updatedAt").greaterThan(after.getUpdatedAt())
+                            .or(Criteria.where("updatedAt").is(after.getUpdatedAt()).and("id").greaterThan(after.getId()))
+                    : Criteria.where("id").greaterThan(after.getId()));
+        }
+        Sort sort = byUpdatedAt ? Sort.by("updatedAt", "id") : Sort.by("id");
+        
+        return template.select(Todo.class)
+                .matching(Query.query(criteria).sort(sort).limit(limit))
+                .all();
+    }
+    
+    @Override
+    public Flux<Todo> streamAfterId(String ownerId, Long afterId) {
+        return template.getDatabaseClient()
+                .sql("SELECT * FROM todos WHERE owner_id = :ownerId AND id > :afterId ORDER BY id")
+                .bind("ownerId", ownerId)
+                .bind("afterId", afterId)
+                // Portal fetch: the driver asks for the next chunk only once demand reaches it
+                .filter(statement -> statement.fetchSize(EXPORT_FETCH_SIZE))
+                .map((row, metadata) -> template.getConverter().read(Todo.class, row, metadata))
+                .all();
+    }
+}
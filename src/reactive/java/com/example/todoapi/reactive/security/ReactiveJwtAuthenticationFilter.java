@@ -0,0 +1,85 @@
+package com.example.todoapi.reactive.security;
+
+import com.example.todoapi.security.JwtTokenVerifier;
+import io.jsonwebtoken.JwtException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * WebFlux counterpart of JwtAuthenticationFilter: /api/todos requests must carry
+ * "Authorization: Bearer &lt;jwt&gt;", verified by the same {@link JwtTokenVerifier}, and run as the
+ * token's subject, which controllers receive as the {@link #OWNER_ATTRIBUTE} request attribute.
+ * Requests without a token get 401, unless an anonymous owner is configured (jwt.required: false),
+ * in which case they act as that owner.
+ */
+public class ReactiveJwtAuthenticationFilter implements WebFilter {
+    
+    public static final String OWNER_ATTRIBUTE = ReactiveJwtAuthenticationFilter.class.getName() + ".ownerId";
+    
+    private static final String BEARER_PREFIX = "Bearer ";
+    
+    // Also matches /api/todos itself
+    private static final PathPattern TODOS = PathPatternParser.defaultInstance.parse("/api/todos/**");
+    
+    private final JwtTokenVerifier verifier;
+    
+    private final String anonymousOwner;
+    
+    /**
+     * @param anonymousOwner owner of requests without a token, or null to reject them
+     */
+    public ReactiveJwtAuthenticationFilter(JwtTokenVerifier verifier, String anonymousOwner) {
+        this.verifier = verifier;
+        this.anonymousOwner = anonymousOwner;
+    }
+    
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        // CORS preflights carry no credentials
+        if (!TODOS.matches(exchange.getRequest().getPath().pathWithinApplication())
+                || exchange.getRequest().getMethod() == HttpMethod.OPTIONS) {
+            return chain.filter(exchange);
+        }
+        
+        String header = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        String ownerId;
+        if (header == null || !header.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            if (anonymousOwner == null) {
+                return unauthorized(exchange.getResponse(), "Bearer token required");
+            }
+            ownerId = anonymousOwner;
+        } else {
+            try {
+                ownerId = verifier.verify(header.substring(BEARER_PREFIX.length()).trim()).subject();
+            } catch (JwtException | IllegalArgumentException e) {
+                return unauthorized(exchange.getResponse(), "Invalid bearer token");
+            }
+        }
+        exchange.getAttributes().put(OWNER_ATTRIBUTE, ownerId);
+        return chain.filter(exchange);
+    }
+    
+    /**
+     * 401 in the API's usual error shape, as the servlet stack answers it
+     */
+    private static Mono<Void> unauthorized(ServerHttpResponse response, String message) {
+        response.setStatusCode(HttpStatus.UNAUTHORIZED);
+        response.getHeaders().set(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        DataBuffer body = response.bufferFactory().wrap(
+                ("{\"success\":false,\"message\":\"" + message + "\"}").getBytes(StandardCharsets.UTF_8));
+        return response.writeWith(Mono.just(body));
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.todoapi.reactive.service;
+
+import com.example.todoapi.dto.CreateTodoDto;
+import com.example.todoapi.dto.TodoCursor;
+import com.example.todoapi.dto.TodoPage;
+import com.example.todoapi.dto.UpdateTodoDto;
+import com.example.todoapi.exception.PreconditionFailedException;
+import com.example.todoapi.reactive.entity.Todo;
+import com.example.todoapi.reactive.repository.ReactiveTodoRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Reactive counterpart of TodoService for the core todo routes. Same semantics and error
+ * types, so the controller can map them to the same responses. Every method acts for one
+ * owner; other owners' todos are not found. Like there, archived todos are still found by ID,
+ * and writing to one moves it back to the todos table first.
+ */
+@Service
+public class ReactiveTodoService {
+    
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+    
+    private final ReactiveTodoRepository todoRepository;
+    
+    public ReactiveTodoService(ReactiveTodoRepository todoRepository) {
+        this.todoRepository = todoRepository;
+    }
+    
+    /**
+     * Get one keyset page of todos
+     * @see com.example.todoapi.service.TodoService#getTodos
+     */
+    public Mono<TodoPage<Todo>> getTodos(String ownerId, String cursor, int limit, Boolean completed,
+                                         LocalDateTime updatedSince) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        boolean byUpdatedAt = updatedSince != null;
+        TodoCursor after;
+        try {
+            after = cursor != null && !cursor.isEmpty() ? TodoCursor.decode(cursor) : null;
+        } catch (IllegalArgumentException e) {
+            return Mono.error(e);
+        }
+        if (after != null && after.isUpdatedAtOrdered() != byUpdatedAt) {
+            return Mono.error(new IllegalArgumentException("Cursor does not match the updatedSince filter"));
+        }
+        
+        // Fetch one extra row to know whether another page exists without a count query
+        return todoRepository.findPage(ownerId, after, completed, updatedSince, pageSize + 1)
+                .collectList()
+                .map(rows -> {
+                    if (rows.size() <= pageSize) {
+                        return new TodoPage<>(rows, null);
+                    }
+                    List<Todo> items = rows.subList(0, pageSize);
+                    Todo last = items.get(pageSize - 1);
+                    TodoCursor next = byUpdatedAt
+                            ? TodoCursor.afterUpdatedAt(last.getUpdatedAt(), last.getId())
+                            : TodoCursor.afterId(last.getId());
+                    return new TodoPage<>(items, next.encode());
+                });
+    }
+    
+    /**
+     * Every todo of the owner with an id greater than afterId, in id order, fetched as the subscriber demands
+     */
+    public Flux<Todo> exportTodos(String ownerId, Long afterId) {
+        return todoRepository.streamAfterId(ownerId, afterId != null ? afterId : 0L);
+    }
+    
+    /**
+     * Get todo by ID, from the archive if it is not in the todos table
+     * @return the todo, or a RuntimeException error if not found
+     */
+    public Mono<Todo> getTodoById(String ownerId, Long id) {
+        return todoRepository.findByIdAndOwnerId(id, ownerId)
+                .switchIfEmpty(Mono.defer(() -> todoRepository.findArchivedById(id, ownerId)))
+                .switchIfEmpty(Mono.error(() -> notFound(id)));
+    }
+    
+    public Mono<Todo> createTodo(String ownerId, CreateTodoDto createTodoDto) {
+        LocalDateTime now = LocalDateTime.now();
+        Todo todo = new Todo(createTodoDto.getTitle(), createTodoDto.getDescription());
+        todo.setOwnerId(ownerId);
+        todo.setDueAt(createTodoDto.getDueAt());
+        todo.setRemindAt(createTodoDto.getRemindAt());
+        todo.setCreatedAt(now);
+        todo.setUpdatedAt(now);
+        return todoRepository.save(todo);
+    }
+    
+    /**
+     * Update todo; a concurrent write between read and save fails with OptimisticLockingFailureException
+     * @param expectedVersion version from the client's If-Match, or null for an unconditional update
+     */
+    @Transactional
+    public Mono<Todo> updateTodo(String ownerId, Long id, UpdateTodoDto updateTodoDto, Long expectedVersion) {
+        Mono<Todo> current = restoringArchived(ownerId, id, () -> todoRepository.findByIdAndOwnerId(id, ownerId))
+                .switchIfEmpty(Mono.error(() -> notFound(id)));
+        return current.flatMap(todo -> {
+            if (expectedVersion != null && !expectedVersion.equals(todo.getVersion())) {
+                return Mono.error(new PreconditionFailedException("Todo with ID " + id + " is at version "
+                        + todo.getVersion() + ", not " + expectedVersion));
+            }
+            if (updateTodoDto.getTitle() != null) {
+                todo.setTitle(updateTodoDto.getTitle());
+            }
+            if (updateTodoDto.getDescription() != null) {
+                todo.setDescription(updateTodoDto.getDescription());
+            }
+            if (updateTodoDto.getCompleted() != null) {
+                todo.setCompleted(updateTodoDto.getCompleted());
+            }
+            if (updateTodoDto.getDueAt() != null) {
+                todo.setDueAt(updateTodoDto.getDueAt());
+            }
+            if (updateTodoDto.getRemindAt() != null) {
+                todo.setRemindAt(updateTodoDto.getRemindAt());
+            }
+            todo.setUpdatedAt(LocalDateTime.now());
+            return todoRepository.save(todo);
+        });
+    }
+    
+    @Transactional
+    public Mono<Todo> toggleTodo(String ownerId, Long id, Long expectedVersion) {
+        LocalDateTime now = LocalDateTime.now();
+        return expectedVersion == null
+                ? restoringArchived(ownerId, id, () -> todoRepository.toggleCompleted(id, ownerId, now))
+                        .switchIfEmpty(Mono.error(() -> notFound(id)))
+                : restoringArchived(ownerId, id,
+                        () -> todoRepository.toggleCompletedIfVersion(id, ownerId, expectedVersion, now))
+                        .switchIfEmpty(conditionalWriteFailure(ownerId, id, expectedVersion));
+    }
+    
+    @Transactional
+    public Mono<Void> deleteTodo(String ownerId, Long id, Long expectedVersion) {
+        LocalDateTime now = LocalDateTime.now();
+        Mono<Todo> deleted = expectedVersion == null
+                ? restoringArchived(ownerId, id, () -> todoRepository.deleteTodoById(id, ownerId, now))
+                        .switchIfEmpty(Mono.error(() -> notFound(id)))
+                : restoringArchived(ownerId, id,
+                        () -> todoRepository.deleteTodoByIdAndVersion(id, ownerId, expectedVersion, now))
+                        .switchIfEmpty(conditionalWriteFailure(ownerId, id, expectedVersion));
+        return deleted.then();
+    }
+    
+    /**
+     * Run a write against the todos table; if it finds nothing, move the todo back from the
+     * archive (when it is there) and run it again
+     * @see com.example.todoapi.service.TodoService
+     */
+    private Mono<Todo> restoringArchived(String ownerId, Long id, Supplier<Mono<Todo>> write) {
+        return write.get().switchIfEmpty(Mono.defer(() -> todoRepository.restore(id, ownerId)
+                .flatMap(restored -> restored > 0 ? write.get() : Mono.empty())));
+    }
+    
+    // Only reached when a conditional statement matched no row: tell "gone" apart from "changed"
+    private Mono<Todo> conditionalWriteFailure(String ownerId, Long id, Long expectedVersion) {
+        return todoRepository.existsByIdAndOwnerId(id, ownerId).flatMap(exists -> Mono.error(exists
+                ? new PreconditionFailedException("Todo with ID " + id + " is no longer at version " + expectedVersion)
+                : notFound(id)));
+    }
+    
+    private static RuntimeException notFound(Long id) {
+        return new RuntimeException("Todo with ID " + id + " not found");
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.todoapi;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * One embedded Postgres per test JVM, loaded with init_db.sql (Gradle runs tests from the
+ * project root) and shared by every test context. It is never reset: tests keep apart by the
+ * todos they create and the owners they act as.
+ * <p>
+ * Like the "embedded" profile by default, there is no replica, so reads see writes straight away.
+ */
+public final class TestDatabase {
+    
+    private static EmbeddedPostgres postgres;
+    
+    private TestDatabase() {
+    }
+    
+    public static synchronized EmbeddedPostgres get() {
+        if (postgres == null) {
+            try {
+                postgres = EmbeddedPostgres.builder().start();
+                try (Connection connection = postgres.getPostgresDatabase().getConnection()) {
+                    ScriptUtils.executeSqlScript(connection, new FileSystemResource("init_db.sql"));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (SQLException e) {
+                throw new IllegalStateException("Could not load init_db.sql into embedded Postgres", e);
+            }
+            EmbeddedPostgres started = postgres;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    started.close();
+                } catch (IOException e) {
+                    // shutting down anyway
+                }
+            }, "test-postgres-shutdown"));
+        }
+        return postgres;
+    }
+    
+    public static String jdbcUrl() {
+        return get().getJdbcUrl("postgres", "postgres") + "&reWriteBatchedInserts=true";
+    }
+    
+    /**
+     * Points spring.datasource at the test database, for @DynamicPropertySource
+     */
+    public static void register(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", TestDatabase::jdbcUrl);
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+}
@@ -0,0 +1,424 @@
+package com.example.todoapi;
+
+import com.example.todoapi.repository.TodoArchiveRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The JSON contract of the core /api/todos routes, checked over HTTP against both stacks:
+ * status codes, envelopes, the fields of a todo, ETag / If-Match / If-None-Match, keyset
+ * paging, NDJSON export, bearer tokens, owner scoping and archived todos.
+ * <p>
+ * The servlet stack runs in this JVM. The reactive one (src/reactive) cannot share its
+ * classpath, so it runs in a JVM of its own on the classpath the test task passes as the
+ * reactive.classpath system property. Both use the test database.
+ */
+class TodoApiContractTest {
+    
+    private static final String REACTIVE_APPLICATION = "com.example.todoapi.reactive.ReactiveTodoApiApplication";
+    
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(60);
+    
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    
+    private static final HttpClient client = HttpClient.newHttpClient();
+    
+    private static final Map<String, String> baseUrls = new HashMap<>();
+    
+    private static ConfigurableApplicationContext servlet;
+    
+    private static Process reactive;
+    
+    private static String secret;
+    
+    static Stream<String> stacks() {
+        return Stream.of("servlet", "reactive");
+    }
+    
+    @BeforeAll
+    static void startStacks() throws Exception {
+        secret = UUID.randomUUID() + "-" + UUID.randomUUID();
+        // Arguments rather than default properties, which application.yml would override
+        servlet = new SpringApplicationBuilder(TodoApiApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=" + TestDatabase.jdbcUrl(),
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=postgres",
+                "--jwt.secret=" + secret,
+                "--jwt.required=true",
+                "--app.admission.enabled=false",
+                "--app.reminders.enabled=false",
+                "--logging.level.root=WARN");
+        baseUrls.put("servlet", "http://localhost:" + servlet.getEnvironment().getRequiredProperty("local.server.port"));
+        
+        String classpath = System.getProperty("reactive.classpath");
+        if (classpath == null) {
+            throw new IllegalStateException("reactive.classpath is not set; run this test with ./gradlew test");
+        }
+        int port = freePort();
+        reactive = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", classpath, REACTIVE_APPLICATION,
+                "--server.port=" + port,
+                "--spring.r2dbc.url=r2dbc:postgresql://localhost:" + TestDatabase.get().getPort() + "/postgres",
+                "--spring.r2dbc.username=postgres",
+                "--spring.r2dbc.password=postgres",
+                "--jwt.secret=" + secret,
+                "--jwt.required=true",
+                "--logging.level.root=WARN")
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        baseUrls.put("reactive", awaitStarted("http://localhost:" + port));
+    }
+    
+    @AfterAll
+    static void stopStacks() throws InterruptedException {
+        if (reactive != null) {
+            reactive.destroy();
+            if (!reactive.waitFor(10, TimeUnit.SECONDS)) {
+                reactive.destroyForcibly();
+            }
+        }
+        if (servlet != null) {
+            servlet.close();
+        }
+    }
+    
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("stacks")
+    void todoLifecycle(String stack) throws Exception {
+        Api api = new Api(stack);
+        
+        HttpResponse<String> created = api.send("POST", "", "{\"title\":\"contract check\",\"description\":\"d\"}");
+        assertEquals(201, created.statusCode(), created.body());
+        JsonNode body = json(created);
+        assertTrue(body.get("success").asBoolean());
+        assertEquals("contract check", body.at("/data/title").asText());
+        assertFalse(body.at("/data/completed").asBoolean());
+        assertEquals(0, body.at("/data/version").asLong());
+        assertFalse(body.at("/data/createdAt").isNull());
+        assertFalse(body.at("/data").has("ownerId"));
+        assertEquals("\"0\"", etag(created));
+        long id = body.at("/data/id").asLong();
+        
+        HttpResponse<String> found = api.send("GET", "/" + id, null);
+        assertEquals(200, found.statusCode());
+        assertEquals(id, json(found).at("/data/id").asLong());
+        assertEquals("\"0\"", etag(found));
+        assertEquals(304, api.send("GET", "/" + id, null, "If-None-Match", "\"0\"").statusCode());
+        
+        assertEquals(412, api.send("PUT", "/" + id, "{\"title\":\"stale\"}", "If-Match", "\"99\"").statusCode());
+        HttpResponse<String> updated = api.send("PUT", "/" + id, "{\"title\":\"updated\"}", "If-Match", "\"0\"");
+        assertEquals(200, updated.statusCode(), updated.body());
+        assertEquals("updated", json(updated).at("/data/title").asText());
+        assertEquals("d", json(updated).at("/data/description").asText());
+        assertEquals(1, json(updated).at("/data/version").asLong());
+        
+        HttpResponse<String> toggled = api.send("PATCH", "/" + id + "/toggle", null);
+        assertEquals(200, toggled.statusCode(), toggled.body());
+        assertTrue(json(toggled).at("/data/completed").asBoolean());
+        assertFalse(json(toggled).at("/data/completedAt").isNull());
+        assertEquals("\"2\"", etag(toggled));
+        
+        HttpResponse<String> exported = api.send("GET", "/export?afterId=" + (id - 1), null);
+        assertEquals(200, exported.statusCode());
+        assertEquals(id, objectMapper.readTree(exported.body().lines().findFirst().orElseThrow()).get("id").asLong());
+        
+        assertEquals(412, api.send("DELETE", "/" + id, null, "If-Match", "\"1\"").statusCode());
+        HttpResponse<String> deleted = api.send("DELETE", "/" + id, null);
+        assertEquals(200, deleted.statusCode());
+        assertTrue(json(deleted).get("success").asBoolean());
+        
+        HttpResponse<String> missing = api.send("GET", "/" + id, null);
+        assertEquals(404, missing.statusCode());
+        assertFalse(json(missing).get("success").asBoolean());
+        assertEquals(404, api.send("DELETE", "/" + id, null).statusCode());
+        assertEquals(404, api.send("PATCH", "/" + id + "/toggle", null).statusCode());
+    }
+    
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("stacks")
+    void blankTitleIsRejected(String stack) throws Exception {
+        assertEquals(400, new Api(stack).send("POST", "", "{\"title\":\"\"}").statusCode());
+    }
+    
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("stacks")
+    void listPagesThroughOnlyTheOwnersTodos(String stack) throws Exception {
+        Api api = new Api(stack);
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(json(api.send("POST", "", "{\"title\":\"page " + i + "\"}")).at("/data/id").asLong());
+        }
+        new Api(stack).send("POST", "", "{\"title\":\"someone else's\"}");
+        
+        HttpResponse<String> first = api.send("GET", "?limit=2", null);
+        assertEquals(200, first.statusCode());
+        JsonNode firstPage = json(first);
+        assertTrue(firstPage.get("success").asBoolean());
+        assertEquals(2, firstPage.get("data").size());
+        String cursor = firstPage.get("nextCursor").asText(null);
+        assertNotNull(cursor);
+        
+        JsonNode secondPage = json(api.send("GET", "?limit=2&cursor=" + cursor, null));
+        assertEquals(1, secondPage.get("data").size());
+        assertTrue(secondPage.get("nextCursor").isNull());
+        
+        Set<Long> listed = new HashSet<>();
+        for (JsonNode page : List.of(firstPage, secondPage)) {
+            page.get("data").forEach(todo -> listed.add(todo.get("id").asLong()));
+        }
+        assertEquals(ids, listed);
+        
+        HttpResponse<String> badCursor = api.send("GET", "?cursor=not-a-cursor", null);
+        assertEquals(400, badCursor.statusCode());
+        assertFalse(json(badCursor).get("success").asBoolean());
+    }
+    
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("stacks")
+    void requestsNeedAValidToken(String stack) throws Exception {
+        HttpResponse<String> anonymous = client.send(HttpRequest.newBuilder(
+                URI.create(baseUrls.get(stack) + "/api/todos")).build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(401, anonymous.statusCode());
+        assertFalse(json(anonymous).get("success").asBoolean());
+        
+        HttpResponse<String> forged = client.send(HttpRequest.newBuilder(
+                        URI.create(baseUrls.get(stack) + "/api/todos"))
+                .header("Authorization", "Bearer not-a-token").build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(401, forged.statusCode());
+        assertFalse(json(forged).get("success").asBoolean());
+    }
+    
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("stacks")
+    void otherOwnersTodosAreNotFound(String stack) throws Exception {
+        long id = json(new Api(stack).send("POST", "", "{\"title\":\"private\"}")).at("/data/id").asLong();
+        Api intruder = new Api(stack);
+        
+        assertEquals(404, intruder.send("GET", "/" + id, null).statusCode());
+        assertEquals(404, intruder.send("PUT", "/" + id, "{\"title\":\"taken\"}").statusCode());
+        assertEquals(404, intruder.send("PATCH", "/" + id + "/toggle", null).statusCode());
+        assertEquals(404, intruder.send("DELETE", "/" + id, null).statusCode());
+        assertEquals(0, json(intruder.send("GET", "", null)).get("data").size());
+    }
+    
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("stacks")
+    void archivedTodosAreFoundAndRestoredOnWrite(String stack) throws Exception {
+        Api api = new Api(stack);
+        long id = json(api.send("POST", "", "{\"title\":\"archived\"}")).at("/data/id").asLong();
+        
+        archive(id);
+        HttpResponse<String> found = api.send("GET", "/" + id, null);
+        assertEquals(200, found.statusCode(), found.body());
+        assertEquals("archived", json(found).at("/data/title").asText());
+        assertEquals(404, new Api(stack).send("GET", "/" + id, null).statusCode());
+        
+        HttpResponse<String> updated = api.send("PUT", "/" + id, "{\"title\":\"restored\"}", "If-Match", "\"0\"");
+        assertEquals(200, updated.statusCode(), updated.body());
+        assertEquals(1, json(updated).at("/data/version").asLong());
+        assertEquals(0, archivedRows(id));
+        
+        archive(id);
+        HttpResponse<String> toggled = api.send("PATCH", "/" + id + "/toggle", null, "If-Match", "\"1\"");
+        assertEquals(200, toggled.statusCode(), toggled.body());
+        assertTrue(json(toggled).at("/data/completed").asBoolean());
+        assertEquals(0, archivedRows(id));
+        
+        archive(id);
+        assertEquals(200, api.send("DELETE", "/" + id, null).statusCode());
+        assertEquals(0, archivedRows(id));
+        assertEquals(404, api.send("GET", "/" + id, null).statusCode());
+    }
+    
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("stacks")
+    void dueAndReminderTimesAreKept(String stack) throws Exception {
+        Api api = new Api(stack);
+        
+        HttpResponse<String> created = api.send("POST", "",
+                "{\"title\":\"timed\",\"dueAt\":\"2030-01-02T09:00:00\",\"remindAt\":\"2030-01-01T09:00:00\"}");
+        assertEquals(201, created.statusCode(), created.body());
+        assertEquals("2030-01-02T09:00:00", json(created).at("/data/dueAt").asText());
+        assertEquals("2030-01-01T09:00:00", json(created).at("/data/remindAt").asText());
+        long id = json(created).at("/data/id").asLong();
+        
+        HttpResponse<String> updated = api.send("PUT", "/" + id, "{\"remindAt\":\"2030-01-02T08:00:00\"}");
+        assertEquals(200, updated.statusCode(), updated.body());
+        assertEquals("2030-01-02T09:00:00", json(updated).at("/data/dueAt").asText());
+        assertEquals("2030-01-02T08:00:00", json(updated).at("/data/remindAt").asText());
+        
+        JsonNode found = json(api.send("GET", "/" + id, null));
+        assertEquals("2030-01-02T09:00:00", found.at("/data/dueAt").asText());
+        assertEquals("2030-01-02T08:00:00", found.at("/data/remindAt").asText());
+        JsonNode listed = json(api.send("GET", "", null)).at("/data/0");
+        assertEquals("2030-01-02T08:00:00", listed.get("remindAt").asText());
+    }
+    
+    /**
+     * A todo serializes to the same fields on both stacks, whichever route returns it
+     */
+    @Test
+    void todoFieldsMatchAcrossStacks() throws Exception {
+        Map<String, Set<String>> fieldSets = new HashMap<>();
+        for (String stack : stacks().toList()) {
+            Api api = new Api(stack);
+            HttpResponse<String> created = api.send("POST", "",
+                    "{\"title\":\"fields\",\"dueAt\":\"2030-01-02T09:00:00\"}");
+            long id = json(created).at("/data/id").asLong();
+            Map<String, JsonNode> responses = Map.of(
+                    "create", json(created).get("data"),
+                    "get", json(api.send("GET", "/" + id, null)).get("data"),
+                    "update", json(api.send("PUT", "/" + id, "{\"title\":\"renamed\"}")).get("data"),
+                    "toggle", json(api.send("PATCH", "/" + id + "/toggle", null)).get("data"),
+                    "list", json(api.send("GET", "", null)).at("/data/0"),
+                    "export", objectMapper.readTree(api.send("GET", "/export", null).body().lines()
+                            .findFirst().orElseThrow()));
+            responses.forEach((route, todo) -> fieldSets.put(stack + " " + route, fieldNames(todo)));
+        }
+        
+        Set<String> expected = fieldSets.get("servlet create");
+        assertTrue(expected.containsAll(Set.of("id", "title", "description", "completed", "completedAt", "dueAt",
+                "remindAt", "createdAt", "updatedAt", "version")), expected.toString());
+        fieldSets.forEach((response, fields) -> assertEquals(expected, fields, response));
+    }
+    
+    /**
+     * Requests to one stack's /api/todos as a fresh owner, so tests never see each other's todos
+     */
+    private static final class Api {
+        
+        private final String base;
+        
+        private final String token;
+        
+        Api(String stack) {
+            this.base = baseUrls.get(stack) + "/api/todos";
+            this.token = Jwts.builder()
+                    .subject(stack + "-" + UUID.randomUUID())
+                    .expiration(Date.from(Instant.now().plus(Duration.ofHours(1))))
+                    .signWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)))
+                    .compact();
+        }
+        
+        HttpResponse<String> send(String method, String path, String json, String... headers)
+                throws IOException, InterruptedException {
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(base + path))
+                    .header("Authorization", "Bearer " + token)
+                    .method(method, json == null
+                            ? HttpRequest.BodyPublishers.noBody()
+                            : HttpRequest.BodyPublishers.ofString(json));
+            if (json != null) {
+                request.header("Content-Type", "application/json");
+            }
+            if (headers.length > 0) {
+                request.headers(headers);
+            }
+            return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        }
+    }
+    
+    private static JsonNode json(HttpResponse<String> response) throws IOException {
+        return objectMapper.readTree(response.body());
+    }
+    
+    /**
+     * Move a todo to todos_archive as TodoArchiveService does, whatever its age
+     */
+    private static void archive(long id) throws SQLException {
+        try (Connection connection = TestDatabase.get().getPostgresDatabase().getConnection();
+             PreparedStatement statement = connection.prepareStatement("WITH moved AS (DELETE FROM todos "
+                     + "WHERE id = ? RETURNING *) INSERT INTO todos_archive (" + TodoArchiveRepository.COLUMNS
+                     + ", archived_at) SELECT " + TodoArchiveRepository.COLUMNS + ", now() FROM moved")) {
+            statement.setLong(1, id);
+            assertEquals(1, statement.executeUpdate());
+        }
+    }
+    
+    private static int archivedRows(long id) throws SQLException {
+        try (Connection connection = TestDatabase.get().getPostgresDatabase().getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT count(*) FROM todos_archive WHERE id = ?")) {
+            statement.setLong(1, id);
+            try (ResultSet rows = statement.executeQuery()) {
+                rows.next();
+                return rows.getInt(1);
+            }
+        }
+    }
+    
+    private static Set<String> fieldNames(JsonNode todo) {
+        Set<String> names = new TreeSet<>();
+        todo.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+    
+    private static String etag(HttpResponse<String> response) {
+        return response.headers().firstValue("ETag").orElse(null);
+    }
+    
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+    
+    private static String awaitStarted(String base) throws InterruptedException {
+        HttpRequest probe = HttpRequest.newBuilder(URI.create(base + "/health/live")).build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!reactive.isAlive()) {
+                throw new IllegalStateException("Reactive stack exited with " + reactive.exitValue());
+            }
+            try {
+                if (client.send(probe, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return base;
+                }
+            } catch (IOException e) {
+                // not listening yet
+            }
+            Thread.sleep(200);
+        }
+        throw new IllegalStateException("Reactive stack did not start within " + STARTUP_TIMEOUT);
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.todoapi.controller;
+
+import com.example.todoapi.TestDatabase;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Many clients toggling or deleting the same todo at once, through HTTP: each toggle must
+ * flip the todo exactly once and each delete but one must find it gone. Admission control is
+ * off so no request is shed.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "jwt.required=false",
+        "app.admission.enabled=false",
+        "app.reminders.enabled=false"
+})
+class TodoConcurrencyTest {
+    
+    private static final int THREADS = 16;
+    
+    // Odd, so a lost toggle shows up in the final completed status as well as the version
+    private static final int TOGGLES = 401;
+    
+    @LocalServerPort
+    private int port;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private final HttpClient client = HttpClient.newHttpClient();
+    
+    private ExecutorService executor;
+    
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry);
+    }
+    
+    @BeforeEach
+    void startExecutor() {
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+    
+    @AfterEach
+    void stopExecutor() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+    
+    @Test
+    void concurrentTogglesOfOneTodoAreAllApplied() throws Exception {
+        JsonNode created = createTodo("Contended toggle");
+        long id = created.get("id").asLong();
+        long initialVersion = created.get("version").asLong();
+        
+        List<HttpResponse<String>> responses = concurrently(TOGGLES,
+                () -> send(HttpRequest.newBuilder(uri("/api/todos/" + id + "/toggle"))
+                        .method("PATCH", HttpRequest.BodyPublishers.noBody())));
+        
+        // Every toggle succeeded on a version of its own
+        TreeSet<Long> versions = new TreeSet<>();
+        for (HttpResponse<String> response : responses) {
+            assertEquals(200, response.statusCode(), response.body());
+            versions.add(objectMapper.readTree(response.body()).get("data").get("version").asLong());
+        }
+        assertEquals(TOGGLES, versions.size());
+        assertEquals(initialVersion + 1, versions.first());
+        assertEquals(initialVersion + TOGGLES, versions.last());
+        
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT completed, version FROM todos WHERE id = ?", id);
+        assertEquals(TOGGLES % 2 == 1, row.get("completed"));
+        assertEquals(initialVersion + TOGGLES, ((Number) row.get("version")).longValue());
+    }
+    
+    @Test
+    void concurrentDeletesOfOneTodoSucceedOnce() throws Exception {
+        long id = createTodo("Contended delete").get("id").asLong();
+        
+        List<HttpResponse<String>> responses = concurrently(THREADS,
+                () -> send(HttpRequest.newBuilder(uri("/api/todos/" + id)).DELETE()));
+        
+        long deleted = responses.stream().filter(response -> response.statusCode() == 200).count();
+        long notFound = responses.stream().filter(response -> response.statusCode() == 404).count();
+        assertEquals(1, deleted);
+        assertEquals(THREADS - 1, notFound);
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM todos WHERE id = ?", Long.class, id));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM todo_tombstones WHERE todo_id = ?",
+                Long.class, id));
+    }
+    
+    private JsonNode createTodo(String title) throws Exception {
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/api/todos"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        objectMapper.writeValueAsString(Map.of("title", title)))));
+        assertEquals(201, response.statusCode(), response.body());
+        return objectMapper.readTree(response.body()).get("data");
+    }
+    
+    /**
+     * Runs the request this many times over all threads, released together
+     */
+    private List<HttpResponse<String>> concurrently(int times, Callable<HttpResponse<String>> request)
+            throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<HttpResponse<String>>> futures = new ArrayList<>(times);
+        for (int i = 0; i < times; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return request.call();
+            }));
+        }
+        start.countDown();
+        
+        List<HttpResponse<String>> responses = new ArrayList<>(times);
+        for (Future<HttpResponse<String>> future : futures) {
+            responses.add(future.get(60, TimeUnit.SECONDS));
+        }
+        return responses;
+    }
+    
+    private HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+    
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.todoapi.service;
+
+import com.example.todoapi.TestDatabase;
+import com.example.todoapi.entity.TodoImport;
+import com.example.todoapi.imports.ImportFormat;
+import com.example.todoapi.repository.TodoImportRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bulk import through COPY against the test database, with chunks small enough that an upload
+ * spans several of them.
+ */
+@SpringBootTest(properties = {
+        "app.import.chunk-size=" + TodoImportServiceTest.CHUNK_SIZE,
+        "jwt.required=false",
+        "app.reminders.enabled=false"
+})
+class TodoImportServiceTest {
+    
+    static final int CHUNK_SIZE = 10;
+    
+    private static final int RECORDS = 95;
+    
+    private static final String DUE_AT = "2030-01-01T09:00";
+    
+    @Autowired
+    private TodoImportService importService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry);
+    }
+    
+    @Test
+    void importsInChunksAndReportsRejects() throws IOException {
+        String owner = owner();
+        TodoImport todoImport = importService.begin(owner, null, ImportFormat.CSV);
+        
+        TodoImportService.ImportRun run = importService.run(todoImport, upload(csv()));
+        
+        assertEquals(RECORDS - rejectedLines().size(), run.rowsImported());
+        assertEquals(rejectedLines().size(), run.rowsRejected());
+        assertEquals(TodoImport.Status.COMPLETED, run.todoImport().getStatus());
+        assertEquals(RECORDS, run.todoImport().getRecordsConsumed());
+        assertEquals(run.rowsImported(), countTodos(owner));
+        assertEquals(1, countTodos(owner, "Todo 0", "Description 0"));
+        assertEquals(dueRecords(), jdbcTemplate.queryForObject("SELECT count(*) FROM todos WHERE owner_id = ? "
+                + "AND due_at = ?::timestamp AND remind_at IS NULL", Long.class, owner, DUE_AT));
+        
+        List<TodoImportRepository.Reject> rejects = importService.getRejects(owner, todoImport.getId(), 0, 100);
+        assertEquals(rejectedLines(), rejects.stream().map(TodoImportRepository.Reject::getLine).toList());
+        rejects.forEach(reject -> assertTrue(reject.getReason().contains("Title is required"), reject.getReason()));
+    }
+    
+    @Test
+    void resumesAnInterruptedUploadAtTheLastCommittedChunk() throws IOException {
+        String owner = owner();
+        byte[] csv = csv();
+        TodoImport todoImport = importService.begin(owner, null, ImportFormat.CSV);
+        
+        // The connection drops halfway through the upload
+        assertThrows(IOException.class, () -> importService.run(todoImport, failingAfter(csv, csv.length / 2)));
+        
+        TodoImport interrupted = importService.getImport(owner, todoImport.getId()).orElseThrow();
+        assertEquals(TodoImport.Status.INTERRUPTED, interrupted.getStatus());
+        long consumed = interrupted.getRecordsConsumed();
+        assertTrue(consumed > 0 && consumed < RECORDS, "consumed " + consumed);
+        assertEquals(0, consumed % CHUNK_SIZE);
+        assertEquals(consumed, interrupted.getRowsImported() + interrupted.getRowsRejected());
+        assertEquals(interrupted.getRowsImported(), countTodos(owner));
+        
+        // The same file again, resumed under the same import ID
+        TodoImport resumed = importService.begin(owner, todoImport.getId(), ImportFormat.CSV);
+        TodoImportService.ImportRun run = importService.run(resumed, upload(csv));
+        
+        assertEquals(TodoImport.Status.COMPLETED, run.todoImport().getStatus());
+        assertEquals(RECORDS, run.todoImport().getRecordsConsumed());
+        assertEquals(RECORDS - consumed, run.rowsImported() + run.rowsRejected());
+        assertEquals(RECORDS - rejectedLines().size(), run.todoImport().getRowsImported());
+        assertEquals(rejectedLines().size(), run.todoImport().getRowsRejected());
+        // Nothing from the committed chunks was imported twice
+        assertEquals(RECORDS - rejectedLines().size(), countTodos(owner));
+        assertEquals(1, countTodos(owner, "Todo 0", "Description 0"));
+        assertEquals(rejectedLines(), importService.getRejects(owner, todoImport.getId(), 0, 100).stream()
+                .map(TodoImportRepository.Reject::getLine).toList());
+        
+        // A completed import takes no more records
+        TodoImportService.ImportRun again = importService.run(
+                importService.begin(owner, todoImport.getId(), ImportFormat.CSV), upload(csv));
+        assertEquals(0, again.rowsImported());
+        assertEquals(RECORDS - rejectedLines().size(), countTodos(owner));
+    }
+    
+    /**
+     * A header and RECORDS records, every seventh with a blank title and every fifth with a due date
+     */
+    private static byte[] csv() {
+        StringBuilder csv = new StringBuilder("title,description,dueAt,remindAt\n");
+        for (int i = 0; i < RECORDS; i++) {
+            csv.append(i % 7 == 3 ? "" : "Todo " + i).append(",Description ").append(i)
+                    .append(',').append(i % 5 == 0 ? DUE_AT : "").append(",\n");
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Valid records with a due date
+     */
+    private static long dueRecords() {
+        long due = 0;
+        for (int i = 0; i < RECORDS; i++) {
+            if (i % 5 == 0 && i % 7 != 3) {
+                due++;
+            }
+        }
+        return due;
+    }
+    
+    /**
+     * Lines of the blank-title records; the header is line 1
+     */
+    private static List<Long> rejectedLines() {
+        List<Long> lines = new ArrayList<>();
+        for (int i = 0; i < RECORDS; i++) {
+            if (i % 7 == 3) {
+                lines.add(i + 2L);
+            }
+        }
+        return lines;
+    }
+    
+    private static InputStream upload(byte[] bytes) {
+        return new ByteArrayInputStream(bytes);
+    }
+    
+    /**
+     * An upload whose connection fails once this many bytes have been read
+     */
+    private static InputStream failingAfter(byte[] bytes, int limit) {
+        return new InputStream() {
+            
+            private int position;
+            
+            @Override
+            public int read() throws IOException {
+                byte[] one = new byte[1];
+                return read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+            }
+            
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                if (position >= limit) {
+                    throw new IOException("Connection reset");
+                }
+                int count = Math.min(length, limit - position);
+                System.arraycopy(bytes, position, buffer, offset, count);
+                position += count;
+                return count;
+            }
+        };
+    }
+    
+    private static String owner() {
+        return "import-" + UUID.randomUUID();
+    }
+    
+    private long countTodos(String owner) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM todos WHERE owner_id = ?", Long.class, owner);
+    }
+    
+    private long countTodos(String owner, String title, String description) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM todos WHERE owner_id = ? AND title = ? "
+                + "AND description = ?", Long.class, owner, title, description);
+    }
+}